@@ -0,0 +1,83 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import java.sql.SQLException;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reports.ReportSink;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Shared JMH state that points the application at an embedded in-memory H2 database
+ * (in MySQL compatibility mode) and seeds it once per trial. The data set size is
+ * controlled with JMH parameters, e.g. -p students=50000 -p modulesPerCourse=20.
+ * Setting -Dcms.db.url before the run benchmarks another database instead.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    static {
+        // Must run before DatabaseConnection is loaded, as it reads these once
+        if (System.getProperty("cms.db.url") == null) {
+            System.setProperty("cms.db.url", "jdbc:h2:mem:cms_db;MODE=MySQL;DATABASE_TO_LOWER=FALSE;DB_CLOSE_DELAY=-1");
+            System.setProperty("cms.db.rootUrl", "");
+            System.setProperty("cms.db.user", "sa");
+            System.setProperty("cms.db.password", "");
+        }
+    }
+
+    @Param({"20"})
+    public int courses;
+
+    @Param({"10"})
+    public int modulesPerCourse;
+
+    @Param({"50"})
+    public int lecturers;
+
+    @Param({"5000"})
+    public int students;
+
+    @Param({"6"})
+    public int enrolmentsPerStudent;
+
+    private SyntheticDataset dataset;
+
+    @Setup
+    public void seed() throws SQLException {
+        dataset = new SyntheticDataset(courses, modulesPerCourse, lecturers, students, enrolmentsPerStudent);
+        dataset.seed();
+    }
+
+    public SyntheticDataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Returns a sink that hands every report line to the blackhole, so report benchmarks
+     * measure query and formatting work without file or console I/O.
+     *
+     * @param blackhole The JMH blackhole of the current invocation.
+     * @return A ReportSink consuming lines into the blackhole.
+     */
+    static ReportSink blackholeSink(Blackhole blackhole) {
+        return new ReportSink() {
+            @Override
+            public void addLine(String line) {
+                blackhole.consume(line);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import dao.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import models.Course;
+import models.CourseModuleSummary;
+import models.Enrolment;
+import models.Feedback;
+import models.Grade;
+import models.Lecturer;
+import models.Module;
+import models.Student;
+import models.TranscriptEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Micro-benchmarks of the individual DAO lookups against the seeded database.
+ * Cached lookups are measured next to their uncached counterparts so the effect of
+ * the reference data cache is visible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoBenchmark {
+
+    private CourseDAO courseDAO;
+    private CourseDAO cachedCourseDAO;
+    private ModuleDAO moduleDAO;
+    private ModuleDAO cachedModuleDAO;
+    private LecturerDAO lecturerDAO;
+    private LecturerDAO cachedLecturerDAO;
+    private StudentDAO studentDAO;
+    private EnrolmentDAO enrolmentDAO;
+    private GradeDAO gradeDAO;
+    private FeedbackDAO feedbackDAO;
+    private ReportDAO reportDAO;
+    private List<Integer> allModuleIds;
+    private SyntheticDataset dataset;
+
+    @Setup
+    public void setUp(BenchmarkDatabase db) {
+        dataset = db.getDataset();
+        courseDAO = new JdbcCourseDAO();
+        cachedCourseDAO = new CachedCourseDAO(new JdbcCourseDAO());
+        moduleDAO = new JdbcModuleDAO();
+        cachedModuleDAO = new CachedModuleDAO(new JdbcModuleDAO());
+        lecturerDAO = new JdbcLecturerDAO();
+        cachedLecturerDAO = new CachedLecturerDAO(new JdbcLecturerDAO());
+        studentDAO = new JdbcStudentDAO();
+        enrolmentDAO = new JdbcEnrolmentDAO();
+        gradeDAO = new JdbcGradeDAO();
+        feedbackDAO = new JdbcFeedbackDAO();
+        reportDAO = new JdbcReportDAO();
+        allModuleIds = new ArrayList<>();
+        for (int i = 1; i <= dataset.getModules(); i++) {
+            allModuleIds.add(i);
+        }
+    }
+
+    private static int randomId(int max) {
+        return 1 + ThreadLocalRandom.current().nextInt(max);
+    }
+
+    @Benchmark
+    public List<Course> getAllCourses() {
+        return courseDAO.getAllCourses();
+    }
+
+    @Benchmark
+    public Course getCourseById() {
+        return courseDAO.getCourseById(randomId(dataset.getCourses()));
+    }
+
+    @Benchmark
+    public Course getCourseByIdCached() {
+        return cachedCourseDAO.getCourseById(randomId(dataset.getCourses()));
+    }
+
+    @Benchmark
+    public List<Module> getModulesByCourseId() {
+        return moduleDAO.getModulesByCourseId(randomId(dataset.getCourses()));
+    }
+
+    @Benchmark
+    public Module getModuleById() {
+        return moduleDAO.getModuleById(randomId(dataset.getModules()));
+    }
+
+    @Benchmark
+    public Module getModuleByIdCached() {
+        return cachedModuleDAO.getModuleById(randomId(dataset.getModules()));
+    }
+
+    @Benchmark
+    public List<Module> getModulesByLecturerId() {
+        return moduleDAO.getModulesByLecturerId(randomId(dataset.getLecturers()));
+    }
+
+    @Benchmark
+    public List<Lecturer> getAllLecturers() {
+        return lecturerDAO.getAllLecturers();
+    }
+
+    @Benchmark
+    public Lecturer getLecturerById() {
+        return lecturerDAO.getLecturerById(randomId(dataset.getLecturers()));
+    }
+
+    @Benchmark
+    public Lecturer getLecturerByIdCached() {
+        return cachedLecturerDAO.getLecturerById(randomId(dataset.getLecturers()));
+    }
+
+    @Benchmark
+    public Student getStudentById() {
+        return studentDAO.getStudentById(randomId(dataset.getStudents()));
+    }
+
+    @Benchmark
+    public List<Student> getAllStudents() {
+        return studentDAO.getAllStudents();
+    }
+
+    @Benchmark
+    public List<Student> getStudentsPageAtRandomOffset() {
+        // Keyset pages cost the same wherever they start
+        return studentDAO.getStudentsAfter(randomId(dataset.getStudents()) - 1, 50);
+    }
+
+    @Benchmark
+    public long forEachStudent() {
+        long[] checksum = {0};
+        studentDAO.forEachStudent(s -> checksum[0] += s.getStudentId());
+        return checksum[0];
+    }
+
+    @Benchmark
+    public List<Enrolment> getEnrolmentsByStudentId() {
+        return enrolmentDAO.getEnrolmentsByStudentId(randomId(dataset.getStudents()));
+    }
+
+    @Benchmark
+    public List<TranscriptEntry> getTranscriptByStudentId() {
+        return enrolmentDAO.getTranscriptByStudentId(randomId(dataset.getStudents()));
+    }
+
+    @Benchmark
+    public int countEnrolmentsByModuleId() {
+        return enrolmentDAO.countEnrolmentsByModuleId(randomId(dataset.getModules()));
+    }
+
+    @Benchmark
+    public IntIntHashMap countEnrolmentsByModuleIdsAll() {
+        return enrolmentDAO.countEnrolmentsByModuleIds(allModuleIds);
+    }
+
+    @Benchmark
+    public List<Grade> getGradesByStudentId() {
+        return gradeDAO.getGradesByStudentId(randomId(dataset.getStudents()));
+    }
+
+    @Benchmark
+    public Grade getGradeByStudentIdAndModuleId() {
+        return gradeDAO.getGradeByStudentIdAndModuleId(randomId(dataset.getStudents()), randomId(dataset.getModules()));
+    }
+
+    @Benchmark
+    public List<Feedback> getFeedbackByCourseId() {
+        return feedbackDAO.getFeedbackByCourseId(randomId(dataset.getCourses()));
+    }
+
+    @Benchmark
+    public List<CourseModuleSummary> getCourseReportRows() {
+        return reportDAO.getCourseReportRows();
+    }
+}
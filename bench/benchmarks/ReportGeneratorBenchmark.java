@@ -0,0 +1,124 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reports.ConsoleReportGenerator;
+import reports.CsvReportGenerator;
+import reports.ReportSink;
+import reports.StreamingReportGenerator;
+import reports.TxtReportGenerator;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Benchmarks each ReportGenerator output format on a synthetic report, independent of
+ * the database. File formats write into a temporary directory; console output is
+ * redirected to a discarding stream for the duration of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportGeneratorBenchmark {
+
+    @Param({"txt", "csv", "txt.gz", "csv.gz", "console"})
+    public String format;
+
+    @Param({"10000"})
+    public int lines;
+
+    private StreamingReportGenerator generator;
+    private List<String> reportLines;
+    private File outputDir;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        outputDir = Files.createTempDirectory("cms-bench").toFile();
+        reportLines = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            reportLines.add("\tModule: Module " + i + ", Enrolled Students: " + (i % 300)
+                    + ", Lecturer: Lecturer " + (i % 50) + ", Room: Room " + (100 + i % 40));
+        }
+        switch (format) {
+            case "txt":
+                generator = new TxtReportGenerator();
+                break;
+            case "csv":
+                generator = new CsvReportGenerator();
+                break;
+            case "txt.gz":
+                generator = new TxtReportGenerator(true);
+                break;
+            case "csv.gz":
+                generator = new CsvReportGenerator(true);
+                break;
+            default:
+                generator = new ConsoleReportGenerator();
+                break;
+        }
+        // Generators print status messages and console reports to System.out
+        originalOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        File[] files = outputDir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        outputDir.delete();
+    }
+
+    @Benchmark
+    public void generateFromList() {
+        generator.generateReport(reportLines, new File(outputDir, "Report").getPath());
+    }
+
+    @Benchmark
+    public void generateStreaming() {
+        try (ReportSink sink = generator.openReport(new File(outputDir, "Report").getPath())) {
+            for (int i = 0; i < lines; i++) {
+                sink.addLine(reportLines.get(i));
+            }
+        }
+    }
+}
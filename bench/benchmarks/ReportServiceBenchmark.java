@@ -0,0 +1,87 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import models.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import dao.JdbcStudentDAO;
+import dao.StudentDAO;
+import services.ReportService;
+
+/**
+ *
+ * @author Gytis
+ *
+ * End-to-end benchmarks of the ReportService report paths against the seeded database.
+ * Throughput and sampled latency (with percentiles) are measured for each report.
+ * Student reports are written for students looked up during setup, so only the report
+ * itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    // Number of students looked up in advance for the student report
+    private static final int SAMPLE_STUDENTS = 1024;
+
+    private ReportService reportService;
+    private Student[] students;
+
+    @Setup
+    public void setUp(BenchmarkDatabase db) {
+        reportService = new ReportService();
+        StudentDAO studentDAO = new JdbcStudentDAO();
+        List<Student> sample = new ArrayList<>(SAMPLE_STUDENTS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLE_STUDENTS; i++) {
+            Student student = studentDAO.getStudentById(1 + random.nextInt(db.getDataset().getStudents()));
+            if (student != null) {
+                sample.add(student);
+            }
+        }
+        students = sample.toArray(new Student[0]);
+    }
+
+    @Benchmark
+    public void courseReport(BenchmarkDatabase db, Blackhole bh) {
+        reportService.writeCourseReport(BenchmarkDatabase.blackholeSink(bh));
+    }
+
+    @Benchmark
+    public void studentReport(BenchmarkDatabase db, Blackhole bh) {
+        Student student = students[ThreadLocalRandom.current().nextInt(students.length)];
+        reportService.writeStudentReport(student, BenchmarkDatabase.blackholeSink(bh));
+    }
+
+    @Benchmark
+    public void lecturerReport(BenchmarkDatabase db, Blackhole bh) {
+        int lecturerId = 1 + ThreadLocalRandom.current().nextInt(db.getDataset().getLecturers());
+        reportService.writeLecturerReport(lecturerId, BenchmarkDatabase.blackholeSink(bh));
+    }
+
+    @Benchmark
+    public void lecturerSelfReport(BenchmarkDatabase db, Blackhole bh) {
+        int lecturerId = 1 + ThreadLocalRandom.current().nextInt(db.getDataset().getLecturers());
+        reportService.writeLecturerReportForSelf(lecturerId, BenchmarkDatabase.blackholeSink(bh));
+    }
+}
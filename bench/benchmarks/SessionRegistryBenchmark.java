@@ -0,0 +1,80 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import services.SessionRegistry;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Benchmarks the SessionRegistry with thousands of live sessions shared by many threads,
+ * independent of the database: looking sessions up by token (every authenticated API
+ * request), logging in and out, and sweeping the registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class SessionRegistryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    private SessionRegistry registry;
+    private String[] tokens;
+    private User churnUser;
+
+    @Setup
+    public void setUp() {
+        registry = new SessionRegistry();
+        tokens = new String[sessions];
+        String[] roles = {"Admin", "Office", "Lecturer"};
+        for (int i = 0; i < sessions; i++) {
+            tokens[i] = registry.create(new User(i + 1, "user" + (i + 1), null, roles[i % roles.length])).getToken();
+        }
+        churnUser = new User(sessions + 1, "churn", null, "Office");
+    }
+
+    @Benchmark
+    public SessionRegistry.Session lookup() {
+        return registry.get(tokens[ThreadLocalRandom.current().nextInt(tokens.length)]);
+    }
+
+    @Benchmark
+    public SessionRegistry.Session unknownToken() {
+        return registry.get("not-a-session-" + ThreadLocalRandom.current().nextInt(1024));
+    }
+
+    @Benchmark
+    public boolean loginLogout() {
+        SessionRegistry.Session session = registry.create(churnUser);
+        return registry.invalidate(session.getToken());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int sweep() {
+        return registry.sweep(); // Nothing has expired, so this measures the scan alone
+    }
+}
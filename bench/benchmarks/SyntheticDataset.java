@@ -0,0 +1,175 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package benchmarks;
+
+import database.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Seeds the benchmark database with a reproducible synthetic data set of courses,
+ * lecturers, modules, students, enrolments, grades and feedback. IDs are assigned
+ * explicitly from 1 so benchmarks can pick valid IDs without querying.
+ */
+public class SyntheticDataset {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] COURSE_TYPES = {"in_class", "online", "blended"};
+
+    private final int courses;
+    private final int modulesPerCourse;
+    private final int lecturers;
+    private final int students;
+    private final int enrolmentsPerStudent;
+
+    /**
+     * Describes the size of the data set to generate.
+     *
+     * @param courses Number of courses.
+     * @param modulesPerCourse Number of modules in each course.
+     * @param lecturers Number of lecturers; modules are assigned to them round-robin.
+     * @param students Number of students; each belongs to one course.
+     * @param enrolmentsPerStudent Number of modules each student is enrolled in.
+     */
+    public SyntheticDataset(int courses, int modulesPerCourse, int lecturers, int students, int enrolmentsPerStudent) {
+        this.courses = courses;
+        this.modulesPerCourse = modulesPerCourse;
+        this.lecturers = lecturers;
+        this.students = students;
+        this.enrolmentsPerStudent = Math.min(enrolmentsPerStudent, modulesPerCourse);
+    }
+
+    public int getCourses() {
+        return courses;
+    }
+
+    public int getModules() {
+        return courses * modulesPerCourse;
+    }
+
+    public int getLecturers() {
+        return lecturers;
+    }
+
+    public int getStudents() {
+        return students;
+    }
+
+    /**
+     * Replaces the contents of every table with the synthetic data set.
+     *
+     * @throws SQLException if seeding fails.
+     */
+    public void seed() throws SQLException {
+        Random random = new Random(42); // Fixed seed keeps runs comparable
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String table : new String[]{"Feedback", "Grades", "Enrolments", "Students", "Modules", "Lecturers", "Courses"}) {
+                    stmt.executeUpdate("DELETE FROM " + table);
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Courses (Course_ID, Course_Name, Description, Course_Type, QQI_Level) VALUES (?, ?, ?, ?, ?)")) {
+                for (int c = 1; c <= courses; c++) {
+                    pstmt.setInt(1, c);
+                    pstmt.setString(2, "Course " + c);
+                    pstmt.setString(3, "Synthetic course number " + c);
+                    pstmt.setString(4, COURSE_TYPES[c % COURSE_TYPES.length]);
+                    pstmt.setInt(5, 6 + c % 4);
+                    addToBatch(pstmt, c);
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Lecturers (Lecturer_ID, Name, Email, Role, Teaching_Types) VALUES (?, ?, ?, ?, ?)")) {
+                for (int l = 1; l <= lecturers; l++) {
+                    pstmt.setInt(1, l);
+                    pstmt.setString(2, "Lecturer " + l);
+                    pstmt.setString(3, "lecturer" + l + "@example.com");
+                    pstmt.setString(4, l % 5 == 0 ? "Senior Lecturer" : "Lecturer");
+                    pstmt.setString(5, "lecture, tutorial");
+                    addToBatch(pstmt, l);
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO Modules (Module_ID, Course_ID, Module_Name, Lecturer_ID, Room) VALUES (?, ?, ?, ?, ?)")) {
+                int moduleId = 0;
+                for (int c = 1; c <= courses; c++) {
+                    for (int m = 0; m < modulesPerCourse; m++) {
+                        moduleId++;
+                        pstmt.setInt(1, moduleId);
+                        pstmt.setInt(2, c);
+                        pstmt.setString(3, "Module " + moduleId);
+                        pstmt.setInt(4, 1 + moduleId % lecturers);
+                        pstmt.setString(5, "Room " + (100 + moduleId % 40));
+                        addToBatch(pstmt, moduleId);
+                    }
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement students = conn.prepareStatement(
+                    "INSERT INTO Students (Student_ID, Name, Email, Course_ID) VALUES (?, ?, ?, ?)");
+                 PreparedStatement enrolments = conn.prepareStatement(
+                    "INSERT INTO Enrolments (Enrolment_ID, Student_ID, Module_ID, Status) VALUES (?, ?, ?, ?)");
+                 PreparedStatement grades = conn.prepareStatement(
+                    "INSERT INTO Grades (Grade_ID, Student_ID, Module_ID, Grade) VALUES (?, ?, ?, ?)")) {
+                int enrolmentId = 0;
+                int gradeId = 0;
+                for (int s = 1; s <= this.students; s++) {
+                    int courseId = 1 + s % courses;
+                    students.setInt(1, s);
+                    students.setString(2, "Student " + s);
+                    students.setString(3, "student" + s + "@example.com");
+                    students.setInt(4, courseId);
+                    addToBatch(students, s);
+
+                    int firstModule = (courseId - 1) * modulesPerCourse + 1;
+                    for (int e = 0; e < enrolmentsPerStudent; e++) {
+                        int moduleId = firstModule + (s + e) % modulesPerCourse;
+                        boolean completed = random.nextInt(3) != 0;
+                        enrolments.setInt(1, ++enrolmentId);
+                        enrolments.setInt(2, s);
+                        enrolments.setInt(3, moduleId);
+                        enrolments.setString(4, completed ? "completed" : "enrolled");
+                        addToBatch(enrolments, enrolmentId);
+                        if (completed) {
+                            grades.setInt(1, ++gradeId);
+                            grades.setInt(2, s);
+                            grades.setInt(3, moduleId);
+                            grades.setInt(4, 40 + random.nextInt(61));
+                            addToBatch(grades, gradeId);
+                        }
+                    }
+                }
+                students.executeBatch();
+                enrolments.executeBatch();
+                grades.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Adds the current parameters to the batch, flushing every BATCH_SIZE rows.
+     */
+    private static void addToBatch(PreparedStatement pstmt, int rowNumber) throws SQLException {
+        pstmt.addBatch();
+        if (rowNumber % BATCH_SIZE == 0) {
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dao.AsyncDAO;
+import dao.DAOFactory;
+import dao.DataVersionDAO;
+import dao.LecturerDAO;
+import dao.StudentDAO;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import models.Student;
+import models.User;
+import reports.FileReportGenerator;
+import reports.ReportSink;
+import services.AuthenticationService;
+import services.ReportService;
+import services.SessionRegistry;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Embedded HTTP API for the reports, built on the JDK's own HTTP server, so that many
+ * office staff and lecturers can fetch reports at once without a console session each.
+ * Clients log in once with HTTP Basic authentication and then send the session token they
+ * get back as "Authorization: Bearer TOKEN"; Basic credentials are also accepted on every
+ * request. Sessions expire as configured for SessionRegistry. The role checks match the menus:
+ *
+ *   POST /api/login                        Starts a session; returns its token and the user's ID and role
+ *   POST /api/logout                       Ends the session of the bearer token
+ *   GET  /api/reports/course?format=F      Course report (Office, Admin)
+ *   GET  /api/reports/students/{id}?format=F   Student report (Office, Admin)
+ *   GET  /api/reports/lecturers/{id}?format=F  Lecturer report (Office, Admin)
+ *   GET  /api/reports/self?format=F        The logged-in lecturer's self-report (Lecturer)
+ *
+ * F is txt, csv (the default), txt.gz or csv.gz. A report is built into memory (or replayed
+ * from the report cache) before anything is sent, so no database connection is held while
+ * a slow client reads it, and a report a DAO error may have left incomplete is answered
+ * with 503 instead. Complete reports carry an ETag naming the data version they were
+ * built from: a request with a matching If-None-Match gets 304 Not Modified without the
+ * report being built. Passwords and tokens travel in plain text, so the server listens on the
+ * loopback interface unless told otherwise and should be exposed through a
+ * TLS-terminating proxy.
+ *
+ * Each request is handled on its own virtual thread when the JVM supports them (Java 21
+ * and later); otherwise on a fixed pool of -Dcms.http.threads threads (default 32). The
+ * database work of every request goes through AsyncDAO, so however many requests are
+ * running, no more of them use the database at once than the connection pool can serve.
+ */
+public class ReportHttpServer {
+
+    private static final int THREADS = Integer.getInteger("cms.http.threads", 32);
+    private static final String REALM = "Basic realm=\"Course Management System\", charset=\"UTF-8\"";
+    private static final String OFFICE_ONLY = "Only office staff and admins can view this report";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AuthenticationService authService = new AuthenticationService();
+    private final ReportService reportService = new ReportService();
+    private final StudentDAO studentDAO = DAOFactory.getStudentDAO();
+    private final LecturerDAO lecturerDAO = DAOFactory.getLecturerDAO();
+
+    /**
+     * Creates a server on the given address; it accepts no requests until started.
+     *
+     * @param host The address to listen on, e.g. "127.0.0.1", or "0.0.0.0" for every interface.
+     * @param port The port to listen on.
+     * @throws IOException if the address cannot be bound.
+     */
+    public ReportHttpServer(String host, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = createExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/login", this::handleLogin);
+        server.createContext("/api/logout", this::handleLogout);
+        server.createContext("/api/reports/", this::handleReport);
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start() {
+        authService.getSessions().startSweeping();
+        server.start();
+        System.out.println("Report API listening on http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + "/api/ (" + getThreadingDescription() + ")");
+    }
+
+    /**
+     * Stops accepting requests, giving requests in progress up to the given delay to finish.
+     *
+     * @param delaySeconds The longest time to wait for requests in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        authService.getSessions().stopSweeping();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on, e.g. when it was created with port 0.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Describes how requests are run, for the start-up message.
+     *
+     * @return "virtual threads" or the size of the fixed pool.
+     */
+    public String getThreadingDescription() {
+        return executor instanceof ThreadPoolExecutor
+                ? THREADS + " request threads, " + AsyncDAO.getMaxInFlight() + " database requests at once"
+                : "virtual threads, " + AsyncDAO.getMaxInFlight() + " database requests at once";
+    }
+
+    /**
+     * POST /api/login: checks the Basic credentials and starts a session.
+     */
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendText(exchange, 405, "Use POST");
+                return;
+            }
+            String[] credentials = basicCredentials(exchange);
+            SessionRegistry.Session session = credentials == null ? null
+                    : AsyncDAO.call(() -> authService.login(credentials[0], credentials[1]));
+            if (session == null) {
+                unauthorized(exchange);
+                return;
+            }
+            User user = session.getUser();
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            sendJson(exchange, 200, "{\"token\":" + json(session.getToken()) + ",\"userId\":" + user.getUserId()
+                    + ",\"username\":" + json(user.getUsername()) + ",\"role\":" + json(user.getRole()) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * POST /api/logout: ends the session of the bearer token.
+     */
+    private void handleLogout(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendText(exchange, 405, "Use POST");
+                return;
+            }
+            String token = bearerToken(exchange);
+            SessionRegistry.Session session = AsyncDAO.call(() -> authService.getSession(token));
+            if (session == null) {
+                unauthorized(exchange);
+                return;
+            }
+            authService.logout(session);
+            exchange.sendResponseHeaders(204, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * GET /api/reports/...: streams a report, or answers 304 if the client's copy is current.
+     */
+    private void handleReport(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendText(exchange, 405, "Use GET");
+                return;
+            }
+            User user = authenticate(exchange);
+            if (user == null) {
+                return;
+            }
+            String format = queryParameter(exchange, "format", "csv").toLowerCase();
+            FileReportGenerator generator = ReportService.fileGeneratorFor(format);
+            if (generator == null) {
+                sendText(exchange, 400, "Unsupported format " + format + "; use txt, csv, txt.gz or csv.gz");
+                return;
+            }
+            String[] path = exchange.getRequestURI().getPath().substring("/api/reports/".length()).split("/");
+            boolean officeStaff = "Office".equals(user.getRole()) || "Admin".equals(user.getRole());
+
+            if (path.length == 1 && "course".equals(path[0])) {
+                if (!officeStaff) {
+                    sendText(exchange, 403, OFFICE_ONLY);
+                    return;
+                }
+                long version = AsyncDAO.call(reportService::getCourseReportVersion);
+                if (notModified(exchange, "CourseReport", format, version)) {
+                    return;
+                }
+                // The rows are streamed on this thread, so the whole build holds a permit
+                byte[] body = AsyncDAO.call(() -> render(generator, report -> reportService.streamCourseReport(version, report)));
+                sendReport(exchange, generator, "CourseReport", format, version, body);
+            } else if (path.length == 2 && "students".equals(path[0])) {
+                if (!officeStaff) {
+                    sendText(exchange, 403, OFFICE_ONLY);
+                    return;
+                }
+                Integer studentId = parseId(path[1]);
+                if (studentId == null) {
+                    sendText(exchange, 404, "No such report");
+                    return;
+                }
+                long version = AsyncDAO.call(reportService::getStudentReportVersion);
+                String name = "StudentReport_" + studentId;
+                if (notModified(exchange, name, format, version)) {
+                    return;
+                }
+                Student student = AsyncDAO.call(() -> studentDAO.getStudentById(studentId));
+                if (student == null) {
+                    sendText(exchange, 404, "Student not found");
+                    return;
+                }
+                // Lookups run through AsyncDAO, so this thread holds no permit while it waits for them
+                byte[] body = render(generator, report -> reportService.streamStudentReport(student, version, report));
+                sendReport(exchange, generator, name, format, version, body);
+            } else if ((path.length == 2 && "lecturers".equals(path[0])) || (path.length == 1 && "self".equals(path[0]))) {
+                boolean self = path.length == 1;
+                if (self ? !"Lecturer".equals(user.getRole()) : !officeStaff) {
+                    sendText(exchange, 403, self ? "Only lecturers have a self-report" : OFFICE_ONLY);
+                    return;
+                }
+                // Lecturers are linked to their user account by ID, as in the lecturer menu
+                Integer lecturerId = self ? Integer.valueOf(user.getUserId()) : parseId(path[1]);
+                if (lecturerId == null) {
+                    sendText(exchange, 404, "No such report");
+                    return;
+                }
+                long version = AsyncDAO.call(reportService::getLecturerReportVersion);
+                String name = (self ? "LecturerSelfReport_" : "LecturerReport_") + lecturerId;
+                if (notModified(exchange, name, format, version)) {
+                    return;
+                }
+                if (AsyncDAO.call(() -> lecturerDAO.getLecturerById(lecturerId)) == null) {
+                    sendText(exchange, 404, "Lecturer not found");
+                    return;
+                }
+                byte[] body = render(generator, report -> reportService.streamLecturerReport(lecturerId, self, version, report));
+                sendReport(exchange, generator, name, format, version, body);
+            } else {
+                sendText(exchange, 404, "No such report");
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error serving " + exchange.getRequestURI() + ": " + e.getMessage());
+            if (exchange.getResponseCode() == -1) { // Nothing sent yet
+                sendText(exchange, 500, "Error building the report");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Identifies the user from the request's session token or Basic credentials, answering
+     * 401 if neither is valid. A token is looked up in memory, and its user reloaded now and
+     * then to catch role changes; credentials are checked against the user store on every request.
+     *
+     * @return The user, or null if a 401 response was sent.
+     */
+    private User authenticate(HttpExchange exchange) throws IOException {
+        String token = bearerToken(exchange);
+        User user = null;
+        if (token != null) {
+            SessionRegistry.Session session = AsyncDAO.call(() -> authService.getSession(token)); // May reload the user
+            user = session == null ? null : session.getUser();
+        } else {
+            String[] credentials = basicCredentials(exchange);
+            user = credentials == null ? null : AsyncDAO.call(() -> authService.authenticate(credentials[0], credentials[1]));
+        }
+        if (user == null) {
+            unauthorized(exchange);
+        }
+        return user;
+    }
+
+    private static void unauthorized(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("WWW-Authenticate", REALM);
+        sendText(exchange, 401, "Login required");
+    }
+
+    /**
+     * Returns the token of an "Authorization: Bearer" header, or null if there is none.
+     */
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.regionMatches(true, 0, "Bearer ", 0, 7) ? header.substring(7).trim() : null;
+    }
+
+    /**
+     * Decodes an "Authorization: Basic" header.
+     *
+     * @return The username and password, or null if there is no well-formed header.
+     */
+    private static String[] basicCredentials(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon > 0 ? new String[]{credentials.substring(0, colon), credentials.substring(colon + 1)} : null;
+        } catch (IllegalArgumentException e) {
+            return null; // Malformed Base64, treated like wrong credentials
+        }
+    }
+
+    /**
+     * Answers 304 if the client already has this version of the report.
+     * Reports whose data version is not tracked get no ETag and are always built.
+     *
+     * @return true if a 304 response was sent.
+     */
+    private static boolean notModified(HttpExchange exchange, String name, String format, long version) throws IOException {
+        if (version == DataVersionDAO.UNTRACKED) {
+            return false;
+        }
+        String etag = etag(name, format, version);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals("*")) {
+                    setValidators(exchange, etag);
+                    exchange.sendResponseHeaders(304, -1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String etag(String name, String format, long version) {
+        return "\"" + name + "." + format + "-" + Long.toHexString(version) + "\"";
+    }
+
+    private static void setValidators(HttpExchange exchange, String etag) {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "private, no-cache");
+    }
+
+    /**
+     * Builds a report into memory in the generator's format.
+     *
+     * @param writer Writes the report into the sink it is given; returns false if it may be incomplete.
+     * @return The encoded report, or null if it may be incomplete.
+     */
+    private static byte[] render(FileReportGenerator generator, Predicate<ReportSink> writer) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        ReportSink report = generator.openReport(buffer);
+        boolean complete;
+        try {
+            complete = writer.test(report);
+        } finally {
+            report.close();
+        }
+        return complete && report.getFailure() == null ? buffer.toByteArray() : null;
+    }
+
+    /**
+     * Sends a built report with its ETag, or 503 without one if it may be incomplete, so
+     * a partial report is never cached by the client or revalidated later.
+     */
+    private static void sendReport(HttpExchange exchange, FileReportGenerator generator, String name, String format,
+            long version, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            sendText(exchange, 503, "The report could not be read completely; please try again");
+            return;
+        }
+        if (version != DataVersionDAO.UNTRACKED) {
+            setValidators(exchange, etag(name, format, version));
+        }
+        String extension = generator.getFileExtension();
+        String contentType = extension.endsWith(".gz") ? "application/gzip"
+                : extension.equals(".csv") ? "text/csv; charset=utf-8" : "text/plain; charset=utf-8";
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + name + extension + "\"");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, "text/plain; charset=utf-8", message + "\n");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json", json);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Returns a query string parameter; values are plain words, so no decoding is needed.
+     */
+    private static String queryParameter(HttpExchange exchange, String name, String defaultValue) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.startsWith(name + "=")) {
+                    return pair.substring(name.length() + 1);
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static Integer parseId(String text) {
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Quotes a string as a JSON string literal.
+     */
+    private static String json(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Creates the request executor: a virtual thread per request where the JVM has them,
+     * looked up reflectively as the code is built for Java 8, otherwise a fixed pool.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(THREADS, r -> new Thread(r, "cms-http-" + count.incrementAndGet()));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import database.DatabaseConnection;
+import database.SlowQueryLog;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import metrics.FailureScope;
+import models.Course;
+import models.Lecturer;
+import models.Module;
+import models.Student;
+import models.TranscriptEntry;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Asynchronous facade over the DAOs. Every call returns a CompletableFuture and runs the
+ * blocking DAO method on a shared executor, so callers can start independent lookups at
+ * the same time and join them afterwards.
+ * On Java 21 and later the executor starts one virtual thread per call; on older runtimes
+ * (the project targets Java 8) it falls back to a fixed pool of daemon platform threads.
+ * A shared semaphore caps the number of DAO calls in flight at the connection pool's
+ * maximum size, so fanning out never queues more work on the pool than it can serve.
+ * The cap can be overridden with -Dcms.async.maxInFlight. Blocking work that runs on the
+ * caller's own thread, such as an API request reading a report, takes a permit through
+ * call(). Calls started while a thread already holds a permit run inline on that thread,
+ * so nested lookups never wait for permits their caller is holding.
+ * Each call runs in the caller's FailureScope, so DAO errors it swallows count against the
+ * caller's work, as do those of stages chained onto its future.
+ */
+public class AsyncDAO {
+
+    private final CourseDAO courseDAO;
+    private final ModuleDAO moduleDAO;
+    private final LecturerDAO lecturerDAO;
+    private final StudentDAO studentDAO;
+    private final EnrolmentDAO enrolmentDAO;
+
+    /**
+     * Constructs an AsyncDAO over the DAOs of the backend selected in DAOFactory.
+     */
+    public AsyncDAO() {
+        this(DAOFactory.getCourseDAO(), DAOFactory.getModuleDAO(), DAOFactory.getLecturerDAO(),
+                DAOFactory.getStudentDAO(), DAOFactory.getEnrolmentDAO());
+    }
+
+    /**
+     * Constructs an AsyncDAO over the given DAOs.
+     *
+     * @param courseDAO The DAO used for course lookups.
+     * @param moduleDAO The DAO used for module lookups.
+     * @param lecturerDAO The DAO used for lecturer lookups.
+     * @param studentDAO The DAO used for student lookups.
+     * @param enrolmentDAO The DAO used for enrolments and transcripts.
+     */
+    public AsyncDAO(CourseDAO courseDAO, ModuleDAO moduleDAO, LecturerDAO lecturerDAO,
+            StudentDAO studentDAO, EnrolmentDAO enrolmentDAO) {
+        this.courseDAO = courseDAO;
+        this.moduleDAO = moduleDAO;
+        this.lecturerDAO = lecturerDAO;
+        this.studentDAO = studentDAO;
+        this.enrolmentDAO = enrolmentDAO;
+    }
+
+    public CompletableFuture<Course> getCourseById(int courseId) {
+        return supply(() -> courseDAO.getCourseById(courseId));
+    }
+
+    public CompletableFuture<Module> getModuleById(int moduleId) {
+        return supply(() -> moduleDAO.getModuleById(moduleId));
+    }
+
+    public CompletableFuture<List<Module>> getModulesByLecturerId(int lecturerId) {
+        return supply(() -> moduleDAO.getModulesByLecturerId(lecturerId));
+    }
+
+    public CompletableFuture<Lecturer> getLecturerById(int lecturerId) {
+        return supply(() -> lecturerDAO.getLecturerById(lecturerId));
+    }
+
+    public CompletableFuture<Student> getStudentById(int studentId) {
+        return supply(() -> studentDAO.getStudentById(studentId));
+    }
+
+    public CompletableFuture<List<TranscriptEntry>> getTranscriptByStudentId(int studentId) {
+        return supply(() -> enrolmentDAO.getTranscriptByStudentId(studentId));
+    }
+
+    public CompletableFuture<IntIntHashMap> countEnrolmentsByModuleIds(Collection<Integer> moduleIds) {
+        return supply(() -> enrolmentDAO.countEnrolmentsByModuleIds(moduleIds));
+    }
+
+    /**
+     * Runs an arbitrary blocking DAO call on the shared executor, within the in-flight cap.
+     *
+     * @param <T> The result type.
+     * @param call The DAO call to run.
+     * @return A future completed with the call's result, or exceptionally if it throws.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        if (Shared.HOLDS_PERMIT.get()[0]) {
+            // Waiting for another permit here could deadlock once every permit is held this way
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(call.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        // Lets slow queries name the ReportService method behind them
+        Object callSite = Shared.TRACK_CALL_SITES ? SlowQueryLog.captureCallSite() : null;
+        FailureScope scope = FailureScope.current();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Shared.EXECUTOR.execute(() -> {
+            FailureScope previous = FailureScope.enter(scope);
+            try {
+                T result;
+                try {
+                    if (callSite != null) {
+                        SlowQueryLog.setCallSite(callSite);
+                    }
+                    result = withPermit(call);
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                    return;
+                } finally {
+                    if (callSite != null) {
+                        SlowQueryLog.setCallSite(null);
+                    }
+                }
+                future.complete(result); // Stages chained onto the future run here, still in the caller's scope
+            } finally {
+                FailureScope.enter(previous);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs blocking DAO work on the calling thread, within the in-flight cap, e.g. on a
+     * request thread that streams rows itself. Waits for a permit first unless the thread
+     * already holds one.
+     *
+     * @param <T> The result type.
+     * @param call The DAO work to run.
+     * @return The work's result.
+     */
+    public static <T> T call(Supplier<T> call) {
+        return Shared.HOLDS_PERMIT.get()[0] ? call.get() : withPermit(call);
+    }
+
+    /**
+     * Runs work holding one permit, which is released before the result is handed back,
+     * so calls chained on it can start.
+     */
+    private static <T> T withPermit(Supplier<T> call) {
+        boolean[] holdsPermit = Shared.HOLDS_PERMIT.get();
+        Shared.IN_FLIGHT.acquireUninterruptibly();
+        holdsPermit[0] = true;
+        try {
+            return call.get();
+        } finally {
+            holdsPermit[0] = false;
+            Shared.IN_FLIGHT.release();
+        }
+    }
+
+    /**
+     * Returns the maximum number of DAO calls allowed in flight at once.
+     *
+     * @return The in-flight cap.
+     */
+    public static int getMaxInFlight() {
+        return Shared.MAX_IN_FLIGHT;
+    }
+
+    /**
+     * Checks whether calls run on virtual threads rather than the platform-thread fallback.
+     *
+     * @return true if virtual threads are in use.
+     */
+    public static boolean usesVirtualThreads() {
+        return Shared.VIRTUAL;
+    }
+
+    /**
+     * Lazily created executor and semaphore, shared by every AsyncDAO so the cap applies
+     * to the connection pool as a whole.
+     */
+    private static final class Shared {
+        private static final int MAX_IN_FLIGHT = Integer.getInteger("cms.async.maxInFlight",
+                DAOFactory.usesDatabase() ? DatabaseConnection.getPoolMaxSize() : Runtime.getRuntime().availableProcessors());
+        private static final Semaphore IN_FLIGHT = new Semaphore(MAX_IN_FLIGHT);
+        private static final ThreadLocal<boolean[]> HOLDS_PERMIT = ThreadLocal.withInitial(() -> new boolean[1]);
+        private static final boolean TRACK_CALL_SITES = DAOFactory.usesDatabase() && SlowQueryLog.isEnabled();
+        private static final ExecutorService VIRTUAL_EXECUTOR = newVirtualThreadExecutor();
+        private static final boolean VIRTUAL = VIRTUAL_EXECUTOR != null;
+        private static final ExecutorService EXECUTOR = VIRTUAL ? VIRTUAL_EXECUTOR : newPlatformThreadExecutor();
+
+        /**
+         * Looks up Executors.newVirtualThreadPerTaskExecutor() reflectively, since it does
+         * not exist on the Java 8 API the project compiles against.
+         *
+         * @return A virtual-thread-per-task executor, or null on runtimes without virtual threads.
+         */
+        private static ExecutorService newVirtualThreadExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Creates the fallback executor: one daemon platform thread per permit, so a waiting
+         * task never holds a thread that a permitted task could use.
+         */
+        private static ExecutorService newPlatformThreadExecutor() {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(MAX_IN_FLIGHT, r -> {
+                Thread t = new Thread(r, "cms-async-dao-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
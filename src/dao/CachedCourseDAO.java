@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import models.Course;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Read-through caching decorator for a CourseDAO.
+ * Lookups by ID are served from the shared ReferenceDataCache and only reach the
+ * wrapped DAO on a miss or after the cached entry has expired.
+ */
+public class CachedCourseDAO implements CourseDAO {
+
+    private final CourseDAO delegate; // DAO consulted on cache misses
+
+    /**
+     * Constructs a CachedCourseDAO in front of the given DAO.
+     *
+     * @param delegate The DAO that loads courses on a cache miss.
+     */
+    public CachedCourseDAO(CourseDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return delegate.getAllCourses();
+    }
+
+    /**
+     * Retrieves a course by its ID, from the cache when possible.
+     * 
+     * @param courseId The ID of the course to retrieve.
+     * @return A Course object, or null if no course is found with the given ID.
+     */
+    @Override
+    public Course getCourseById(int courseId) {
+        Course course = ReferenceDataCache.COURSES.get(courseId);
+        if (course == null) {
+            long generation = ReferenceDataCache.generation();
+            course = delegate.getCourseById(courseId);
+            if (course != null) { // Unknown IDs are not cached so newly added rows show up immediately
+                ReferenceDataCache.putIfCurrent(ReferenceDataCache.COURSES, courseId, course, generation);
+            }
+        }
+        return course;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+import models.Lecturer;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Read-through caching decorator for a LecturerDAO.
+ * Lookups by ID are served from the shared ReferenceDataCache and only reach the
+ * wrapped DAO on a miss or after the cached entry has expired.
+ */
+public class CachedLecturerDAO implements LecturerDAO {
+
+    private final LecturerDAO delegate; // DAO consulted on cache misses
+
+    /**
+     * Constructs a CachedLecturerDAO in front of the given DAO.
+     *
+     * @param delegate The DAO that loads lecturers on a cache miss.
+     */
+    public CachedLecturerDAO(LecturerDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Lecturer> getAllLecturers() {
+        return delegate.getAllLecturers();
+    }
+
+    @Override
+    public List<Lecturer> getLecturersAfter(int afterLecturerId, int limit) {
+        return delegate.getLecturersAfter(afterLecturerId, limit);
+    }
+
+    @Override
+    public void forEachLecturer(Consumer<Lecturer> consumer) {
+        delegate.forEachLecturer(consumer);
+    }
+
+    /**
+     * Retrieves a lecturer by its ID, from the cache when possible.
+     * 
+     * @param lecturerId The ID of the lecturer to retrieve.
+     * @return A Lecturer object, or null if no lecturer is found with the given ID.
+     */
+    @Override
+    public Lecturer getLecturerById(int lecturerId) {
+        Lecturer lecturer = ReferenceDataCache.LECTURERS.get(lecturerId);
+        if (lecturer == null) {
+            long generation = ReferenceDataCache.generation();
+            lecturer = delegate.getLecturerById(lecturerId);
+            if (lecturer != null) { // Unknown IDs are not cached so newly added rows show up immediately
+                ReferenceDataCache.putIfCurrent(ReferenceDataCache.LECTURERS, lecturerId, lecturer, generation);
+            }
+        }
+        return lecturer;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import models.Module;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Read-through caching decorator for a ModuleDAO.
+ * Lookups by ID are served from the shared ReferenceDataCache and only reach the
+ * wrapped DAO on a miss or after the cached entry has expired.
+ */
+public class CachedModuleDAO implements ModuleDAO {
+
+    private final ModuleDAO delegate; // DAO consulted on cache misses
+
+    /**
+     * Constructs a CachedModuleDAO in front of the given DAO.
+     *
+     * @param delegate The DAO that loads modules on a cache miss.
+     */
+    public CachedModuleDAO(ModuleDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Module> getModulesByCourseId(int courseId) {
+        return delegate.getModulesByCourseId(courseId);
+    }
+
+    /**
+     * Retrieves a module by its ID, from the cache when possible.
+     * 
+     * @param moduleId The ID of the module to retrieve.
+     * @return A Module object, or null if no module is found with the given ID.
+     */
+    @Override
+    public Module getModuleById(int moduleId) {
+        Module module = ReferenceDataCache.MODULES.get(moduleId);
+        if (module == null) {
+            long generation = ReferenceDataCache.generation();
+            module = delegate.getModuleById(moduleId);
+            if (module != null) { // Unknown IDs are not cached so newly added rows show up immediately
+                ReferenceDataCache.putIfCurrent(ReferenceDataCache.MODULES, moduleId, module, generation);
+            }
+        }
+        return module;
+    }
+
+    @Override
+    public List<Module> getModulesByLecturerId(int lecturerId) {
+        return delegate.getModulesByLecturerId(lecturerId);
+    }
+
+    @Override
+    public Map<Integer, List<Module>> getModulesByLecturerIds(Collection<Integer> lecturerIds) {
+        return delegate.getModulesByLecturerIds(lecturerIds);
+    }
+}
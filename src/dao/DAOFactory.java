@@ -0,0 +1,134 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Chooses the storage backend once at startup and hands out the shared DAO instances.
+ * The backend is selected with -Dcms.backend: "jdbc" (the default) reads MySQL through
+ * DatabaseConnection, with courses, modules and lecturers behind the read-through cache;
+ * "memory" keeps everything in an InMemoryDataStore so the application, benchmarks and
+ * demos run without a database server. The in-memory store is loaded with sample data
+ * unless -Dcms.memory.seed=false is given.
+ * Every DAO handed out is wrapped by DAOMetrics, so per-method latency and row counts
+ * are recorded whichever backend is in use.
+ */
+public final class DAOFactory {
+
+    private static final String BACKEND = System.getProperty("cms.backend", "jdbc").trim().toLowerCase();
+
+    private static final CourseDAO COURSE_DAO;
+    private static final ModuleDAO MODULE_DAO;
+    private static final LecturerDAO LECTURER_DAO;
+    private static final StudentDAO STUDENT_DAO;
+    private static final EnrolmentDAO ENROLMENT_DAO;
+    private static final GradeDAO GRADE_DAO;
+    private static final FeedbackDAO FEEDBACK_DAO;
+    private static final ReportDAO REPORT_DAO;
+    private static final UserDAO USER_DAO;
+    private static final DataVersionDAO DATA_VERSION_DAO;
+
+    static {
+        switch (BACKEND) {
+            case "memory":
+                InMemoryDataStore store = new InMemoryDataStore();
+                if (Boolean.parseBoolean(System.getProperty("cms.memory.seed", "true"))) {
+                    store.seedDemoData();
+                }
+                // Lookups are already hash or tree probes; no cache in front
+                COURSE_DAO = DAOMetrics.instrument(CourseDAO.class, new InMemoryCourseDAO(store));
+                MODULE_DAO = DAOMetrics.instrument(ModuleDAO.class, new InMemoryModuleDAO(store));
+                LECTURER_DAO = DAOMetrics.instrument(LecturerDAO.class, new InMemoryLecturerDAO(store));
+                STUDENT_DAO = DAOMetrics.instrument(StudentDAO.class, new InMemoryStudentDAO(store));
+                ENROLMENT_DAO = DAOMetrics.instrument(EnrolmentDAO.class, new InMemoryEnrolmentDAO(store));
+                GRADE_DAO = DAOMetrics.instrument(GradeDAO.class, new InMemoryGradeDAO(store));
+                FEEDBACK_DAO = DAOMetrics.instrument(FeedbackDAO.class, new InMemoryFeedbackDAO(store));
+                REPORT_DAO = DAOMetrics.instrument(ReportDAO.class, new InMemoryReportDAO(store));
+                USER_DAO = DAOMetrics.instrument(UserDAO.class, new InMemoryUserDAO(store));
+                DATA_VERSION_DAO = DAOMetrics.instrument(DataVersionDAO.class, new InMemoryDataVersionDAO(store));
+                break;
+            case "jdbc":
+                COURSE_DAO = DAOMetrics.instrument(CourseDAO.class, new CachedCourseDAO(new JdbcCourseDAO()));
+                MODULE_DAO = DAOMetrics.instrument(ModuleDAO.class, new CachedModuleDAO(new JdbcModuleDAO()));
+                LECTURER_DAO = DAOMetrics.instrument(LecturerDAO.class, new CachedLecturerDAO(new JdbcLecturerDAO()));
+                STUDENT_DAO = DAOMetrics.instrument(StudentDAO.class, new JdbcStudentDAO());
+                ENROLMENT_DAO = DAOMetrics.instrument(EnrolmentDAO.class, new JdbcEnrolmentDAO());
+                GRADE_DAO = DAOMetrics.instrument(GradeDAO.class, new JdbcGradeDAO());
+                FEEDBACK_DAO = DAOMetrics.instrument(FeedbackDAO.class, new JdbcFeedbackDAO());
+                REPORT_DAO = DAOMetrics.instrument(ReportDAO.class, new JdbcReportDAO());
+                USER_DAO = DAOMetrics.instrument(UserDAO.class, new JdbcUserDAO());
+                DATA_VERSION_DAO = DAOMetrics.instrument(DataVersionDAO.class, new JdbcDataVersionDAO());
+                break;
+            default:
+                throw new IllegalStateException("Unknown cms.backend '" + BACKEND + "'; expected jdbc or memory");
+        }
+    }
+
+    private DAOFactory() {
+    }
+
+    /**
+     * Checks whether the selected backend is the MySQL database, which needs bootstrapping
+     * before first use.
+     *
+     * @return true for the jdbc backend, false for the in-memory backend.
+     */
+    public static boolean usesDatabase() {
+        return "jdbc".equals(BACKEND);
+    }
+
+    /**
+     * Returns the name of the selected backend.
+     *
+     * @return "jdbc" or "memory".
+     */
+    public static String getBackendName() {
+        return BACKEND;
+    }
+
+    public static CourseDAO getCourseDAO() {
+        return COURSE_DAO;
+    }
+
+    public static ModuleDAO getModuleDAO() {
+        return MODULE_DAO;
+    }
+
+    public static LecturerDAO getLecturerDAO() {
+        return LECTURER_DAO;
+    }
+
+    public static StudentDAO getStudentDAO() {
+        return STUDENT_DAO;
+    }
+
+    public static EnrolmentDAO getEnrolmentDAO() {
+        return ENROLMENT_DAO;
+    }
+
+    public static GradeDAO getGradeDAO() {
+        return GRADE_DAO;
+    }
+
+    public static FeedbackDAO getFeedbackDAO() {
+        return FEEDBACK_DAO;
+    }
+
+    public static ReportDAO getReportDAO() {
+        return REPORT_DAO;
+    }
+
+    public static UserDAO getUserDAO() {
+        return USER_DAO;
+    }
+
+    public static DataVersionDAO getDataVersionDAO() {
+        return DATA_VERSION_DAO;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package dao;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Data Access Object (DAO) interface for the version stamps of the data tables, used to tell
+ * whether anything a cached result was built from has changed since.
+ * Implemented by JdbcDataVersionDAO and InMemoryDataVersionDAO.
+ */
+public interface DataVersionDAO {
+
+    // Names of the tables whose versions can be asked for
+    String COURSES = "Courses";
+    String MODULES = "Modules";
+    String LECTURERS = "Lecturers";
+    String STUDENTS = "Students";
+    String ENROLMENTS = "Enrolments";
+    String GRADES = "Grades";
+    String FEEDBACK = "Feedback";
+
+    // Returned when changes to the tables are not tracked
+    long UNTRACKED = -1L;
+
+    /**
+     * Returns a stamp that changes whenever a row of any of the given tables is inserted,
+     * updated or deleted. Stamps only ever grow, so an equal stamp means no change.
+     * 
+     * @param tables The names of the tables, from the constants above.
+     * @return The combined stamp, or UNTRACKED if changes to some of the tables are not tracked.
+     */
+    long getDataVersion(String... tables);
+}
@@ -1,89 +1,91 @@
 /*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
  */
 package dao;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import models.Enrolment;
-import database.DatabaseConnection;
+import models.EnrolmentCountCheck;
+import models.TranscriptEntry;
+import util.IntIntHashMap;
 
 /**
  *
  * @author Gytis
  *
- * Data Access Object (DAO) class for handling database operations for enrolments.
- * This class provides functionalities to retrieve enrolment details and to count enrolments for modules.
+ * Data Access Object (DAO) interface for enrolments, enrolment counts and transcripts.
+ * Enrolment counts are served from per-module counters maintained alongside the enrolments
+ * where the backend supports it, which checkEnrolmentCounts can reconcile.
+ * Implemented by JdbcEnrolmentDAO and InMemoryEnrolmentDAO.
  */
-public class EnrolmentDAO {
-    
+public interface EnrolmentDAO {
+
     /**
-     * Retrieves a list of Enrolment objects for a specific student by their ID.
+     * Retrieves the enrolments of a specific student.
      * 
      * @param studentId The ID of the student whose enrolments are to be fetched.
-     * @return A List of Enrolment objects representing all enrolments found for the given student ID.
+     * @return A List of Enrolment objects for the given student ID.
+     */
+    List<Enrolment> getEnrolmentsByStudentId(int studentId);
+
+    /**
+     * Retrieves a student's transcript: every enrolment with its module name, status and grade.
+     * 
+     * @param studentId The ID of the student whose transcript is to be fetched.
+     * @return A List of TranscriptEntry objects, one per enrolment, in enrolment order.
      */
-    public List<Enrolment> getEnrolmentsByStudentId(int studentId) {
-        // Initialize an empty list to store enrolment objects
-        List<Enrolment> enrolments = new ArrayList<>();
-        // SQL query to select enrolments based on a specific student ID
-        String sql = "SELECT * FROM Enrolments WHERE Student_ID = ?";
-        
-        // Using try-with-resources to ensure proper resource management
-        try (Connection conn = DatabaseConnection.getConnection(); // Obtain database connection
-             PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare the SQL statement
-             
-            pstmt.setInt(1, studentId); // Set the student ID parameter
-            try (ResultSet rs = pstmt.executeQuery()) { // Execute the query
-                // Iterate through the result set and add Enrolment objects to the list
-                while (rs.next()) {
-                    enrolments.add(new Enrolment(
-                        rs.getInt("Enrolment_ID"),
-                        studentId,
-                        rs.getInt("Module_ID"),
-                        rs.getString("Status")));
-                }
-            }
-        } 
-        catch (SQLException e) {
-            // Print an error message if a SQLException occurs
-            System.out.println("Error fetching enrolments by student ID: " + e.getMessage());
-        }        
-        return enrolments;
+    default List<TranscriptEntry> getTranscriptByStudentId(int studentId) {
+        List<TranscriptEntry> transcript = new ArrayList<>();
+        forEachTranscriptEntry(studentId, transcript::add);
+        return transcript;
     }
 
     /**
-     * Counts the number of enrolments for a specific module by its ID.
+     * Streams a student's transcript entries to the given consumer without holding the
+     * whole transcript in memory.
+     * 
+     * @param studentId The ID of the student whose transcript is to be fetched.
+     * @param consumer Receives each TranscriptEntry in enrolment order.
+     */
+    void forEachTranscriptEntry(int studentId, Consumer<TranscriptEntry> consumer);
+
+    /**
+     * Retrieves the transcripts of several students at once, e.g. for bulk reports.
+     * 
+     * @param studentIds The IDs of the students whose transcripts are to be fetched.
+     * @return A map from student ID to its TranscriptEntry objects in enrolment order;
+     *         students without enrolments are absent.
+     */
+    Map<Integer, List<TranscriptEntry>> getTranscriptsByStudentIds(Collection<Integer> studentIds);
+
+    /**
+     * Counts the number of enrolments for a specific module.
      * 
      * @param moduleId The ID of the module for which to count enrolments.
-     * @return An integer representing the count of enrolments for the specified module ID.
+     * @return The number of enrolments for the module.
      */
-    public int countEnrolmentsByModuleId(int moduleId) {
-        // SQL query to count enrolments for a given module ID
-        String sql = "SELECT COUNT(*) AS enrolment_count FROM Enrolments WHERE Module_ID = ?";
-        int count = 0; // Initialize the count to 0
-        
-        // Using try-with-resources for resource management
-        try (Connection conn = DatabaseConnection.getConnection(); // Obtain database connection
-             PreparedStatement pstmt = conn.prepareStatement(sql)) { // Prepare the SQL statement
-             
-            pstmt.setInt(1, moduleId); // Set the module ID parameter
-            ResultSet rs = pstmt.executeQuery(); // Execute the query
-            
-            // If a result is found, retrieve the count from the result set
-            if (rs.next()) {
-                count = rs.getInt("enrolment_count");
-            }
-        } 
-        catch (SQLException e) {
-            // Print an error message if a SQLException occurs
-            System.out.println("Error counting enrolments by module ID: " + e.getMessage());
-        }        
-        return count;
-    }
-}
\ No newline at end of file
+    int countEnrolmentsByModuleId(int moduleId);
+
+    /**
+     * Counts the enrolments for several modules at once.
+     * 
+     * @param moduleIds The IDs of the modules for which to count enrolments.
+     * @return A map from module ID to enrolment count; modules without enrolments may be absent
+     *         (read them with getOrDefault(moduleId, 0)).
+     */
+    IntIntHashMap countEnrolmentsByModuleIds(Collection<Integer> moduleIds);
+
+    /**
+     * Compares the maintained per-module enrolment counters with the enrolments themselves,
+     * and optionally corrects the counters that disagree.
+     * 
+     * @param repair Whether wrong counters should be set to the recomputed counts.
+     * @return The modules whose counter was wrong, and whether they were repaired.
+     */
+    EnrolmentCountCheck checkEnrolmentCounts(boolean repair);
+}
@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import models.Course;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the CourseDAO interface, backed by an InMemoryDataStore.
+ */
+public class InMemoryCourseDAO implements CourseDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryCourseDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryCourseDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        return store.getCourses();
+    }
+
+    @Override
+    public Course getCourseById(int courseId) {
+        return store.getCourse(courseId);
+    }
+}
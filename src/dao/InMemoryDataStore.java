@@ -0,0 +1,542 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+import models.*;
+import models.Module;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Thread-safe in-memory tables behind the InMemory*DAO classes.
+ * Each table is a TreeMap keyed by its primary key, so listings come back in ID order just
+ * like the indexed MySQL tables, and every foreign key the DAOs look up by has its own
+ * secondary index. Enrolment counts per module are maintained on insert, so counting is
+ * a single hash lookup. Readers share a read lock; inserts take the write lock.
+ * Every write also bumps its table's version, so cached results can tell when to rebuild.
+ */
+public class InMemoryDataStore {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<Integer, Course> courses = new TreeMap<>();
+    private final TreeMap<Integer, Module> modules = new TreeMap<>();
+    private final TreeMap<Integer, Lecturer> lecturers = new TreeMap<>();
+    private final TreeMap<Integer, Student> students = new TreeMap<>();
+    private final TreeMap<Integer, Enrolment> enrolments = new TreeMap<>();
+    private final TreeMap<Integer, Grade> grades = new TreeMap<>();
+    private final TreeMap<Integer, Feedback> feedback = new TreeMap<>();
+    private final TreeMap<Integer, User> users = new TreeMap<>();
+
+    // Secondary indexes; each list is kept in primary key order
+    private final Map<Integer, List<Module>> modulesByCourse = new HashMap<>();
+    private final Map<Integer, List<Module>> modulesByLecturer = new HashMap<>();
+    private final Map<Integer, List<Enrolment>> enrolmentsByStudent = new HashMap<>();
+    private final Map<Integer, List<Grade>> gradesByStudent = new HashMap<>();
+    private final Map<Integer, List<Feedback>> feedbackByCourse = new HashMap<>();
+    private final IntIntHashMap enrolmentCountByModule = new IntIntHashMap();
+    private final Map<String, User> usersByUsername = new HashMap<>();
+    private final Map<String, Long> tableVersions = new HashMap<>(); // Bumped on every write, by table name
+    private int nextUserId = 1; // Mirrors AUTO_INCREMENT on users.user_id
+
+    /**
+     * Adds a course, replacing any course with the same ID.
+     *
+     * @param course The course to add.
+     */
+    public void addCourse(Course course) {
+        lock.writeLock().lock();
+        try {
+            courses.put(course.getCourseId(), course);
+            bumpVersion(DataVersionDAO.COURSES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a module and indexes it by course and lecturer.
+     *
+     * @param module The module to add; its ID must not already be in use.
+     */
+    public void addModule(Module module) {
+        lock.writeLock().lock();
+        try {
+            requireNew(modules, module.getModuleId(), "Module");
+            modules.put(module.getModuleId(), module);
+            insertSorted(modulesByCourse, module.getCourseId(), module, Module::getModuleId);
+            insertSorted(modulesByLecturer, module.getLecturerId(), module, Module::getModuleId);
+            bumpVersion(DataVersionDAO.MODULES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a lecturer, replacing any lecturer with the same ID.
+     *
+     * @param lecturer The lecturer to add.
+     */
+    public void addLecturer(Lecturer lecturer) {
+        lock.writeLock().lock();
+        try {
+            lecturers.put(lecturer.getLecturerId(), lecturer);
+            bumpVersion(DataVersionDAO.LECTURERS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a student, replacing any student with the same ID.
+     *
+     * @param student The student to add.
+     */
+    public void addStudent(Student student) {
+        lock.writeLock().lock();
+        try {
+            students.put(student.getStudentId(), student);
+            bumpVersion(DataVersionDAO.STUDENTS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an enrolment, indexes it by student and updates the module's enrolment count.
+     *
+     * @param enrolment The enrolment to add; its ID must not already be in use.
+     */
+    public void addEnrolment(Enrolment enrolment) {
+        lock.writeLock().lock();
+        try {
+            requireNew(enrolments, enrolment.getEnrolmentId(), "Enrolment");
+            enrolments.put(enrolment.getEnrolmentId(), enrolment);
+            insertSorted(enrolmentsByStudent, enrolment.getStudentId(), enrolment, Enrolment::getEnrolmentId);
+            int moduleId = enrolment.getModuleId();
+            enrolmentCountByModule.put(moduleId, enrolmentCountByModule.getOrDefault(moduleId, 0) + 1);
+            bumpVersion(DataVersionDAO.ENROLMENTS);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a grade and indexes it by student.
+     *
+     * @param grade The grade to add; its ID must not already be in use.
+     */
+    public void addGrade(Grade grade) {
+        lock.writeLock().lock();
+        try {
+            requireNew(grades, grade.getGradeId(), "Grade");
+            grades.put(grade.getGradeId(), grade);
+            insertSorted(gradesByStudent, grade.getStudentId(), grade, Grade::getGradeId);
+            bumpVersion(DataVersionDAO.GRADES);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a feedback entry and indexes it by course.
+     *
+     * @param entry The feedback to add; its ID must not already be in use.
+     */
+    public void addFeedback(Feedback entry) {
+        lock.writeLock().lock();
+        try {
+            requireNew(feedback, entry.getFeedbackId(), "Feedback");
+            feedback.put(entry.getFeedbackId(), entry);
+            insertSorted(feedbackByCourse, entry.getCourseId(), entry, Feedback::getFeedbackId);
+            bumpVersion(DataVersionDAO.FEEDBACK);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Course> getCourses() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(courses.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Course getCourse(int courseId) {
+        lock.readLock().lock();
+        try {
+            return courses.get(courseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Module getModule(int moduleId) {
+        lock.readLock().lock();
+        try {
+            return modules.get(moduleId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Module> getModulesByCourse(int courseId) {
+        return indexed(modulesByCourse, courseId);
+    }
+
+    List<Module> getModulesByLecturer(int lecturerId) {
+        return indexed(modulesByLecturer, lecturerId);
+    }
+
+    List<Lecturer> getLecturers() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(lecturers.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Lecturer> getLecturersAfter(int afterId, int limit) {
+        return page(lecturers, afterId, limit);
+    }
+
+    Lecturer getLecturer(int lecturerId) {
+        lock.readLock().lock();
+        try {
+            return lecturers.get(lecturerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Student> getStudents() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(students.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Student> getStudentsAfter(int afterId, int limit) {
+        return page(students, afterId, limit);
+    }
+
+    Student getStudent(int studentId) {
+        lock.readLock().lock();
+        try {
+            return students.get(studentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Enrolment> getEnrolmentsByStudent(int studentId) {
+        return indexed(enrolmentsByStudent, studentId);
+    }
+
+    int countEnrolments(int moduleId) {
+        lock.readLock().lock();
+        try {
+            return enrolmentCountByModule.getOrDefault(moduleId, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recounts the enrolments of every module and compares them with the maintained counts.
+     * Runs under the write lock when repairing, so no enrolment is added in between.
+     */
+    EnrolmentCountCheck checkEnrolmentCounts(boolean repair) {
+        Lock held = repair ? lock.writeLock() : lock.readLock();
+        held.lock();
+        try {
+            IntIntHashMap actual = new IntIntHashMap(enrolmentCountByModule.size());
+            for (Enrolment e : enrolments.values()) {
+                actual.put(e.getModuleId(), actual.getOrDefault(e.getModuleId(), 0) + 1);
+            }
+            EnrolmentCountCheck check = EnrolmentCountCheck.compare(enrolmentCountByModule, actual);
+            if (repair && !check.getMismatches().isEmpty()) {
+                for (EnrolmentCountCheck.Mismatch mismatch : check.getMismatches()) {
+                    enrolmentCountByModule.put(mismatch.getModuleId(), mismatch.getActualCount());
+                }
+                bumpVersion(DataVersionDAO.ENROLMENTS); // Counts shown in reports have changed
+                check.markRepaired();
+            }
+            return check;
+        } finally {
+            held.unlock();
+        }
+    }
+
+    /**
+     * Sums the versions of the given tables; see DataVersionDAO.getDataVersion.
+     */
+    long getDataVersion(String... tables) {
+        lock.readLock().lock();
+        try {
+            long version = 0;
+            for (String table : tables) {
+                version += tableVersions.getOrDefault(table, 0L);
+            }
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a change to a table. Must be called while holding the write lock.
+     */
+    private void bumpVersion(String table) {
+        tableVersions.merge(table, 1L, Long::sum);
+    }
+
+    List<Grade> getGradesByStudent(int studentId) {
+        return indexed(gradesByStudent, studentId);
+    }
+
+    List<Feedback> getFeedbackByCourse(int courseId) {
+        return indexed(feedbackByCourse, courseId);
+    }
+
+    /**
+     * Builds a student's transcript under a single read lock, so the enrolments, module
+     * names and grades are taken from one consistent view.
+     */
+    List<TranscriptEntry> getTranscript(int studentId) {
+        lock.readLock().lock();
+        try {
+            List<Enrolment> studentEnrolments = enrolmentsByStudent.getOrDefault(studentId, Collections.emptyList());
+            List<Grade> studentGrades = gradesByStudent.getOrDefault(studentId, Collections.emptyList());
+            List<TranscriptEntry> transcript = new ArrayList<>(studentEnrolments.size());
+            for (Enrolment e : studentEnrolments) {
+                Module module = modules.get(e.getModuleId());
+                Grade grade = null;
+                for (Grade g : studentGrades) {
+                    if (g.getModuleId() == e.getModuleId()) {
+                        grade = g;
+                        break;
+                    }
+                }
+                transcript.add(new TranscriptEntry(e.getEnrolmentId(), e.getModuleId(),
+                        module != null ? module.getModuleName() : null, e.getStatus(),
+                        grade != null, grade != null ? grade.getGrade() : 0));
+            }
+            return transcript;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the course report rows under a single read lock, in course and module order.
+     */
+    List<CourseModuleSummary> getCourseReportRows() {
+        lock.readLock().lock();
+        try {
+            List<CourseModuleSummary> rows = new ArrayList<>();
+            for (Course course : courses.values()) {
+                List<Module> courseModules = modulesByCourse.getOrDefault(course.getCourseId(), Collections.emptyList());
+                if (courseModules.isEmpty()) {
+                    rows.add(new CourseModuleSummary(course.getCourseId(), course.getCourseName(), 0, null, null, null, 0));
+                }
+                for (Module m : courseModules) {
+                    Lecturer lecturer = lecturers.get(m.getLecturerId());
+                    rows.add(new CourseModuleSummary(course.getCourseId(), course.getCourseName(), m.getModuleId(),
+                            m.getModuleName(), m.getRoom(), lecturer != null ? lecturer.getName() : null,
+                            enrolmentCountByModule.getOrDefault(m.getModuleId(), 0)));
+                }
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    User insertUser(String username, String password, String role) {
+        lock.writeLock().lock();
+        try {
+            if (usersByUsername.containsKey(username)) {
+                return null; // Same outcome as the unique constraint on users.username
+            }
+            User user = new User(nextUserId++, username, password, role);
+            users.put(user.getUserId(), user);
+            usersByUsername.put(username, user);
+            return user;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean updateUser(int userId, String username, String password, String role) {
+        lock.writeLock().lock();
+        try {
+            User old = users.get(userId);
+            if (old == null) {
+                return false;
+            }
+            User other = usersByUsername.get(username);
+            if (other != null && other.getUserId() != userId) {
+                return false; // Username already taken by another user
+            }
+            User updated = new User(userId, username, password, role);
+            usersByUsername.remove(old.getUsername());
+            users.put(userId, updated);
+            usersByUsername.put(username, updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean deleteUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            User removed = users.remove(userId);
+            if (removed == null) {
+                return false;
+            }
+            usersByUsername.remove(removed.getUsername());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    User getUser(int userId) {
+        lock.readLock().lock();
+        try {
+            return users.get(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    User getUserByUsername(String username) {
+        lock.readLock().lock();
+        try {
+            return usersByUsername.get(username);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<User> getUsers() {
+        return getUsersAfter(0, Integer.MAX_VALUE);
+    }
+
+    List<User> getUsersAfter(int afterId, int limit) {
+        List<User> result = new ArrayList<>();
+        for (User u : page(users, afterId, limit)) {
+            // Password is intentionally left out, as in the JDBC listing
+            result.add(new User(u.getUserId(), u.getUsername(), null, u.getRole()));
+        }
+        return result;
+    }
+
+    /**
+     * Loads a small sample data set (two courses, three lecturers, a handful of students,
+     * modules, enrolments, grades and feedback) for offline demos.
+     */
+    public void seedDemoData() {
+        addCourse(new Course(1, "Software Development", "Programming, databases and software design", "in_class", 8));
+        addCourse(new Course(2, "Data Analytics", "Statistics, data engineering and visualisation", "blended", 8));
+        addLecturer(new Lecturer(1, "Anna Murphy", "anna.murphy@example.com", "Senior Lecturer", "lecture,lab"));
+        addLecturer(new Lecturer(2, "Brian Kelly", "brian.kelly@example.com", "Lecturer", "lecture,tutorial"));
+        addLecturer(new Lecturer(3, "Ciara Walsh", "ciara.walsh@example.com", "Assistant Lecturer", "lab"));
+        addModule(new Module(1, 1, "Object Oriented Programming", 1, "A101"));
+        addModule(new Module(2, 1, "Databases", 2, "A102"));
+        addModule(new Module(3, 1, "Web Development", 3, "Lab 1"));
+        addModule(new Module(4, 2, "Statistics", 2, "B201"));
+        addModule(new Module(5, 2, "Machine Learning", 1, "Lab 2"));
+        addStudent(new Student(1, "Daniel Byrne", "daniel.byrne@example.com", 1));
+        addStudent(new Student(2, "Emma Ryan", "emma.ryan@example.com", 1));
+        addStudent(new Student(3, "Fionn Doyle", "fionn.doyle@example.com", 2));
+        addStudent(new Student(4, "Grace O'Brien", "grace.obrien@example.com", 2));
+        int enrolmentId = 1;
+        int gradeId = 1;
+        int[][] plan = {{1, 1, 2, 3}, {2, 1, 2, 3}, {3, 4, 5}, {4, 4, 5}}; // Student ID followed by module IDs
+        for (int[] row : plan) {
+            int studentId = row[0];
+            for (int i = 1; i < row.length; i++) {
+                boolean completed = i < row.length - 1; // Last module of each student is still in progress
+                addEnrolment(new Enrolment(enrolmentId++, studentId, row[i], completed ? "completed" : "enrolled"));
+                if (completed) {
+                    addGrade(new Grade(gradeId++, studentId, row[i], 55 + (studentId * 7 + row[i] * 11) % 40));
+                }
+            }
+        }
+        addFeedback(new Feedback(1, 1, 1, 5, "Very practical course", new Date(System.currentTimeMillis())));
+        addFeedback(new Feedback(2, 2, 3, 4, "Good balance of theory and labs", new Date(System.currentTimeMillis())));
+    }
+
+    /**
+     * Copies up to limit rows with a key greater than afterId, in key order.
+     */
+    private <T> List<T> page(TreeMap<Integer, T> table, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<T> rows = new ArrayList<>(Math.min(limit, table.size()));
+            for (T row : table.tailMap(afterId, false).values()) {
+                if (rows.size() == limit) {
+                    break;
+                }
+                rows.add(row);
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> List<T> indexed(Map<Integer, List<T>> index, int key) {
+        lock.readLock().lock();
+        try {
+            List<T> list = index.get(key);
+            return list == null ? new ArrayList<>() : new ArrayList<>(list);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void requireNew(Map<Integer, ?> table, int id, String entity) {
+        if (table.containsKey(id)) {
+            throw new IllegalArgumentException(entity + " ID already exists: " + id);
+        }
+    }
+
+    /**
+     * Appends to an index list, keeping it ordered by ID. Rows usually arrive in ID order,
+     * so the common case is a plain append.
+     */
+    private static <T> void insertSorted(Map<Integer, List<T>> index, int key, T value,
+            ToIntFunction<T> id) {
+        List<T> list = index.computeIfAbsent(key, k -> new ArrayList<>());
+        int pos = list.size();
+        int valueId = id.applyAsInt(value);
+        while (pos > 0 && id.applyAsInt(list.get(pos - 1)) > valueId) {
+            pos--;
+        }
+        list.add(pos, value);
+    }
+}
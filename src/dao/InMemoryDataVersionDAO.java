@@ -0,0 +1,30 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the DataVersionDAO interface, using the per-table versions the store bumps on every write.
+ */
+public class InMemoryDataVersionDAO implements DataVersionDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryDataVersionDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryDataVersionDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public long getDataVersion(String... tables) {
+        return store.getDataVersion(tables);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import models.Enrolment;
+import models.EnrolmentCountCheck;
+import models.TranscriptEntry;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the EnrolmentDAO interface, using the enrolment counts the store maintains per module.
+ */
+public class InMemoryEnrolmentDAO implements EnrolmentDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryEnrolmentDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryEnrolmentDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Enrolment> getEnrolmentsByStudentId(int studentId) {
+        return store.getEnrolmentsByStudent(studentId);
+    }
+
+    @Override
+    public List<TranscriptEntry> getTranscriptByStudentId(int studentId) {
+        return store.getTranscript(studentId);
+    }
+
+    @Override
+    public void forEachTranscriptEntry(int studentId, Consumer<TranscriptEntry> consumer) {
+        store.getTranscript(studentId).forEach(consumer);
+    }
+
+    @Override
+    public Map<Integer, List<TranscriptEntry>> getTranscriptsByStudentIds(Collection<Integer> studentIds) {
+        Map<Integer, List<TranscriptEntry>> transcripts = new HashMap<>();
+        for (int studentId : studentIds) {
+            List<TranscriptEntry> transcript = store.getTranscript(studentId);
+            if (!transcript.isEmpty()) {
+                transcripts.put(studentId, transcript);
+            }
+        }
+        return transcripts;
+    }
+
+    @Override
+    public int countEnrolmentsByModuleId(int moduleId) {
+        return store.countEnrolments(moduleId);
+    }
+
+    @Override
+    public IntIntHashMap countEnrolmentsByModuleIds(Collection<Integer> moduleIds) {
+        IntIntHashMap counts = new IntIntHashMap(moduleIds.size());
+        for (int moduleId : moduleIds) {
+            int count = store.countEnrolments(moduleId);
+            if (count > 0) {
+                counts.put(moduleId, count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public EnrolmentCountCheck checkEnrolmentCounts(boolean repair) {
+        return store.checkEnrolmentCounts(repair);
+    }
+}
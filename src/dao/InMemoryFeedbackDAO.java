@@ -0,0 +1,33 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import models.Feedback;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the FeedbackDAO interface, served from the store's per-course feedback index.
+ */
+public class InMemoryFeedbackDAO implements FeedbackDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryFeedbackDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryFeedbackDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Feedback> getFeedbackByCourseId(int courseId) {
+        return store.getFeedbackByCourse(courseId);
+    }
+}
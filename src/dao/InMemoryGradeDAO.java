@@ -0,0 +1,43 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import models.Grade;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the GradeDAO interface, served from the store's per-student grade index.
+ */
+public class InMemoryGradeDAO implements GradeDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryGradeDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryGradeDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Grade> getGradesByStudentId(int studentId) {
+        return store.getGradesByStudent(studentId);
+    }
+
+    @Override
+    public Grade getGradeByStudentIdAndModuleId(int studentId, int moduleId) {
+        for (Grade grade : store.getGradesByStudent(studentId)) {
+            if (grade.getModuleId() == moduleId) {
+                return grade;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+import models.Lecturer;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the LecturerDAO interface, backed by an InMemoryDataStore.
+ */
+public class InMemoryLecturerDAO implements LecturerDAO {
+
+    private static final int STREAM_PAGE_SIZE = 1000; // Rows copied per lock acquisition in forEachLecturer
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryLecturerDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryLecturerDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Lecturer> getAllLecturers() {
+        return store.getLecturers();
+    }
+
+    @Override
+    public List<Lecturer> getLecturersAfter(int afterLecturerId, int limit) {
+        return store.getLecturersAfter(afterLecturerId, limit);
+    }
+
+    /**
+     * Streams the lecturers a page at a time, so the store's lock is not held while the consumer runs.
+     */
+    @Override
+    public void forEachLecturer(Consumer<Lecturer> consumer) {
+        new PagedIterator<>(store::getLecturersAfter, Lecturer::getLecturerId, STREAM_PAGE_SIZE).forEachRemaining(consumer);
+    }
+
+    @Override
+    public Lecturer getLecturerById(int lecturerId) {
+        return store.getLecturer(lecturerId);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import models.Module;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the ModuleDAO interface, served from the store's course and lecturer indexes.
+ */
+public class InMemoryModuleDAO implements ModuleDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryModuleDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryModuleDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Module> getModulesByCourseId(int courseId) {
+        return store.getModulesByCourse(courseId);
+    }
+
+    @Override
+    public Module getModuleById(int moduleId) {
+        return store.getModule(moduleId);
+    }
+
+    @Override
+    public List<Module> getModulesByLecturerId(int lecturerId) {
+        return store.getModulesByLecturer(lecturerId);
+    }
+
+    @Override
+    public Map<Integer, List<Module>> getModulesByLecturerIds(Collection<Integer> lecturerIds) {
+        Map<Integer, List<Module>> modules = new HashMap<>();
+        for (int lecturerId : lecturerIds) {
+            List<Module> taught = store.getModulesByLecturer(lecturerId);
+            if (!taught.isEmpty()) {
+                modules.put(lecturerId, taught);
+            }
+        }
+        return modules;
+    }
+}
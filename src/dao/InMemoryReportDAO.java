@@ -0,0 +1,39 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+import models.CourseModuleSummary;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the ReportDAO interface, assembling the report rows from the store's indexes.
+ */
+public class InMemoryReportDAO implements ReportDAO {
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryReportDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryReportDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<CourseModuleSummary> getCourseReportRows() {
+        return store.getCourseReportRows();
+    }
+
+    @Override
+    public void forEachCourseReportRow(Consumer<CourseModuleSummary> consumer) {
+        store.getCourseReportRows().forEach(consumer);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+import models.Student;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the StudentDAO interface, backed by an InMemoryDataStore.
+ */
+public class InMemoryStudentDAO implements StudentDAO {
+
+    private static final int STREAM_PAGE_SIZE = 1000; // Rows copied per lock acquisition in forEachStudent
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryStudentDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryStudentDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Student> getAllStudents() {
+        return store.getStudents();
+    }
+
+    @Override
+    public List<Student> getStudentsAfter(int afterStudentId, int limit) {
+        return store.getStudentsAfter(afterStudentId, limit);
+    }
+
+    /**
+     * Streams the students a page at a time, so the store's lock is not held while the consumer runs.
+     */
+    @Override
+    public void forEachStudent(Consumer<Student> consumer) {
+        new PagedIterator<>(store::getStudentsAfter, Student::getStudentId, STREAM_PAGE_SIZE).forEachRemaining(consumer);
+    }
+
+    @Override
+    public Student getStudentById(int studentId) {
+        return store.getStudent(studentId);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import models.User;
+import models.UserBatchResult;
+
+/**
+ *
+ * @author Gytis
+ *
+ * In-memory implementation of the UserDAO interface, keeping users in an InMemoryDataStore for the lifetime of the JVM.
+ */
+public class InMemoryUserDAO implements UserDAO {
+
+    private static final int STREAM_PAGE_SIZE = 1000; // Rows copied per lock acquisition in forEachUser
+
+    private final InMemoryDataStore store; // Tables and indexes shared by all in-memory DAOs
+
+    /**
+     * Constructs an InMemoryUserDAO reading from the given store.
+     *
+     * @param store The in-memory tables to read from.
+     */
+    public InMemoryUserDAO(InMemoryDataStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public User insertUser(String username, String password, String role) {
+        return store.insertUser(username, password, role);
+    }
+
+    @Override
+    public UserBatchResult insertUsers(Iterator<User> users, boolean keepCreatedUsers) {
+        UserBatchResult result = new UserBatchResult(keepCreatedUsers);
+        List<Integer> createdIds = new ArrayList<>(); // To undo the batch if the input cannot be read
+        int rowNumber = 0;
+        try {
+            while (users.hasNext()) {
+                User user = users.next();
+                rowNumber++;
+                String invalid = UserDAO.invalidReason(user);
+                User created = invalid == null ? store.insertUser(user.getUsername(), user.getPassword(), user.getRole()) : null;
+                if (created != null) {
+                    result.addCreated(created);
+                    createdIds.add(created.getUserId());
+                } else {
+                    result.addFailure(rowNumber, user == null ? null : user.getUsername(),
+                            invalid != null ? invalid : "Username already exists");
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // No transactions here, so remove the users this batch created, as the database would
+            for (int userId : createdIds) {
+                store.deleteUser(userId);
+            }
+            result.rollBack("Error reading input after row " + rowNumber + ": " + e.getCause().getMessage());
+        }
+        result.setRowsRead(rowNumber);
+        return result;
+    }
+
+    @Override
+    public boolean updateUser(int userId, String username, String password, String role) {
+        return store.updateUser(userId, username, password, role);
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        return store.deleteUser(userId);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return store.getUserByUsername(username) != null;
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        return store.getUser(userId);
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        return store.getUserByUsername(username);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return store.getUsers();
+    }
+
+    @Override
+    public List<User> getUsersAfter(int afterUserId, int limit) {
+        return store.getUsersAfter(afterUserId, limit);
+    }
+
+    /**
+     * Streams the users a page at a time, so the store's lock is not held while the consumer runs.
+     */
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        new PagedIterator<>(store::getUsersAfter, User::getUserId, STREAM_PAGE_SIZE).forEachRemaining(consumer);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import models.Course;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the CourseDAO interface, for handling database operations related to courses.
+ * It provides methods to retrieve all courses from the database and fetch a single course by its ID.
+ */
+public class JdbcCourseDAO implements CourseDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    
+    /**
+     * Retrieves all courses from the database.
+     * 
+     * @return A list of Course objects representing all courses found in the database.
+     */
+    @Override
+    public List<Course> getAllCourses() {
+        // SQL query to select all courses from the Courses table
+        String sql = "SELECT " + RowMappers.COURSE_COLUMNS + " FROM Courses";
+        
+        try {
+            return queries.query(sql, QueryTemplate.Binder.NONE, RowMappers.COURSE);
+        } 
+        catch (SQLException e) {
+            // Handle SQL exceptions by printing error message
+            System.out.println("Error fetching courses: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }        
+    }
+
+    /**
+     * Retrieves a specific course by its ID from the database.
+     * 
+     * @param courseId The ID of the course to retrieve.
+     * @return A Course object representing the course found, or null if no course is found with the given ID.
+     */
+    @Override
+    public Course getCourseById(int courseId) {
+        // SQL query to select a course by its ID
+        String sql = "SELECT " + RowMappers.COURSE_COLUMNS + " FROM Courses WHERE Course_ID = ?";
+        
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setInt(1, courseId), RowMappers.COURSE);
+        } 
+        catch (SQLException e) {
+            // Handle SQL exceptions by printing error message
+            System.out.println("Error fetching course by ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import database.QueryTemplate;
+import database.TableVersions;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the DataVersionDAO interface, reading the per-table versions that
+ * MySQL triggers maintain in the Table_Versions table (see TableVersions).
+ * Where the triggers are not installed every stamp is UNTRACKED.
+ */
+public class JdbcDataVersionDAO implements DataVersionDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+
+    /**
+     * Sums the versions of the given tables in one primary key lookup; as each version only
+     * grows, so does the sum.
+     * 
+     * @param tables The names of the tables.
+     * @return The combined stamp, or UNTRACKED.
+     */
+    @Override
+    public long getDataVersion(String... tables) {
+        if (tables.length == 0 || !TableVersions.isMaintained()) {
+            return UNTRACKED;
+        }
+        String sql = "SELECT COUNT(*), SUM(Version) FROM " + TableVersions.TABLE + " WHERE Table_Name IN ("
+                + QueryTemplate.placeholders(tables.length) + ")";
+
+        try {
+            Long version = queries.queryForObject(sql, pstmt -> {
+                for (int i = 0; i < tables.length; i++) {
+                    pstmt.setString(i + 1, tables[i]);
+                }
+            }, rs -> rs.getInt(1) == tables.length ? rs.getLong(2) : UNTRACKED); // A missing row means an untracked table
+            return version != null ? version : UNTRACKED;
+        }
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching table versions: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return UNTRACKED;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import models.Enrolment;
+import models.EnrolmentCountCheck;
+import models.TranscriptEntry;
+import database.DatabaseConnection;
+import database.EnrolmentCounters;
+import database.QueryTemplate;
+import database.TableVersions;
+import metrics.DAOMetrics;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the EnrolmentDAO interface, for handling database operations for enrolments.
+ * This class provides functionalities to retrieve enrolment details and to count enrolments for modules.
+ * Where the database maintains the per-module counters (see EnrolmentCounters), counts are
+ * read from them by primary key; otherwise the enrolments are counted.
+ */
+public class JdbcEnrolmentDAO implements EnrolmentDAO {
+
+    // Maximum number of IDs bound into a single IN (...) list
+    private static final int MAX_IN_LIST_SIZE = 500;
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    private final QueryTemplate streamingQueries = queries.streaming(); // Reads rows incrementally from the server
+    
+    /**
+     * Retrieves a list of Enrolment objects for a specific student by their ID.
+     * 
+     * @param studentId The ID of the student whose enrolments are to be fetched.
+     * @return A List of Enrolment objects representing all enrolments found for the given student ID.
+     */
+    @Override
+    public List<Enrolment> getEnrolmentsByStudentId(int studentId) {
+        // SQL query to select enrolments based on a specific student ID
+        String sql = "SELECT " + RowMappers.ENROLMENT_COLUMNS + " FROM Enrolments WHERE Student_ID = ?";
+        
+        try {
+            return queries.query(sql, pstmt -> pstmt.setInt(1, studentId), RowMappers.ENROLMENT);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching enrolments by student ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }        
+    }
+
+    /**
+     * Streams a student's transcript entries to the given consumer as they are read from the
+     * database, without holding the whole transcript in memory.
+     * 
+     * @param studentId The ID of the student whose transcript is to be fetched.
+     * @param consumer Receives each TranscriptEntry in enrolment order.
+     */
+    @Override
+    public void forEachTranscriptEntry(int studentId, Consumer<TranscriptEntry> consumer) {
+        // SQL query joining each enrolment to its module and, where one exists, its grade
+        String sql = "SELECT e.Enrolment_ID, e.Module_ID, m.Module_Name, e.Status, g.Grade "
+                + "FROM Enrolments e "
+                + "LEFT JOIN Modules m ON m.Module_ID = e.Module_ID "
+                + "LEFT JOIN Grades g ON g.Student_ID = e.Student_ID AND g.Module_ID = e.Module_ID "
+                + "WHERE e.Student_ID = ? "
+                + "ORDER BY e.Enrolment_ID";
+
+        try {
+            // Hand each entry on as soon as it is read
+            streamingQueries.forEach(sql, pstmt -> pstmt.setInt(1, studentId), RowMappers.TRANSCRIPT_ENTRY, consumer);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching transcript by student ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+    }
+
+    /**
+     * Retrieves the transcripts of several students at once.
+     * Student IDs are sent in chunks of up to MAX_IN_LIST_SIZE per query, so the number of
+     * round trips depends on the number of chunks rather than the number of students.
+     * 
+     * @param studentIds The IDs of the students whose transcripts are to be fetched.
+     * @return A map from student ID to its TranscriptEntry objects in enrolment order;
+     *         students without enrolments are absent.
+     */
+    @Override
+    public Map<Integer, List<TranscriptEntry>> getTranscriptsByStudentIds(Collection<Integer> studentIds) {
+        Map<Integer, List<TranscriptEntry>> transcripts = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return transcripts;
+        }
+        int[] ids = studentIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+
+        // Using try-with-resources so one pooled connection serves every chunk
+        try (Connection conn = DatabaseConnection.getConnection()) { // Obtain database connection
+            for (int from = 0; from < ids.length; from += MAX_IN_LIST_SIZE) {
+                int to = Math.min(ids.length, from + MAX_IN_LIST_SIZE);
+                // Same columns as forEachTranscriptEntry, with the student ID last for grouping
+                String sql = "SELECT e.Enrolment_ID, e.Module_ID, m.Module_Name, e.Status, g.Grade, e.Student_ID "
+                        + "FROM Enrolments e "
+                        + "LEFT JOIN Modules m ON m.Module_ID = e.Module_ID "
+                        + "LEFT JOIN Grades g ON g.Student_ID = e.Student_ID AND g.Module_ID = e.Module_ID "
+                        + "WHERE e.Student_ID IN (" + QueryTemplate.placeholders(to - from) + ") "
+                        + "ORDER BY e.Student_ID, e.Enrolment_ID";
+
+                int first = from;
+                queries.forEachRow(conn, sql, pstmt -> {
+                    for (int i = first; i < to; i++) {
+                        pstmt.setInt(i - first + 1, ids[i]); // Bind each student ID in the chunk
+                    }
+                }, rs -> transcripts.computeIfAbsent(rs.getInt(6), id -> new ArrayList<>())
+                        .add(RowMappers.TRANSCRIPT_ENTRY.mapRow(rs)));
+            }
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching transcripts by student IDs: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+        return transcripts;
+    }
+
+    /**
+     * Counts the number of enrolments for a specific module by its ID.
+     * 
+     * @param moduleId The ID of the module for which to count enrolments.
+     * @return An integer representing the count of enrolments for the specified module ID.
+     */
+    @Override
+    public int countEnrolmentsByModuleId(int moduleId) {
+        // SQL query reading the module's counter, or counting its enrolments where there is none
+        String sql = EnrolmentCounters.isMaintained()
+                ? "SELECT Enrolment_Count FROM " + EnrolmentCounters.TABLE + " WHERE Module_ID = ?"
+                : "SELECT COUNT(*) FROM Enrolments WHERE Module_ID = ?";
+        
+        try {
+            Integer count = queries.queryForObject(sql, pstmt -> pstmt.setInt(1, moduleId), rs -> rs.getInt(1));
+            return count != null ? count : 0;
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error counting enrolments by module ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return 0;
+        }        
+    }
+
+    /**
+     * Counts the enrolments for several modules at once.
+     * Module IDs are sent in chunks of up to MAX_IN_LIST_SIZE per GROUP BY query, so the
+     * number of round trips depends on the number of chunks rather than the number of modules.
+     * 
+     * @param moduleIds The IDs of the modules for which to count enrolments.
+     * @return A map from module ID to enrolment count; modules without enrolments are absent
+     *         (read them with getOrDefault(moduleId, 0)).
+     */
+    @Override
+    public IntIntHashMap countEnrolmentsByModuleIds(Collection<Integer> moduleIds) {
+        IntIntHashMap counts = new IntIntHashMap(moduleIds.size());
+        if (moduleIds.isEmpty()) {
+            return counts;
+        }
+        int[] ids = moduleIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+        boolean fromCounters = EnrolmentCounters.isMaintained();
+
+        // Using try-with-resources so one pooled connection serves every chunk
+        try (Connection conn = DatabaseConnection.getConnection()) { // Obtain database connection
+            for (int from = 0; from < ids.length; from += MAX_IN_LIST_SIZE) {
+                int to = Math.min(ids.length, from + MAX_IN_LIST_SIZE);
+                String sql = fromCounters
+                        ? "SELECT Module_ID, Enrolment_Count FROM " + EnrolmentCounters.TABLE + " WHERE Module_ID IN ("
+                                + QueryTemplate.placeholders(to - from) + ") AND Enrolment_Count > 0"
+                        : "SELECT Module_ID, COUNT(*) FROM Enrolments WHERE Module_ID IN ("
+                                + QueryTemplate.placeholders(to - from) + ") GROUP BY Module_ID";
+
+                int first = from;
+                queries.forEachRow(conn, sql, pstmt -> {
+                    for (int i = first; i < to; i++) {
+                        pstmt.setInt(i - first + 1, ids[i]); // Bind each module ID in the chunk
+                    }
+                }, rs -> counts.put(rs.getInt(1), rs.getInt(2)));
+            }
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error counting enrolments by module IDs: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+        return counts;
+    }
+
+    /**
+     * Reads the counters and recounts the enrolments in one transaction, so on InnoDB both
+     * come from the same snapshot. When repairing, the counters are locked first: enrolment
+     * writes still in flight then wait for this transaction, so each of them is either
+     * included in the recount or applied to the repaired counter afterwards.
+     * 
+     * @param repair Whether wrong counters should be set to the recomputed counts.
+     * @return The modules whose counter was wrong, and whether they were repaired.
+     */
+    @Override
+    public EnrolmentCountCheck checkEnrolmentCounts(boolean repair) {
+        String countersSql = "SELECT Module_ID, Enrolment_Count FROM " + EnrolmentCounters.TABLE + (repair ? " FOR UPDATE" : "");
+        String recountSql = "SELECT Module_ID, COUNT(*) FROM Enrolments GROUP BY Module_ID";
+
+        try (Connection conn = DatabaseConnection.getConnection()) { // Obtain database connection
+            conn.setAutoCommit(false);
+            try {
+                IntIntHashMap stored = new IntIntHashMap();
+                queries.forEachRow(conn, countersSql, QueryTemplate.Binder.NONE, rs -> stored.put(rs.getInt(1), rs.getInt(2)));
+                IntIntHashMap actual = new IntIntHashMap(stored.size());
+                queries.forEachRow(conn, recountSql, QueryTemplate.Binder.NONE, rs -> actual.put(rs.getInt(1), rs.getInt(2)));
+
+                EnrolmentCountCheck check = EnrolmentCountCheck.compare(stored, actual);
+                if (repair && !check.getMismatches().isEmpty()) {
+                    for (EnrolmentCountCheck.Mismatch mismatch : check.getMismatches()) {
+                        repairCounter(conn, mismatch.getModuleId(), mismatch.getActualCount());
+                    }
+                    // Counts shown in reports have changed, so results cached against the old version are stale
+                    queries.update(conn, "UPDATE " + TableVersions.TABLE + " SET Version = Version + 1 WHERE Table_Name = ?",
+                            pstmt -> pstmt.setString(1, DataVersionDAO.ENROLMENTS));
+                    check.markRepaired();
+                }
+                conn.commit();
+                return check;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error checking enrolment counters: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return EnrolmentCountCheck.failed(e.getMessage());
+        }
+    }
+
+    /**
+     * Sets one module's counter, creating it if the module has none yet.
+     */
+    private void repairCounter(Connection conn, int moduleId, int count) throws SQLException {
+        QueryTemplate.Binder binder = pstmt -> {
+            pstmt.setInt(1, count);
+            pstmt.setInt(2, moduleId);
+        };
+        if (queries.update(conn, "UPDATE " + EnrolmentCounters.TABLE + " SET Enrolment_Count = ? WHERE Module_ID = ?", binder) == 0) {
+            queries.update(conn, "INSERT INTO " + EnrolmentCounters.TABLE + " (Enrolment_Count, Module_ID) VALUES (?, ?)", binder);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import models.Feedback;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the FeedbackDAO interface, for handling database operations related to feedback.
+ * Provides functionality to retrieve all feedback entries for a specific course by its ID.
+ */
+public class JdbcFeedbackDAO implements FeedbackDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    
+    /**
+     * Retrieves a list of Feedback objects for a specific course identified by the course ID.
+     * 
+     * @param courseId The ID of the course for which feedback is being fetched.
+     * @return A List of Feedback objects representing all feedback found for the given course ID.
+     */
+    @Override
+    public List<Feedback> getFeedbackByCourseId(int courseId) {
+        // SQL query to select feedback entries based on a specific course ID
+        String sql = "SELECT " + RowMappers.FEEDBACK_COLUMNS + " FROM Feedback WHERE Course_ID = ?";
+        
+        try {
+            return queries.query(sql, pstmt -> pstmt.setInt(1, courseId), RowMappers.FEEDBACK);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching feedback by course ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }        
+    }
+}
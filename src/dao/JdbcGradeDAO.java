@@ -0,0 +1,73 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import models.Grade;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the GradeDAO interface, for handling database operations related to grades.
+ * This class provides functionalities to retrieve grade details for students,
+ * both as a list for all modules a student is enrolled in, and individually by module.
+ */
+public class JdbcGradeDAO implements GradeDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    
+    /**
+     * Retrieves a list of Grade objects for a specific student by their ID.
+     * 
+     * @param studentId The ID of the student whose grades are to be fetched.
+     * @return A List of Grade objects representing all grades found for the given student ID.
+     */
+    @Override
+    public List<Grade> getGradesByStudentId(int studentId) {
+        // SQL query to select all grades for a specific student ID
+        String sql = "SELECT " + RowMappers.GRADE_COLUMNS + " FROM Grades WHERE Student_ID = ?";
+        
+        try {
+            return queries.query(sql, pstmt -> pstmt.setInt(1, studentId), RowMappers.GRADE);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching grades by student ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }        
+    }
+
+    /**
+     * Retrieves a specific Grade object based on a student ID and a module ID.
+     * 
+     * @param studentId The ID of the student.
+     * @param moduleId The ID of the module.
+     * @return A Grade object representing the grade found for the specified student and module,
+     *         or null if no grade is found.
+     */
+    @Override
+    public Grade getGradeByStudentIdAndModuleId(int studentId, int moduleId) {
+        // SQL query to select a specific grade by student ID and module ID
+        String sql = "SELECT " + RowMappers.GRADE_COLUMNS + " FROM Grades WHERE Student_ID = ? AND Module_ID = ?";
+        
+        try {
+            return queries.queryForObject(sql, pstmt -> {
+                pstmt.setInt(1, studentId); // Set the student ID parameter
+                pstmt.setInt(2, moduleId); // Set the module ID parameter
+            }, RowMappers.GRADE);
+        } catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching grade: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import models.Lecturer;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the LecturerDAO interface, for handling database operations related to lecturers.
+ * Provides methods to retrieve all lecturers from the database and fetch a specific lecturer by their ID.
+ */
+public class JdbcLecturerDAO implements LecturerDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    private final QueryTemplate streamingQueries = queries.streaming(); // Reads rows incrementally from the server
+    
+    /**
+     * Retrieves one keyset page of lecturers from the database, using the primary key index
+     * so that late pages cost the same as early ones.
+     * 
+     * @param afterLecturerId The last ID of the previous page, or 0 for the first page.
+     * @param limit The maximum number of lecturers to return.
+     * @return A List of at most limit Lecturer objects, in ID order.
+     */
+    @Override
+    public List<Lecturer> getLecturersAfter(int afterLecturerId, int limit) {
+        String sql = "SELECT " + RowMappers.LECTURER_COLUMNS + " FROM Lecturers WHERE Lecturer_ID > ? ORDER BY Lecturer_ID LIMIT ?";
+
+        try {
+            return queries.query(sql, pstmt -> {
+                pstmt.setInt(1, afterLecturerId); // Continue after the last row of the previous page
+                pstmt.setInt(2, limit);
+            }, RowMappers.LECTURER);
+        }
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching lecturers page: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Streams every lecturer from the database to the consumer as rows arrive, in ID order.
+     * 
+     * @param consumer Receives each Lecturer.
+     */
+    @Override
+    public void forEachLecturer(Consumer<Lecturer> consumer) {
+        String sql = "SELECT " + RowMappers.LECTURER_COLUMNS + " FROM Lecturers ORDER BY Lecturer_ID";
+
+        try {
+            streamingQueries.forEach(sql, QueryTemplate.Binder.NONE, RowMappers.LECTURER, consumer);
+        }
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching lecturers: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+    }
+
+    /**
+     * Retrieves a specific lecturer by their ID from the database.
+     * 
+     * @param lecturerId The ID of the lecturer to retrieve.
+     * @return A Lecturer object representing the lecturer found, or null if no lecturer is found with the given ID.
+     */
+    @Override
+    public Lecturer getLecturerById(int lecturerId) {
+        // SQL query to select a specific lecturer by their ID
+        String sql = "SELECT " + RowMappers.LECTURER_COLUMNS + " FROM Lecturers WHERE Lecturer_ID = ?";
+        
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setInt(1, lecturerId), RowMappers.LECTURER);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching lecturer by ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }        
+    }
+}
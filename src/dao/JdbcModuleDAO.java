@@ -0,0 +1,142 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import models.Module;
+import database.DatabaseConnection;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the ModuleDAO interface, for handling database operations related to modules.
+ * Provides methods to retrieve modules based on course ID, fetch a specific module by its ID,
+ * and get all modules taught by a specific lecturer.
+ */
+public class JdbcModuleDAO implements ModuleDAO {
+
+    // Maximum number of IDs bound into a single IN (...) list
+    private static final int MAX_IN_LIST_SIZE = 500;
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+
+    /**
+     * Retrieves a list of Module objects associated with a specific course, identified by course ID.
+     * 
+     * @param courseId The ID of the course for which modules are being fetched.
+     * @return A List of Module objects representing all modules found for the given course ID.
+     */
+    @Override
+    public List<Module> getModulesByCourseId(int courseId) {
+        // SQL query to select all modules associated with a specific course ID
+        String sql = "SELECT " + RowMappers.MODULE_COLUMNS + " FROM Modules WHERE Course_ID = ?";
+
+        try {
+            return queries.query(sql, pstmt -> pstmt.setInt(1, courseId), RowMappers.MODULE);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching modules by course ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves a specific module by its ID.
+     * 
+     * @param moduleId The ID of the module to retrieve.
+     * @return A Module object representing the module found, or null if no module is found with the given ID.
+     */
+    @Override
+    public Module getModuleById(int moduleId) {
+        // SQL query to select a specific module by its ID
+        String sql = "SELECT " + RowMappers.MODULE_COLUMNS + " FROM Modules WHERE Module_ID = ?";
+
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setInt(1, moduleId), RowMappers.MODULE);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching module by ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves a list of Module objects taught by a specific lecturer, identified by lecturer ID.
+     * 
+     * @param lecturerId The ID of the lecturer for which modules are being fetched.
+     * @return A List of Module objects representing all modules taught by the given lecturer.
+     */
+    @Override
+    public List<Module> getModulesByLecturerId(int lecturerId) {
+        // SQL query to select all modules taught by a specific lecturer ID
+        String sql = "SELECT " + RowMappers.MODULE_COLUMNS + " FROM Modules WHERE Lecturer_ID = ?";
+
+        try {
+            return queries.query(sql, pstmt -> pstmt.setInt(1, lecturerId), RowMappers.MODULE);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching modules by lecturer ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves the modules taught by several lecturers at once.
+     * Lecturer IDs are sent in chunks of up to MAX_IN_LIST_SIZE per query, so the number of
+     * round trips grows with the batch size divided by the chunk size rather than per lecturer.
+     * 
+     * @param lecturerIds The IDs of the lecturers for which modules are being fetched.
+     * @return A map from lecturer ID to the Module objects that lecturer teaches, in module ID
+     *         order; lecturers without modules are absent.
+     */
+    @Override
+    public Map<Integer, List<Module>> getModulesByLecturerIds(Collection<Integer> lecturerIds) {
+        Map<Integer, List<Module>> modules = new HashMap<>();
+        if (lecturerIds.isEmpty()) {
+            return modules;
+        }
+        int[] ids = lecturerIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+
+        // Using try-with-resources so one pooled connection serves every chunk
+        try (Connection conn = DatabaseConnection.getConnection()) { // Obtain database connection
+            for (int from = 0; from < ids.length; from += MAX_IN_LIST_SIZE) {
+                int to = Math.min(ids.length, from + MAX_IN_LIST_SIZE);
+                String sql = "SELECT " + RowMappers.MODULE_COLUMNS + " FROM Modules WHERE Lecturer_ID IN ("
+                        + QueryTemplate.placeholders(to - from) + ") ORDER BY Lecturer_ID, Module_ID";
+
+                int first = from;
+                queries.forEachRow(conn, sql, pstmt -> {
+                    for (int i = first; i < to; i++) {
+                        pstmt.setInt(i - first + 1, ids[i]); // Bind each lecturer ID in the chunk
+                    }
+                }, rs -> {
+                    Module module = RowMappers.MODULE.mapRow(rs);
+                    modules.computeIfAbsent(module.getLecturerId(), id -> new ArrayList<>()).add(module);
+                });
+            }
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching modules by lecturer IDs: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+        return modules;
+    }
+}
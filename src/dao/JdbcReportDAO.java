@@ -0,0 +1,65 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import models.CourseModuleSummary;
+import database.EnrolmentCounters;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the ReportDAO interface, for the aggregated queries behind reports.
+ * Each method fetches everything a report needs in a fixed number of queries,
+ * instead of one query per course or module.
+ */
+public class JdbcReportDAO implements ReportDAO {
+
+    // Courses with their modules, lecturer names and enrolment counts in a single round trip.
+    // Enrolments are counted in a derived table first so the outer join stays one row per module.
+    private static final String COURSE_REPORT_SQL =
+            "SELECT c.Course_ID, c.Course_Name, m.Module_ID, m.Module_Name, m.Room, l.Name, ec.Enrolment_Count "
+            + "FROM Courses c "
+            + "LEFT JOIN Modules m ON m.Course_ID = c.Course_ID "
+            + "LEFT JOIN Lecturers l ON l.Lecturer_ID = m.Lecturer_ID "
+            + "LEFT JOIN (SELECT Module_ID, COUNT(*) AS Enrolment_Count FROM Enrolments GROUP BY Module_ID) ec "
+            + "ON ec.Module_ID = m.Module_ID "
+            + "ORDER BY c.Course_ID, m.Module_ID";
+
+    // The same report joined to the maintained counters, so no enrolment is read
+    private static final String COURSE_REPORT_FROM_COUNTERS_SQL =
+            "SELECT c.Course_ID, c.Course_Name, m.Module_ID, m.Module_Name, m.Room, l.Name, ec.Enrolment_Count "
+            + "FROM Courses c "
+            + "LEFT JOIN Modules m ON m.Course_ID = c.Course_ID "
+            + "LEFT JOIN Lecturers l ON l.Lecturer_ID = m.Lecturer_ID "
+            + "LEFT JOIN " + EnrolmentCounters.TABLE + " ec ON ec.Module_ID = m.Module_ID "
+            + "ORDER BY c.Course_ID, m.Module_ID";
+
+    private final QueryTemplate streamingQueries = QueryTemplate.getDefault().streaming(); // Reads rows incrementally from the server
+
+    /**
+     * Streams the course report rows to the given consumer as they are read from the database,
+     * without holding the whole result in memory.
+     * 
+     * @param consumer Receives each CourseModuleSummary row, ordered by course and module.
+     */
+    @Override
+    public void forEachCourseReportRow(Consumer<CourseModuleSummary> consumer) {
+        String sql = EnrolmentCounters.isMaintained() ? COURSE_REPORT_FROM_COUNTERS_SQL : COURSE_REPORT_SQL;
+        try {
+            // Hand each row on as soon as it is read
+            streamingQueries.forEach(sql, QueryTemplate.Binder.NONE, RowMappers.COURSE_MODULE_SUMMARY, consumer);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching course report: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+    }
+}
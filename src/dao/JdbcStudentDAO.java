@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import models.Student;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the StudentDAO interface, for handling database operations related to students.
+ * This class provides functionalities to retrieve all students from the database
+ * and to fetch a specific student by their ID.
+ */
+public class JdbcStudentDAO implements StudentDAO {
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    private final QueryTemplate streamingQueries = queries.streaming(); // Reads rows incrementally from the server
+    
+    /**
+     * Retrieves one keyset page of students from the database, using the primary key index
+     * so that late pages cost the same as early ones.
+     * 
+     * @param afterStudentId The last ID of the previous page, or 0 for the first page.
+     * @param limit The maximum number of students to return.
+     * @return A List of at most limit Student objects, in ID order.
+     */
+    @Override
+    public List<Student> getStudentsAfter(int afterStudentId, int limit) {
+        String sql = "SELECT " + RowMappers.STUDENT_COLUMNS + " FROM Students WHERE Student_ID > ? ORDER BY Student_ID LIMIT ?";
+
+        try {
+            return queries.query(sql, pstmt -> {
+                pstmt.setInt(1, afterStudentId); // Continue after the last row of the previous page
+                pstmt.setInt(2, limit);
+            }, RowMappers.STUDENT);
+        }
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching students page: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Streams every student from the database to the consumer as rows arrive, in ID order.
+     * 
+     * @param consumer Receives each Student.
+     */
+    @Override
+    public void forEachStudent(Consumer<Student> consumer) {
+        String sql = "SELECT " + RowMappers.STUDENT_COLUMNS + " FROM Students ORDER BY Student_ID";
+
+        try {
+            streamingQueries.forEach(sql, QueryTemplate.Binder.NONE, RowMappers.STUDENT, consumer);
+        }
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching students: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+    }
+
+    /**
+     * Retrieves a specific student by their ID from the database.
+     * 
+     * @param studentId The ID of the student to retrieve.
+     * @return A Student object representing the student found, or null if no student is found with the given ID.
+     */
+    @Override
+    public Student getStudentById(int studentId) {
+        // SQL query to select a specific student by their ID
+        String sql = "SELECT " + RowMappers.STUDENT_COLUMNS + " FROM Students WHERE Student_ID = ?";
+        
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setInt(1, studentId), RowMappers.STUDENT);
+        } 
+        catch (SQLException e) {
+            // Print an error message if a SQLException occurs
+            System.out.println("Error fetching student by ID: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }        
+    }
+}
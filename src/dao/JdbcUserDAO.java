@@ -0,0 +1,310 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.io.UncheckedIOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import models.User;
+import models.UserBatchResult;
+import database.DatabaseConnection;
+import database.QueryTemplate;
+import metrics.DAOMetrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JDBC implementation of the UserDAO interface, for handling database operations on the users table.
+ */
+public class JdbcUserDAO implements UserDAO {
+
+    private static final int BATCH_SIZE = 500; // Rows per JDBC batch in insertUsers
+
+    private final QueryTemplate queries = QueryTemplate.getDefault();
+    private final QueryTemplate streamingQueries = queries.streaming(); // Reads rows incrementally from the server
+
+    @Override
+    public User insertUser(String username, String password, String role) {
+        // SQL statement to insert a new user into the database
+        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            pstmt.setString(1, username);
+            pstmt.setString(2, password);
+            pstmt.setString(3, role);
+
+            int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        // Return a new User object with the generated key (userId)
+                        return new User(generatedKeys.getInt(1), username, password, role);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error adding user: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+        return null; // Return null if user creation failed
+    }
+
+    /**
+     * Inserts the users in JDBC batches of BATCH_SIZE rows on a single connection and inside
+     * a single transaction. Each batch is checked up front for invalid rows and for
+     * usernames that already exist (in the table or earlier in the input), which are
+     * reported as failures and left out. If the database still rejects the batch, it is
+     * rolled back to a savepoint and retried row by row, so only the offending rows fail.
+     */
+    @Override
+    public UserBatchResult insertUsers(Iterator<User> users, boolean keepCreatedUsers) {
+        UserBatchResult result = new UserBatchResult(keepCreatedUsers);
+        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+        int rowNumber = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                List<User> batch = new ArrayList<>(BATCH_SIZE);
+                List<Integer> batchRows = new ArrayList<>(BATCH_SIZE);
+                Set<String> batchUsernames = new HashSet<>();
+                while (users.hasNext()) {
+                    // Read the next chunk, rejecting invalid rows and duplicates within it
+                    batch.clear();
+                    batchRows.clear();
+                    batchUsernames.clear();
+                    while (batch.size() < BATCH_SIZE && users.hasNext()) {
+                        User user = users.next();
+                        rowNumber++;
+                        String invalid = UserDAO.invalidReason(user);
+                        if (invalid != null) {
+                            result.addFailure(rowNumber, user == null ? null : user.getUsername(), invalid);
+                        } else if (!batchUsernames.add(user.getUsername().toLowerCase())) {
+                            result.addFailure(rowNumber, user.getUsername(), "Duplicate username in input");
+                        } else {
+                            batch.add(user);
+                            batchRows.add(rowNumber);
+                        }
+                    }
+                    // Usernames inserted by earlier chunks are visible here, as the transaction is shared
+                    Set<String> existing = findExistingUsernames(conn, batch);
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        if (existing.contains(batch.get(i).getUsername().toLowerCase())) {
+                            result.addFailure(batchRows.get(i), batch.get(i).getUsername(), "Username already exists");
+                            batch.remove(i);
+                            batchRows.remove(i);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        insertBatch(conn, pstmt, batch, batchRows, result);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(); // Also when reading the input fails, so no partial import is committed
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println("Error adding users: " + e.getMessage());
+            DAOMetrics.markFailed();
+            result.rollBack(e.getMessage());
+        } catch (UncheckedIOException e) {
+            // The transaction was rolled back above; keep the rows read and failures found so far
+            result.rollBack("Error reading input after row " + rowNumber + ": " + e.getCause().getMessage());
+        }
+        result.setRowsRead(rowNumber);
+        return result;
+    }
+
+    /**
+     * Executes one prepared batch, falling back to row-by-row inserts if the database rejects it.
+     */
+    private void insertBatch(Connection conn, PreparedStatement pstmt, List<User> batch, List<Integer> batchRows,
+            UserBatchResult result) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            for (User user : batch) {
+                bindUser(pstmt, user);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                // Keys come back in the order the rows were added
+                for (User user : batch) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Driver returned fewer generated keys than inserted rows");
+                    }
+                    result.addCreated(new User(generatedKeys.getInt(1), user.getUsername(), user.getPassword(), user.getRole()));
+                }
+            }
+            conn.releaseSavepoint(savepoint);
+        } catch (BatchUpdateException e) {
+            pstmt.clearBatch();
+            conn.rollback(savepoint);
+            for (int i = 0; i < batch.size(); i++) {
+                insertSingle(conn, pstmt, batch.get(i), batchRows.get(i), result);
+            }
+        }
+    }
+
+    /**
+     * Inserts one row under its own savepoint, recording a failure instead of aborting the transaction.
+     */
+    private void insertSingle(Connection conn, PreparedStatement pstmt, User user, int rowNumber,
+            UserBatchResult result) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            bindUser(pstmt, user);
+            pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    result.addCreated(new User(generatedKeys.getInt(1), user.getUsername(), user.getPassword(), user.getRole()));
+                }
+            }
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            conn.rollback(savepoint);
+            result.addFailure(rowNumber, user.getUsername(), e.getMessage());
+        }
+    }
+
+    private static void bindUser(PreparedStatement pstmt, User user) throws SQLException {
+        pstmt.setString(1, user.getUsername());
+        pstmt.setString(2, user.getPassword());
+        pstmt.setString(3, user.getRole());
+    }
+
+    /**
+     * Looks up which of the given users' usernames are already taken. The comparison uses
+     * the column's collation (case-insensitive on MySQL), matching the unique constraint.
+     *
+     * @param batch The users whose usernames should be checked.
+     * @return The taken usernames, in lower case.
+     */
+    private Set<String> findExistingUsernames(Connection conn, List<User> batch) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (batch.isEmpty()) {
+            return existing;
+        }
+        String sql = "SELECT username FROM users WHERE username IN (" + QueryTemplate.placeholders(batch.size()) + ")";
+        queries.forEachRow(conn, sql, pstmt -> {
+            for (int i = 0; i < batch.size(); i++) {
+                pstmt.setString(i + 1, batch.get(i).getUsername());
+            }
+        }, rs -> existing.add(rs.getString(1).toLowerCase()));
+        return existing;
+    }
+
+    @Override
+    public boolean updateUser(int userId, String username, String password, String role) {
+        String sql = "UPDATE users SET username = ?, password = ?, role = ? WHERE user_id = ?";
+        try {
+            return queries.update(sql, pstmt -> {
+                pstmt.setString(1, username);
+                pstmt.setString(2, password);
+                pstmt.setString(3, role);
+                pstmt.setInt(4, userId);
+            }) > 0; // Returns true if at least one row was updated
+        } catch (SQLException e) {
+            System.out.println("Error updating user: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean deleteUser(int userId) {
+        // SQL statement to delete a user from the database
+        String sql = "DELETE FROM users WHERE user_id = ?";
+        try {
+            return queries.update(sql, pstmt -> pstmt.setInt(1, userId)) > 0; // Return true if at least one row was affected
+        } catch (SQLException e) {
+            System.out.println("Error deleting user: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        String sql = "SELECT user_id FROM users WHERE username = ?";
+        try {
+            // Returns true if there is at least one result, indicating user existence
+            return queries.queryForObject(sql, pstmt -> pstmt.setString(1, username), rs -> rs.getInt(1)) != null;
+        } catch (SQLException e) {
+            System.out.println("Error checking user existence: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return false;
+        }
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        String sql = "SELECT " + RowMappers.USER_COLUMNS + " FROM users WHERE user_id = ?";
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setInt(1, userId), RowMappers.USER);
+        } catch (SQLException e) {
+            System.out.println("Error fetching user: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        String sql = "SELECT " + RowMappers.USER_COLUMNS + " FROM users WHERE username = ?";
+        try {
+            return queries.queryForObject(sql, pstmt -> pstmt.setString(1, username), RowMappers.USER);
+        } catch (SQLException e) {
+            System.out.println("Error fetching user by username: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return null;
+        }
+    }
+
+    @Override
+    public List<User> getUsersAfter(int afterUserId, int limit) {
+        // Password is intentionally not fetched for security reasons
+        String sql = "SELECT " + RowMappers.USER_PUBLIC_COLUMNS + " FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        try {
+            return queries.query(sql, pstmt -> {
+                pstmt.setInt(1, afterUserId); // Keyset: continue after the last row of the previous page
+                pstmt.setInt(2, limit);
+            }, RowMappers.USER_PUBLIC);
+        } catch (SQLException e) {
+            System.out.println("Error fetching users page: " + e.getMessage());
+            DAOMetrics.markFailed();
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        // Password is intentionally not fetched for security reasons
+        String sql = "SELECT " + RowMappers.USER_PUBLIC_COLUMNS + " FROM users ORDER BY user_id";
+        try {
+            streamingQueries.forEach(sql, QueryTemplate.Binder.NONE, RowMappers.USER_PUBLIC, consumer);
+        } catch (SQLException e) {
+            System.out.println("Error fetching users: " + e.getMessage());
+            DAOMetrics.markFailed();
+        }
+    }
+}
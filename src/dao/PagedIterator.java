@@ -0,0 +1,89 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Iterates over a table one keyset page at a time: each page is fetched with
+ * "WHERE id &gt; last id seen ORDER BY id LIMIT page size", only when the previous page
+ * has been consumed. At most one page is held in memory, and every page query is an
+ * index range scan however deep into the table it is.
+ *
+ * @param <T> The type of the rows.
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    /**
+     * Fetches one keyset page, e.g. StudentDAO::getStudentsAfter.
+     *
+     * @param <T> The type of the rows.
+     */
+    public interface PageFetcher<T> {
+
+        /**
+         * Fetches the rows with an ID greater than afterId, in ID order.
+         *
+         * @param afterId The last ID already seen, or 0 for the first page.
+         * @param limit The maximum number of rows to return.
+         * @return The page of rows; fewer than limit rows means it is the last page.
+         */
+        List<T> fetchAfter(int afterId, int limit);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final ToIntFunction<T> idOf;
+    private final int pageSize;
+    private List<T> page;
+    private int position;
+    private int lastId;
+    private boolean lastPage;
+
+    /**
+     * Creates an iterator positioned before the first row. No page is fetched until hasNext() is called.
+     *
+     * @param fetcher Fetches a page of rows after a given ID.
+     * @param idOf Extracts the key column from a row.
+     * @param pageSize The number of rows fetched per page.
+     */
+    public PagedIterator(PageFetcher<T> fetcher, ToIntFunction<T> idOf, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.fetcher = fetcher;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page != null && position < page.size()) {
+            return true;
+        }
+        if (lastPage) {
+            return false;
+        }
+        page = fetcher.fetchAfter(lastId, pageSize);
+        position = 0;
+        lastPage = page.size() < pageSize;
+        return !page.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T row = page.get(position++);
+        lastId = idOf.applyAsInt(row);
+        return row;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import models.Course;
+import models.Lecturer;
+import models.Module;
+import util.IntLruCache;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Holds the shared caches for reference data (courses, modules and lecturers), which change
+ * only a few times a term but are looked up by ID on every report. The caches are shared by
+ * every CachedCourseDAO, CachedModuleDAO and CachedLecturerDAO instance, whichever backend they wrap.
+ * Size and time-to-live can be overridden with -Dcms.cache.size and -Dcms.cache.ttlSeconds.
+ * Callers that key results by data version (such as the report cache) pass the version of
+ * the reference tables to syncWith first, which empties the caches once those tables change.
+ */
+public final class ReferenceDataCache {
+
+    private static final int CACHE_SIZE = Integer.getInteger("cms.cache.size", 10000);
+    private static final long CACHE_TTL_SECONDS = Long.getLong("cms.cache.ttlSeconds", 600L);
+
+    static final IntLruCache<Course> COURSES = new IntLruCache<>("courses", CACHE_SIZE, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+    static final IntLruCache<Module> MODULES = new IntLruCache<>("modules", CACHE_SIZE, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+    static final IntLruCache<Lecturer> LECTURERS = new IntLruCache<>("lecturers", CACHE_SIZE, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+
+    // Highest data version of the reference tables seen by syncWith
+    private static final AtomicLong SEEN_VERSION = new AtomicLong(Long.MIN_VALUE);
+    // Bumped by invalidateAll, so a row loaded before it is not cached after it
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private ReferenceDataCache() {
+    }
+
+    /**
+     * Empties the caches if the reference tables changed since the last call, so rows read
+     * afterwards are at least as new as the given version.
+     *
+     * @param dataVersion The data version of the courses, modules and lecturers tables,
+     *                    read from DataVersionDAO; DataVersionDAO.UNTRACKED is ignored.
+     */
+    public static void syncWith(long dataVersion) {
+        if (dataVersion == DataVersionDAO.UNTRACKED) {
+            return;
+        }
+        long seen;
+        while ((seen = SEEN_VERSION.get()) < dataVersion) {
+            if (SEEN_VERSION.compareAndSet(seen, dataVersion)) {
+                invalidateAll(); // Also on the first call, as rows cached before it are of unknown age
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current generation, to be read before loading a row that is then cached
+     * with putIfCurrent.
+     *
+     * @return The number of times the caches have been emptied.
+     */
+    static long generation() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Caches a loaded row unless the caches were emptied while it was being loaded, in
+     * which case the row may predate the change that emptied them.
+     *
+     * @param cache The cache to put the row into.
+     * @param id The ID of the row.
+     * @param value The row.
+     * @param generation The generation read before the row was loaded.
+     */
+    static <V> void putIfCurrent(IntLruCache<V> cache, int id, V value, long generation) {
+        if (GENERATION.get() == generation) {
+            cache.put(id, value);
+            if (GENERATION.get() != generation) { // Emptied between the check and the put
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * Drops a single course from the cache, e.g. after it has been edited.
+     *
+     * @param courseId The ID of the course to invalidate.
+     */
+    public static void invalidateCourse(int courseId) {
+        COURSES.invalidate(courseId);
+    }
+
+    /**
+     * Drops a single module from the cache.
+     *
+     * @param moduleId The ID of the module to invalidate.
+     */
+    public static void invalidateModule(int moduleId) {
+        MODULES.invalidate(moduleId);
+    }
+
+    /**
+     * Drops a single lecturer from the cache.
+     *
+     * @param lecturerId The ID of the lecturer to invalidate.
+     */
+    public static void invalidateLecturer(int lecturerId) {
+        LECTURERS.invalidate(lecturerId);
+    }
+
+    /**
+     * Empties all reference data caches.
+     */
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        COURSES.invalidateAll();
+        MODULES.invalidateAll();
+        LECTURERS.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of every cache as text.
+     *
+     * @return One line per cache.
+     */
+    public static String getStatistics() {
+        return COURSES + System.lineSeparator() + MODULES + System.lineSeparator() + LECTURERS;
+    }
+}
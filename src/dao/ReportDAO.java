@@ -0,0 +1,40 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import models.CourseModuleSummary;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Data Access Object (DAO) interface for the aggregated data behind reports.
+ * Implemented by JdbcReportDAO and InMemoryReportDAO.
+ */
+public interface ReportDAO {
+
+    /**
+     * Retrieves every course with its modules, the lecturer teaching each module and the
+     * number of students enrolled, ordered by course and module.
+     * 
+     * @return A List of CourseModuleSummary rows; courses without modules appear once with a module ID of 0.
+     */
+    default List<CourseModuleSummary> getCourseReportRows() {
+        List<CourseModuleSummary> rows = new ArrayList<>();
+        forEachCourseReportRow(rows::add);
+        return rows;
+    }
+
+    /**
+     * Streams the course report rows to the given consumer without holding the whole
+     * result in memory.
+     * 
+     * @param consumer Receives each CourseModuleSummary row, ordered by course and module.
+     */
+    void forEachCourseReportRow(Consumer<CourseModuleSummary> consumer);
+}
@@ -0,0 +1,80 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package dao;
+
+import database.RowMapper;
+import models.Course;
+import models.CourseModuleSummary;
+import models.Enrolment;
+import models.Feedback;
+import models.Grade;
+import models.Lecturer;
+import models.Module;
+import models.Student;
+import models.TranscriptEntry;
+import models.User;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Column lists and row mappers for the tables read by the JDBC DAOs.
+ * Each mapper reads its columns by index, so it must be used with a query that
+ * selects exactly the matching column list, in that order, e.g.
+ * "SELECT " + COURSE_COLUMNS + " FROM Courses WHERE ...".
+ */
+final class RowMappers {
+
+    static final String COURSE_COLUMNS = "Course_ID, Course_Name, Description, Course_Type, QQI_Level";
+    static final RowMapper<Course> COURSE = rs -> new Course(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5));
+
+    static final String MODULE_COLUMNS = "Module_ID, Course_ID, Module_Name, Lecturer_ID, Room";
+    static final RowMapper<Module> MODULE = rs -> new Module(
+            rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4), rs.getString(5)); // Lecturer 0 when unassigned
+
+    static final String ENROLMENT_COLUMNS = "Enrolment_ID, Student_ID, Module_ID, Status";
+    static final RowMapper<Enrolment> ENROLMENT = rs -> new Enrolment(
+            rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getString(4));
+
+    static final String GRADE_COLUMNS = "Grade_ID, Student_ID, Module_ID, Grade";
+    static final RowMapper<Grade> GRADE = rs -> new Grade(
+            rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+
+    static final String STUDENT_COLUMNS = "Student_ID, Name, Email, Course_ID";
+    static final RowMapper<Student> STUDENT = rs -> new Student(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4));
+
+    static final String LECTURER_COLUMNS = "Lecturer_ID, Name, Email, Role, Teaching_Types";
+    static final RowMapper<Lecturer> LECTURER = rs -> new Lecturer(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+
+    static final String FEEDBACK_COLUMNS = "Feedback_ID, Course_ID, Student_ID, Rating, Comment, Date";
+    static final RowMapper<Feedback> FEEDBACK = rs -> new Feedback(
+            rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getString(5), rs.getDate(6));
+
+    static final String USER_COLUMNS = "user_id, username, password, role";
+    static final RowMapper<User> USER = rs -> new User(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+
+    // For listings: the password is intentionally not fetched
+    static final String USER_PUBLIC_COLUMNS = "user_id, username, role";
+    static final RowMapper<User> USER_PUBLIC = rs -> new User(
+            rs.getInt(1), rs.getString(2), null, rs.getString(3));
+
+    // Enrolment joined to its module name and, where one exists, its grade (NULL when ungraded)
+    static final RowMapper<TranscriptEntry> TRANSCRIPT_ENTRY = rs -> {
+        int grade = rs.getInt(5);
+        boolean graded = !rs.wasNull();
+        return new TranscriptEntry(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4), graded, grade);
+    };
+
+    // Course joined to a module, its lecturer's name and its enrolment count; IDs and counts are 0 when absent
+    static final RowMapper<CourseModuleSummary> COURSE_MODULE_SUMMARY = rs -> new CourseModuleSummary(
+            rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getString(4), rs.getString(5), rs.getString(6), rs.getInt(7));
+
+    private RowMappers() {
+    }
+}
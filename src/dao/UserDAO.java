@@ -0,0 +1,140 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package dao;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import models.User;
+import models.UserBatchResult;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Data Access Object (DAO) interface for the user store behind UserManager.
+ * Implemented by JdbcUserDAO and InMemoryUserDAO.
+ */
+public interface UserDAO {
+
+    /**
+     * Inserts a new user.
+     * 
+     * @param username The username for the new user.
+     * @param password The password for the new user.
+     * @param role The role of the new user.
+     * @return A User object with the generated user ID, or null if the insert failed.
+     */
+    User insertUser(String username, String password, String role);
+
+    /**
+     * Inserts many users in one go. Rows are read lazily from the iterator, so the input
+     * can be streamed. A rejected row (blank or over-long fields, duplicate username) is
+     * recorded as a failure and does not stop the other rows from being inserted.
+     * If the iterator fails to read the input (UncheckedIOException), no user from the batch
+     * is kept and the error is recorded on the result with the rows read up to then.
+     * 
+     * @param users The users to insert; their user IDs are ignored.
+     * @param keepCreatedUsers Whether the result should hold the created users or only count them.
+     * @return The created users with their generated IDs, and the rejected rows.
+     */
+    UserBatchResult insertUsers(Iterator<User> users, boolean keepCreatedUsers);
+
+    /**
+     * Replaces the username, password and role of an existing user.
+     * 
+     * @param userId The ID of the user to update.
+     * @param username The new username.
+     * @param password The new password.
+     * @param role The new role.
+     * @return true if a user was updated.
+     */
+    boolean updateUser(int userId, String username, String password, String role);
+
+    /**
+     * Deletes a user.
+     * 
+     * @param userId The ID of the user to delete.
+     * @return true if a user was deleted.
+     */
+    boolean deleteUser(int userId);
+
+    /**
+     * Checks whether a user with the given username exists.
+     * 
+     * @param username The username to check for.
+     * @return true if the user exists.
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * Retrieves a user by ID.
+     * 
+     * @param userId The ID of the user.
+     * @return A User object, or null if not found.
+     */
+    User getUserById(int userId);
+
+    /**
+     * Retrieves a user by username.
+     * 
+     * @param username The username of the user.
+     * @return A User object, or null if not found.
+     */
+    User getUserByUsername(String username);
+
+    /**
+     * Retrieves all users. Passwords are not included. Prefer forEachUser or keyset pages for large tables.
+     * 
+     * @return A List of User objects.
+     */
+    default List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        forEachUser(users::add);
+        return users;
+    }
+
+    /**
+     * Retrieves one keyset page of users: those with an ID greater than the given one, in ID order.
+     * Passwords are not included.
+     * 
+     * @param afterUserId The last ID of the previous page, or 0 for the first page.
+     * @param limit The maximum number of users to return.
+     * @return A List of at most limit User objects; a shorter list means there are no more.
+     */
+    List<User> getUsersAfter(int afterUserId, int limit);
+
+    /**
+     * Streams every user to the given consumer in ID order, without holding them all in memory.
+     * Passwords are not included.
+     * 
+     * @param consumer Receives each User.
+     */
+    void forEachUser(Consumer<User> consumer);
+
+    /**
+     * Checks a user row against the users table's constraints before it is inserted.
+     * 
+     * @param user The row to check.
+     * @return Why the row cannot be inserted, or null if it is valid.
+     */
+    static String invalidReason(User user) {
+        if (user == null) {
+            return "Empty row";
+        }
+        String username = user.getUsername();
+        String password = user.getPassword();
+        String role = user.getRole();
+        if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()
+                || role == null || role.trim().isEmpty()) {
+            return "Username, password and role are required";
+        }
+        if (username.length() > 50 || password.length() > 50 || role.length() > 30) {
+            return "Field too long (username and password at most 50 characters, role at most 30)";
+        }
+        return null;
+    }
+}
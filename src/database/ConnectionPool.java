@@ -0,0 +1,405 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A small bounded pool of physical JDBC connections.
+ * Connections handed out by the pool are proxies whose close() method returns the
+ * physical connection to the pool instead of closing it, so callers keep using the
+ * usual try-with-resources pattern. Idle connections are validated when borrowed and
+ * evicted in the background once they have been idle for longer than the idle timeout.
+ * Prepared statements created on pooled connections are wrapped for the SlowQueryLog.
+ */
+public class ConnectionPool {
+
+    private final String url; // JDBC URL used to open physical connections
+    private final String user; // Database username
+    private final String password; // Database password
+    private final int minSize; // Number of connections kept open even when idle
+    private final int maxSize; // Upper bound on open connections
+    private final long borrowTimeoutMillis; // How long a caller may wait for a free connection
+    private final long idleTimeoutMillis; // How long a connection may stay idle before eviction
+    private final int validationTimeoutSeconds; // Timeout passed to Connection.isValid on borrow
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleConnection> idle = new ArrayDeque<>(); // Most recently returned first
+    private final ScheduledExecutorService evictor;
+
+    // Counters guarded by lock
+    private int totalConnections; // Open plus currently being opened
+    private int waiters;
+    private long borrowCount;
+    private long timeoutCount;
+    private long totalBorrowWaitNanos;
+    private long maxBorrowWaitNanos;
+    private boolean closed;
+
+    /**
+     * Creates a connection pool. Connections are opened lazily on borrow; the background
+     * evictor then keeps at least minSize of them open.
+     *
+     * @param url The JDBC URL of the database.
+     * @param user The database username.
+     * @param password The database password.
+     * @param minSize The number of connections to keep open while idle.
+     * @param maxSize The maximum number of open connections.
+     * @param borrowTimeoutMillis The maximum time a caller waits for a connection.
+     * @param idleTimeoutMillis The time after which an idle connection above minSize is closed.
+     * @param validationTimeoutSeconds The timeout used when validating a connection on borrow.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis, int validationTimeoutSeconds) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        // Single daemon thread so an idle pool never keeps the JVM alive
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cms-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if the pool is below its
+     * maximum size, or waiting up to the borrow timeout for one to be returned.
+     *
+     * @return A pooled Connection; closing it returns it to the pool.
+     * @throws SQLException if no connection becomes available in time or opening one fails.
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            IdleConnection candidate = null;
+            boolean mayOpen = false;
+
+            lock.lock();
+            try {
+                while (candidate == null && !mayOpen) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                    } else if (totalConnections < maxSize) {
+                        totalConnections++; // Reserve the slot before opening outside the lock
+                        mayOpen = true;
+                    } else {
+                        if (remaining <= 0L) {
+                            timeoutCount++;
+                            throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                    + " ms waiting for a database connection (pool size " + maxSize + ")");
+                        }
+                        waiters++;
+                        try {
+                            remaining = available.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a database connection", e);
+                        } finally {
+                            waiters--;
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            Connection physical;
+            if (mayOpen) {
+                try {
+                    physical = DriverManager.getConnection(url, user, password);
+                } catch (SQLException | RuntimeException e) {
+                    discardSlot();
+                    throw e;
+                }
+            } else {
+                physical = candidate.connection;
+                // Validate outside the lock so a slow network round trip does not block other borrowers
+                if (!isUsable(physical)) {
+                    closeQuietly(physical);
+                    discardSlot();
+                    remaining = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis) - (System.nanoTime() - start);
+                    continue;
+                }
+            }
+
+            recordBorrow(System.nanoTime() - start);
+            return wrap(physical);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool's current state and counters.
+     *
+     * @return A PoolStats object describing the pool.
+     */
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            int idleCount = idle.size();
+            return new PoolStats(totalConnections - idleCount, idleCount, waiters, maxSize,
+                    borrowCount, timeoutCount, totalBorrowWaitNanos, maxBorrowWaitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of connections this pool will open.
+     *
+     * @return The configured maximum pool size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Closes all idle connections and stops the pool. Connections currently in use are
+     * closed when they are returned.
+     */
+    public void close() {
+        evictor.shutdownNow();
+        lock.lock();
+        try {
+            closed = true;
+            for (IdleConnection c : idle) {
+                closeQuietly(c.connection);
+                totalConnections--;
+            }
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives a physical connection back to the pool, resetting any transaction state left
+     * behind by the borrower. Connections that cannot be reset are discarded.
+     */
+    private void release(Connection physical) {
+        boolean healthy = true;
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        lock.lock();
+        try {
+            if (closed || !healthy) {
+                totalConnections--;
+            } else {
+                idle.addFirst(new IdleConnection(physical, System.nanoTime()));
+                physical = null;
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (physical != null) {
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the idle timeout, never dropping
+     * below the configured minimum size.
+     */
+    private void evictIdleConnections() {
+        Deque<Connection> toClose = new ArrayDeque<>();
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+
+        lock.lock();
+        try {
+            // Oldest connections sit at the tail of the deque
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections > minSize) {
+                IdleConnection c = it.next();
+                if (now - c.idleSince < idleTimeoutNanos) {
+                    break;
+                }
+                it.remove();
+                totalConnections--;
+                toClose.add(c.connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+        fillToMinimum();
+    }
+
+    /**
+     * Opens connections until the pool holds at least minSize of them, so the first
+     * borrowers after a quiet period do not pay for the TCP and authentication handshake.
+     */
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                release(DriverManager.getConnection(url, user, password));
+            } catch (SQLException e) {
+                discardSlot(); // Database unreachable; try again on the next eviction run
+                return;
+            }
+        }
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discardSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordBorrow(long waitNanos) {
+        lock.lock();
+        try {
+            borrowCount++;
+            totalBorrowWaitNanos += waitNanos;
+            if (waitNanos > maxBorrowWaitNanos) {
+                maxBorrowWaitNanos = waitNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnectionHandler(physical));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // The connection is being thrown away; nothing more to do
+        }
+    }
+
+    /**
+     * An idle physical connection together with the time it was returned to the pool.
+     */
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Invocation handler behind the pooled Connection proxy. close() hands the physical
+     * connection back to the pool exactly once; any other call after that fails.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private Connection physical;
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name) && method.getParameterCount() == 0) {
+                Connection c = physical;
+                physical = null;
+                if (c != null) {
+                    release(c);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name) && method.getParameterCount() == 0) {
+                return physical == null;
+            }
+            if ("equals".equals(name) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name) && method.getParameterCount() == 0) {
+                return "PooledConnection[" + physical + "]";
+            }
+            Connection c = physical;
+            if (c == null) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            try {
+                result = method.invoke(c, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof PreparedStatement && "prepareStatement".equals(name)) {
+                return SlowQueryLog.wrap((PreparedStatement) result, (String) args[0]); // Time executions for the slow-query log
+            }
+            return result;
+        }
+    }
+}
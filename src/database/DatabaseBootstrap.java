@@ -0,0 +1,176 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Explicit, idempotent startup phase that makes sure the application database exists
+ * and its schema is migrated to the latest version (see SchemaMigrator).
+ * The bootstrap runs at most once per JVM: either in the background, started by main
+ * before the login prompt, or on the first thread that asks for a connection.
+ * When the schema_version table already records the latest version, the migrator is
+ * skipped entirely and the bootstrap costs a single query.
+ */
+public final class DatabaseBootstrap {
+
+    private static final Object LOCK = new Object();
+    private static volatile boolean ready; // Fast path for getConnection() once bootstrap has finished
+    private static FutureTask<Void> task; // Guarded by LOCK
+    private static long elapsedNanos; // Written by the bootstrap before ready is set
+    private static String outcome = "not started";
+
+    private DatabaseBootstrap() {
+    }
+
+    /**
+     * Starts the bootstrap on a background daemon thread, so that it overlaps with work
+     * such as waiting for the user to type their credentials. Calling it again has no effect.
+     */
+    public static void startInBackground() {
+        FutureTask<Void> t = createTask();
+        if (t != null) {
+            Thread thread = new Thread(t, "cms-db-bootstrap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Blocks until the bootstrap has finished, running it on the calling thread if nobody
+     * has started it yet.
+     */
+    public static void awaitReady() {
+        if (ready) {
+            return;
+        }
+        FutureTask<Void> t = createTask();
+        if (t != null) {
+            t.run(); // Not started in the background; do it here
+        }
+        synchronized (LOCK) {
+            t = task;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                t.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true; // Keep waiting; callers cannot proceed without the schema
+            } catch (ExecutionException e) {
+                break; // Errors are reported by the bootstrap itself
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether the bootstrap has completed.
+     *
+     * @return true once the database is ready for use.
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Describes what the bootstrap did and how long it took, for startup timing output.
+     *
+     * @return A one-line summary of the bootstrap.
+     */
+    public static String getTimingSummary() {
+        if (!ready) {
+            return "Database bootstrap: " + outcome;
+        }
+        return String.format("Database bootstrap: %s in %d ms", outcome, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * Creates the bootstrap task the first time it is called.
+     *
+     * @return The new task, which the caller must run, or null if it already existed.
+     */
+    private static FutureTask<Void> createTask() {
+        synchronized (LOCK) {
+            if (task != null) {
+                return null;
+            }
+            outcome = "running";
+            task = new FutureTask<>(DatabaseBootstrap::bootstrap, null);
+            return task;
+        }
+    }
+
+    /**
+     * Performs the bootstrap: a quick version check first, and database creation plus
+     * migration only when the recorded version is missing or out of date.
+     */
+    private static void bootstrap() {
+        long start = System.nanoTime();
+        try {
+            int latest = SchemaMigrator.latestVersion();
+            if (readSchemaVersion() >= latest) {
+                outcome = "schema v" + latest + " is current, initialization skipped";
+            } else {
+                int applied = initializeDatabase();
+                outcome = "schema migrated to v" + latest + " (" + applied + " migration(s) applied)";
+            }
+        } catch (SQLException e) {
+            // Log any SQL exceptions that occur during database initialization
+            System.out.println("Database initialization error: " + e.getMessage());
+            outcome = "failed (" + e.getMessage() + ")";
+        } finally {
+            elapsedNanos = System.nanoTime() - start;
+            ready = true;
+        }
+    }
+
+    /**
+     * Reads the schema version marker through the pool, which also warms the pool's first connection.
+     *
+     * @return The recorded schema version, or 0 if the database or marker table does not exist yet.
+     */
+    private static int readSchemaVersion() {
+        try (Connection conn = DatabaseConnection.borrowForBootstrap()) {
+            return SchemaMigrator.currentVersion(conn);
+        } catch (SQLException e) {
+            return 0; // Missing database or table: fall back to full initialization
+        }
+    }
+
+    /**
+     * Creates the database if it does not exist and applies any pending schema migrations.
+     *
+     * @return The number of migrations applied.
+     * @throws SQLException if the database server cannot be reached or a migration fails.
+     */
+    private static int initializeDatabase() throws SQLException {
+        if (!DatabaseConnection.ROOT_URL.isEmpty()) { // Embedded databases are created by their URL
+            try (Connection conn = DriverManager.getConnection(DatabaseConnection.ROOT_URL, DatabaseConnection.USER, DatabaseConnection.PASSWORD);
+                 Statement stmt = conn.createStatement()) {
+
+                // Create the database if it doesn't exist
+                stmt.executeUpdate("CREATE DATABASE IF NOT EXISTS cms_db");
+            }
+        }
+
+        // Connect to the newly created or existing database and bring its schema up to date
+        try (Connection dbConn = DatabaseConnection.borrowForBootstrap()) {
+            return SchemaMigrator.migrate(dbConn);
+        }
+    }
+}
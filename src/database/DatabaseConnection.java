@@ -5,68 +5,95 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * @author Gytis
  * 
- * Handles database connections and initialization for the Course Management System.
- * Ensures that the necessary database and tables are created if they do not exist.
+ * Handles database connections for the Course Management System.
+ * Connections come from a shared pool; the first request for a connection waits until
+ * DatabaseBootstrap has made sure the database and its tables exist.
  */
 public class DatabaseConnection {
     
-    // Constants for the database connection details
-    private static final String ROOT_URL = "jdbc:mysql://localhost"; // URL for MySQL server
-    private static final String DB_URL = "jdbc:mysql://localhost/cms_db"; // URL for the specific database
-    private static final String USER = "pooa2024"; // Database username
-    private static final String PASSWORD = "pooa2024"; // Database password
-    
-    // Static initializer to set up the database on class loading
-    static {
-        initializeDatabase();
-    }
+    // Constants for the database connection details; -Dcms.db.* overrides them, e.g. to point
+    // benchmarks at an embedded database (an empty cms.db.rootUrl skips CREATE DATABASE)
+    static final String ROOT_URL = System.getProperty("cms.db.rootUrl", "jdbc:mysql://localhost"); // URL for MySQL server
+    static final String DB_URL = System.getProperty("cms.db.url", "jdbc:mysql://localhost/cms_db?rewriteBatchedStatements=true"); // URL for the specific database; batches become multi-row INSERTs
+    static final String USER = System.getProperty("cms.db.user", "pooa2024"); // Database username
+    static final String PASSWORD = System.getProperty("cms.db.password", "pooa2024"); // Database password
+
+    private static final int STREAMING_FETCH_SIZE = 500; // Rows per round trip when streaming from other drivers
+
+    // Connection pool settings; each can be overridden with a -Dcms.pool.* system property
+    private static final int POOL_MIN_SIZE = Integer.getInteger("cms.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("cms.pool.maxSize", 10);
+    private static final long POOL_BORROW_TIMEOUT_MS = Long.getLong("cms.pool.borrowTimeoutMs", 10000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("cms.pool.idleTimeoutMs", 300000L);
+    private static final int POOL_VALIDATION_TIMEOUT_S = Integer.getInteger("cms.pool.validationTimeoutS", 2);
+
+    // Shared pool behind getConnection(); it opens no connection until one is borrowed
+    private static final ConnectionPool POOL = new ConnectionPool(DB_URL, USER, PASSWORD,
+            POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS, POOL_VALIDATION_TIMEOUT_S);
     
     /**
-     * Provides a connection to the database.
+     * Provides a connection to the database, borrowed from the shared connection pool.
+     * Closing the returned connection hands it back to the pool.
      * 
      * @return A Connection object to the database.
-     * @throws SQLException if a database access error occurs.
+     * @throws SQLException if a database access error occurs or no pooled connection
+     *         becomes available within the borrow timeout.
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, USER, PASSWORD);
+        DatabaseBootstrap.awaitReady(); // Returns immediately once the schema is known to be in place
+        return POOL.borrow();
     }
 
     /**
-     * Initializes the database and tables required by the application.
-     * Creates the database and users table if they do not exist.
+     * Borrows a pooled connection without waiting for the bootstrap, for use by the
+     * bootstrap itself.
+     * 
+     * @return A pooled Connection to the application database.
+     * @throws SQLException if the database cannot be reached.
      */
-    private static void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(ROOT_URL, USER, PASSWORD);
-             Statement stmt = conn.createStatement()) {
-
-            // Create the database if it doesn't exist
-            stmt.executeUpdate("CREATE DATABASE IF NOT EXISTS cms_db");
-            
-            // Connect to the newly created or existing database
-            try (Connection dbConn = DriverManager.getConnection(DB_URL, USER, PASSWORD);
-                 Statement dbStmt = dbConn.createStatement()) {
-                
-                // SQL statement to create the users table if it doesn't exist
-                String sqlCreateUsersTable = "CREATE TABLE IF NOT EXISTS users (" +
-                        "user_id INT AUTO_INCREMENT PRIMARY KEY," +
-                        "username VARCHAR(50) NOT NULL UNIQUE," +
-                        "password VARCHAR(50) NOT NULL," +
-                        "role VARCHAR(30) NOT NULL)";
-                
-                // Execute the statement to create the table
-                dbStmt.executeUpdate(sqlCreateUsersTable);
-            }
+    static Connection borrowForBootstrap() throws SQLException {
+        return POOL.borrow();
+    }
 
-        } catch (SQLException e) {
-            // Log any SQL exceptions that occur during database initialization
-            System.out.println("Database initialization error: " + e.getMessage());
+    /**
+     * Configures a statement so its ResultSet is streamed from the server row by row
+     * instead of being buffered in memory in full. Used by report queries whose size
+     * grows with the data set.
+     * 
+     * @param pstmt The statement to configure, before it is executed.
+     * @throws SQLException if the driver rejects the fetch size.
+     */
+    public static void enableStreaming(PreparedStatement pstmt) throws SQLException {
+        if (DB_URL.startsWith("jdbc:mysql:")) {
+            // MySQL Connector/J only streams when the fetch size is Integer.MIN_VALUE
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            pstmt.setFetchSize(STREAMING_FETCH_SIZE);
         }
     }
+
+    /**
+     * Returns a snapshot of the connection pool's live statistics
+     * (active and idle connections, waiting threads, borrow wait times).
+     * 
+     * @return The current PoolStats.
+     */
+    public static PoolStats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * Returns the maximum number of connections the shared pool will open.
+     * 
+     * @return The configured maximum pool size.
+     */
+    public static int getPoolMaxSize() {
+        return POOL.getMaxSize();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Schema support for the per-module enrolment counters in the Module_Enrolment_Counts table.
+ * On MySQL, triggers on Enrolments keep each counter up to date in the same transaction as
+ * the enrolment write, whichever client makes it, so reading a module's enrolment count is
+ * a primary key lookup instead of a COUNT(*) over its enrolments.
+ * Other databases (such as the embedded one used by benchmarks) get the table but no
+ * triggers; there the DAOs keep counting the enrolments. Counters can also be ignored
+ * with -Dcms.enrolmentCounters.enabled=false, e.g. while investigating a mismatch.
+ */
+public final class EnrolmentCounters {
+
+    public static final String TABLE = "Module_Enrolment_Counts";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("cms.enrolmentCounters.enabled", "true"));
+    private static final String[] TRIGGER_NAMES = {
+        "trg_enrolments_count_insert", "trg_enrolments_count_delete", "trg_enrolments_count_update"
+    };
+    private static final String[] TRIGGER_BODIES = {
+        "AFTER INSERT ON Enrolments FOR EACH ROW "
+                + "INSERT INTO " + TABLE + " (Module_ID, Enrolment_Count) VALUES (NEW.Module_ID, 1) "
+                + "ON DUPLICATE KEY UPDATE Enrolment_Count = Enrolment_Count + 1",
+        "AFTER DELETE ON Enrolments FOR EACH ROW "
+                + "UPDATE " + TABLE + " SET Enrolment_Count = Enrolment_Count - 1 WHERE Module_ID = OLD.Module_ID",
+        "AFTER UPDATE ON Enrolments FOR EACH ROW BEGIN "
+                + "IF NEW.Module_ID <> OLD.Module_ID THEN "
+                + "UPDATE " + TABLE + " SET Enrolment_Count = Enrolment_Count - 1 WHERE Module_ID = OLD.Module_ID; "
+                + "INSERT INTO " + TABLE + " (Module_ID, Enrolment_Count) VALUES (NEW.Module_ID, 1) "
+                + "ON DUPLICATE KEY UPDATE Enrolment_Count = Enrolment_Count + 1; "
+                + "END IF; END"
+    };
+
+    private static volatile Boolean maintained; // Null until checked successfully
+
+    private EnrolmentCounters() {
+    }
+
+    /**
+     * Creates the migration step that installs the counter triggers on MySQL. On other
+     * databases, or when the account may not create triggers, it leaves the counters
+     * unmaintained instead of failing the migration.
+     *
+     * @return The step.
+     */
+    static Migration.Step createTriggers() {
+        return Triggers.create("Enrolment counters", TRIGGER_NAMES, TRIGGER_BODIES);
+    }
+
+    /**
+     * Creates the migration step that recomputes every counter from the enrolments, in one
+     * transaction. On MySQL, where the triggers are already installed, enrolment writes are
+     * blocked with LOCK TABLES while it runs: a write made before the lock is counted by the
+     * recount, and one made after it waits and is then counted by its trigger.
+     *
+     * @return The step.
+     */
+    static Migration.Step backfill() {
+        return conn -> {
+            boolean mySql = Triggers.isMySql(conn);
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                if (mySql) {
+                    stmt.execute("LOCK TABLES Enrolments READ, " + TABLE + " WRITE");
+                }
+                try {
+                    stmt.executeUpdate("DELETE FROM " + TABLE);
+                    stmt.executeUpdate("INSERT INTO " + TABLE + " (Module_ID, Enrolment_Count) "
+                            + "SELECT Module_ID, COUNT(*) FROM Enrolments GROUP BY Module_ID");
+                    conn.commit(); // Before UNLOCK TABLES, which would otherwise commit implicitly
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    if (mySql) {
+                        stmt.execute("UNLOCK TABLES");
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        };
+    }
+
+    /**
+     * Checks whether the counters are kept up to date by the database, so enrolment counts
+     * can be read from them. The answer is looked up once, on first use.
+     *
+     * @return true if every counter trigger is installed and counters are enabled.
+     */
+    public static boolean isMaintained() {
+        if (!ENABLED) {
+            return false;
+        }
+        Boolean result = maintained;
+        if (result == null) {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                result = Triggers.allInstalled(conn, TRIGGER_NAMES);
+                maintained = result;
+            } catch (SQLException e) {
+                return false; // Not cached; checked again once the database is reachable
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A single numbered schema change applied by SchemaMigrator.
+ * A migration is an ordered list of steps; each step is either a plain SQL statement or
+ * an index that is only created when the table does not already have it, since MySQL has
+ * no CREATE INDEX IF NOT EXISTS and hand-made installs may already carry some indexes.
+ */
+public class Migration {
+
+    /**
+     * One unit of work inside a migration.
+     */
+    @FunctionalInterface
+    public interface Step {
+
+        /**
+         * Applies the step using the given connection.
+         *
+         * @param conn A connection to the application database.
+         * @throws SQLException if the step fails.
+         */
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final int version; // Strictly increasing version number
+    private final String description; // Short human-readable summary
+    private final List<Step> steps; // Applied in order
+
+    /**
+     * Constructs a Migration.
+     *
+     * @param version The version this migration brings the schema to.
+     * @param description A short summary of the change.
+     * @param steps The steps to apply, in order.
+     */
+    public Migration(int version, String description, Step... steps) {
+        this.version = version;
+        this.description = description;
+        this.steps = Collections.unmodifiableList(Arrays.asList(steps));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Applies every step of the migration in order.
+     *
+     * @param conn A connection to the application database.
+     * @throws SQLException if any step fails; earlier steps are not undone.
+     */
+    public void apply(Connection conn) throws SQLException {
+        for (Step step : steps) {
+            step.apply(conn);
+        }
+    }
+
+    /**
+     * Creates a step that executes a single SQL statement.
+     *
+     * @param statement The SQL statement to execute.
+     * @return The step.
+     */
+    public static Step sql(String statement) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(statement);
+            }
+        };
+    }
+
+    /**
+     * Creates a step that adds an index to a table unless an index with that name exists.
+     *
+     * @param table The table to index.
+     * @param indexName The name of the index.
+     * @param columns The indexed columns, in order.
+     * @return The step.
+     */
+    public static Step index(String table, String indexName, String... columns) {
+        return conn -> {
+            if (!hasIndex(conn, table, indexName)) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("CREATE INDEX " + indexName + " ON " + table
+                            + " (" + String.join(", ", columns) + ")");
+                }
+            }
+        };
+    }
+
+    /**
+     * Checks the database metadata for an index by name. Both the given and upper-case
+     * spellings are tried, as some databases fold unquoted identifiers to upper case.
+     */
+    private static boolean hasIndex(Connection conn, String table, String indexName) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String t : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, t, false, true)) {
+                while (rs.next()) {
+                    if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Immutable snapshot of a ConnectionPool's state, taken at the moment getStats() was called.
+ */
+public class PoolStats {
+
+    private final int active; // Connections currently borrowed
+    private final int idle; // Connections waiting in the pool
+    private final int waiters; // Threads blocked waiting for a connection
+    private final int maxSize; // Configured maximum pool size
+    private final long borrowCount; // Successful borrows since the pool was created
+    private final long timeoutCount; // Borrows that gave up after the borrow timeout
+    private final long totalBorrowWaitNanos; // Sum of time spent inside borrow()
+    private final long maxBorrowWaitNanos; // Longest single borrow()
+
+    public PoolStats(int active, int idle, int waiters, int maxSize, long borrowCount,
+            long timeoutCount, long totalBorrowWaitNanos, long maxBorrowWaitNanos) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.totalBorrowWaitNanos = totalBorrowWaitNanos;
+        this.maxBorrowWaitNanos = maxBorrowWaitNanos;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getTotalBorrowWaitNanos() {
+        return totalBorrowWaitNanos;
+    }
+
+    public long getMaxBorrowWaitNanos() {
+        return maxBorrowWaitNanos;
+    }
+
+    /**
+     * Returns the mean time a caller spent waiting inside borrow().
+     *
+     * @return The average borrow wait in microseconds, or 0 if nothing was borrowed yet.
+     */
+    public double getAverageBorrowWaitMicros() {
+        return borrowCount == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(totalBorrowWaitNanos) / (double) borrowCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool[active=%d, idle=%d, max=%d, waiters=%d, borrows=%d, timeouts=%d, avgWait=%.1fus, maxWait=%dus]",
+                active, idle, maxSize, waiters, borrowCount, timeoutCount,
+                getAverageBorrowWaitMicros(), TimeUnit.NANOSECONDS.toMicros(maxBorrowWaitNanos));
+    }
+}
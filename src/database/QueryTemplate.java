@@ -0,0 +1,336 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Runs parameterised SQL on a pooled connection and maps the rows with a RowMapper, so
+ * DAOs do not repeat the connection, statement and ResultSet handling. Every connection,
+ * statement and ResultSet it opens is closed before the call returns, also when the
+ * mapper or consumer throws.
+ * Each template carries a statement timeout and a fetch size, applied to every statement
+ * it prepares. The shared default takes them from -Dcms.query.timeoutS (30 seconds, 0
+ * for none) and -Dcms.query.fetchSize (0 for the driver default); withTimeout,
+ * withFetchSize and streaming() derive templates with other settings.
+ * Methods that take a Connection run on it without closing it, for use inside a
+ * transaction or to share one connection across several queries.
+ */
+public final class QueryTemplate {
+
+    private static final QueryTemplate DEFAULT = new QueryTemplate(
+            Integer.getInteger("cms.query.timeoutS", 30), Integer.getInteger("cms.query.fetchSize", 0), false);
+
+    private final int timeoutSeconds; // Statement timeout; 0 for none
+    private final int fetchSize; // Rows per round trip; 0 for the driver default
+    private final boolean streaming; // Whether rows are streamed rather than buffered
+
+    private QueryTemplate(int timeoutSeconds, int fetchSize, boolean streaming) {
+        this.timeoutSeconds = timeoutSeconds;
+        this.fetchSize = fetchSize;
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns the shared template with the configured timeout and fetch size.
+     *
+     * @return The default QueryTemplate.
+     */
+    public static QueryTemplate getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a template like this one with a different statement timeout.
+     *
+     * @param seconds The timeout in seconds, or 0 for none.
+     * @return The new QueryTemplate.
+     */
+    public QueryTemplate withTimeout(int seconds) {
+        return new QueryTemplate(seconds, fetchSize, streaming);
+    }
+
+    /**
+     * Returns a template like this one with a different fetch size.
+     *
+     * @param rows The number of rows per round trip, or 0 for the driver default.
+     * @return The new QueryTemplate.
+     */
+    public QueryTemplate withFetchSize(int rows) {
+        return new QueryTemplate(timeoutSeconds, rows, streaming);
+    }
+
+    /**
+     * Returns a template like this one whose queries stream their rows from the server
+     * instead of buffering the whole result (see DatabaseConnection.enableStreaming).
+     * Intended for forEach over results that grow with the data set.
+     *
+     * @return The new QueryTemplate.
+     */
+    public QueryTemplate streaming() {
+        return new QueryTemplate(timeoutSeconds, fetchSize, true);
+    }
+
+    /**
+     * Runs a query and maps every row.
+     *
+     * @param <T> The row type.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps each row.
+     * @return The mapped rows, in result order.
+     * @throws SQLException if the query fails.
+     */
+    public <T> List<T> query(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return query(conn, sql, binder, mapper);
+        }
+    }
+
+    /**
+     * Runs a query on the given connection and maps every row.
+     *
+     * @param <T> The row type.
+     * @param conn The connection to use; it is left open.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps each row.
+     * @return The mapped rows, in result order.
+     * @throws SQLException if the query fails.
+     */
+    public <T> List<T> query(Connection conn, String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        forEach(conn, sql, binder, mapper, rows::add);
+        return rows;
+    }
+
+    /**
+     * Runs a query expected to return at most one row and maps it.
+     *
+     * @param <T> The row type.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps the row.
+     * @return The mapped first row, or null if the query returned no rows.
+     * @throws SQLException if the query fails.
+     */
+    public <T> T queryForObject(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryForObject(conn, sql, binder, mapper);
+        }
+    }
+
+    /**
+     * Runs a query expected to return at most one row on the given connection and maps it.
+     *
+     * @param <T> The row type.
+     * @param conn The connection to use; it is left open.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps the row.
+     * @return The mapped first row, or null if the query returned no rows.
+     * @throws SQLException if the query fails.
+     */
+    public <T> T queryForObject(Connection conn, String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, sql, binder)) {
+            pstmt.setMaxRows(1); // Lets the server stop after the first row
+            List<T> row = new ArrayList<>(1);
+            readRows(pstmt, rs -> row.add(mapper.mapRow(rs)));
+            return row.isEmpty() ? null : row.get(0);
+        }
+    }
+
+    /**
+     * Runs a query and hands each mapped row to the consumer as it is read.
+     *
+     * @param <T> The row type.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps each row.
+     * @param consumer Receives each mapped row, in result order.
+     * @throws SQLException if the query fails.
+     */
+    public <T> void forEach(String sql, Binder binder, RowMapper<T> mapper, Consumer<? super T> consumer) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            forEach(conn, sql, binder, mapper, consumer);
+        }
+    }
+
+    /**
+     * Runs a query on the given connection and hands each mapped row to the consumer as it is read.
+     *
+     * @param <T> The row type.
+     * @param conn The connection to use; it is left open.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param mapper Maps each row.
+     * @param consumer Receives each mapped row, in result order.
+     * @throws SQLException if the query fails.
+     */
+    public <T> void forEach(Connection conn, String sql, Binder binder, RowMapper<T> mapper,
+            Consumer<? super T> consumer) throws SQLException {
+        forEachRow(conn, sql, binder, rs -> consumer.accept(mapper.mapRow(rs)));
+    }
+
+    /**
+     * Runs a query on the given connection and passes each row to the handler, for
+     * callers that read primitive columns straight into their own structures.
+     *
+     * @param conn The connection to use; it is left open.
+     * @param sql The query, with an explicit column list.
+     * @param binder Sets the query's parameters.
+     * @param handler Reads each row, in result order.
+     * @throws SQLException if the query fails.
+     */
+    public void forEachRow(Connection conn, String sql, Binder binder, RowHandler handler) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, sql, binder)) {
+            readRows(pstmt, handler);
+        }
+    }
+
+    /**
+     * Executes a prepared query and passes each row to the handler. When the slow query
+     * log is on, the time spent in the driver fetching rows is measured here, apart from
+     * the time the handler takes, rather than by wrapping the ResultSet.
+     */
+    private static void readRows(PreparedStatement pstmt, RowHandler handler) throws SQLException {
+        SlowQueryStatementHandler log = SlowQueryLog.handlerOf(pstmt);
+        if (log == null) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handleRow(rs);
+                }
+            }
+            return;
+        }
+        long fetchNanos = 0;
+        long rows = 0;
+        ResultSet rs = pstmt.executeQuery();
+        try {
+            long start = System.nanoTime();
+            while (rs.next()) {
+                fetchNanos += System.nanoTime() - start;
+                rows++;
+                handler.handleRow(rs);
+                start = System.nanoTime();
+            }
+            fetchNanos += System.nanoTime() - start;
+        } finally {
+            long start = System.nanoTime();
+            rs.close(); // Streaming drivers drain the remaining rows here
+            log.addFetch(fetchNanos + System.nanoTime() - start, rows);
+        }
+    }
+
+    /**
+     * Runs an INSERT, UPDATE or DELETE statement.
+     *
+     * @param sql The statement.
+     * @param binder Sets the statement's parameters.
+     * @return The number of rows affected.
+     * @throws SQLException if the statement fails.
+     */
+    public int update(String sql, Binder binder) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return update(conn, sql, binder);
+        }
+    }
+
+    /**
+     * Runs an INSERT, UPDATE or DELETE statement on the given connection.
+     *
+     * @param conn The connection to use; it is left open.
+     * @param sql The statement.
+     * @param binder Sets the statement's parameters.
+     * @return The number of rows affected.
+     * @throws SQLException if the statement fails.
+     */
+    public int update(Connection conn, String sql, Binder binder) throws SQLException {
+        try (PreparedStatement pstmt = prepare(conn, sql, binder)) {
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Builds a comma-separated list of the given number of JDBC placeholders, e.g. for an
+     * IN (...) list bound from a collection.
+     *
+     * @param count The number of placeholders; at least one.
+     * @return The placeholders, such as "?,?,?".
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prepares a statement with this template's settings and binds its parameters.
+     * The statement is closed again if binding fails.
+     */
+    private PreparedStatement prepare(Connection conn, String sql, Binder binder) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        try {
+            if (timeoutSeconds > 0) {
+                pstmt.setQueryTimeout(timeoutSeconds);
+            }
+            if (streaming) {
+                DatabaseConnection.enableStreaming(pstmt);
+            } else if (fetchSize > 0) {
+                pstmt.setFetchSize(fetchSize);
+            }
+            binder.bind(pstmt);
+            return pstmt;
+        } catch (SQLException | RuntimeException e) {
+            pstmt.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the parameters of a prepared statement before it is executed.
+     */
+    @FunctionalInterface
+    public interface Binder {
+
+        // For statements without parameters
+        Binder NONE = pstmt -> {
+        };
+
+        /**
+         * Binds the statement's parameters.
+         *
+         * @param pstmt The statement to bind.
+         * @throws SQLException if a parameter cannot be set.
+         */
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * Reads the current row of a ResultSet without mapping it to an object.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * Reads the row the ResultSet is currently positioned on.
+         *
+         * @param rs The ResultSet, positioned on a valid row; the cursor must not be moved.
+         * @throws SQLException if a column cannot be read.
+         */
+        void handleRow(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Maps the current row of a ResultSet to an object, for use with QueryTemplate.
+ * Implementations read columns by index, in the order of the query's explicit
+ * column list, and must not move the cursor or close the ResultSet.
+ *
+ * @param <T> The type each row is mapped to.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the row the ResultSet is currently positioned on.
+     *
+     * @param rs The ResultSet, positioned on a valid row.
+     * @return The object for this row.
+     * @throws SQLException if a column cannot be read.
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
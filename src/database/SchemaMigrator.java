@@ -0,0 +1,163 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import static database.Migration.index;
+import static database.Migration.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Applies the versioned schema migrations for the Course Management System.
+ * Applied versions are recorded in the schema_version table; on each run only the
+ * migrations with a higher version than the highest recorded one are applied, in order.
+ * New schema changes are added by appending a Migration to MIGRATIONS.
+ */
+public final class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "Create users table",
+                    sql("CREATE TABLE IF NOT EXISTS users ("
+                            + "user_id INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "username VARCHAR(50) NOT NULL UNIQUE,"
+                            + "password VARCHAR(50) NOT NULL,"
+                            + "role VARCHAR(30) NOT NULL)")),
+
+            new Migration(2, "Create course, module, lecturer, student, enrolment, grade and feedback tables",
+                    sql("CREATE TABLE IF NOT EXISTS Courses ("
+                            + "Course_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Course_Name VARCHAR(100) NOT NULL,"
+                            + "Description TEXT,"
+                            + "Course_Type VARCHAR(20) NOT NULL," // in_class, online or blended
+                            + "QQI_Level INT)"),
+                    sql("CREATE TABLE IF NOT EXISTS Lecturers ("
+                            + "Lecturer_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Name VARCHAR(100) NOT NULL,"
+                            + "Email VARCHAR(100),"
+                            + "Role VARCHAR(50),"
+                            + "Teaching_Types VARCHAR(100))"),
+                    sql("CREATE TABLE IF NOT EXISTS Modules ("
+                            + "Module_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Course_ID INT NOT NULL,"
+                            + "Module_Name VARCHAR(100) NOT NULL,"
+                            + "Lecturer_ID INT,"
+                            + "Room VARCHAR(50))"),
+                    sql("CREATE TABLE IF NOT EXISTS Students ("
+                            + "Student_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Name VARCHAR(100) NOT NULL,"
+                            + "Email VARCHAR(100),"
+                            + "Course_ID INT)"),
+                    sql("CREATE TABLE IF NOT EXISTS Enrolments ("
+                            + "Enrolment_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Student_ID INT NOT NULL,"
+                            + "Module_ID INT NOT NULL,"
+                            + "Status VARCHAR(20) NOT NULL)"), // enrolled or completed
+                    sql("CREATE TABLE IF NOT EXISTS Grades ("
+                            + "Grade_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Student_ID INT NOT NULL,"
+                            + "Module_ID INT NOT NULL,"
+                            + "Grade INT NOT NULL)"),
+                    sql("CREATE TABLE IF NOT EXISTS Feedback ("
+                            + "Feedback_ID INT AUTO_INCREMENT PRIMARY KEY,"
+                            + "Course_ID INT NOT NULL,"
+                            + "Student_ID INT NOT NULL,"
+                            + "Rating INT,"
+                            + "Comment TEXT,"
+                            + "Date DATE)")),
+
+            new Migration(3, "Index the foreign keys used by DAO and report queries",
+                    index("Enrolments", "idx_enrolments_module", "Module_ID"),
+                    index("Enrolments", "idx_enrolments_student", "Student_ID", "Enrolment_ID"),
+                    index("Grades", "idx_grades_student_module", "Student_ID", "Module_ID"),
+                    index("Modules", "idx_modules_course", "Course_ID", "Module_ID"),
+                    index("Modules", "idx_modules_lecturer", "Lecturer_ID"),
+                    index("Feedback", "idx_feedback_course", "Course_ID")),
+
+            new Migration(4, "Maintain per-module enrolment counts",
+                    sql("CREATE TABLE IF NOT EXISTS " + EnrolmentCounters.TABLE + " ("
+                            + "Module_ID INT PRIMARY KEY,"
+                            + "Enrolment_Count INT NOT NULL)"),
+                    EnrolmentCounters.createTriggers(), // MySQL only; before the backfill so no write is missed
+                    EnrolmentCounters.backfill()),
+
+            new Migration(5, "Track a version number per table for cached reports",
+                    sql("CREATE TABLE IF NOT EXISTS " + TableVersions.TABLE + " ("
+                            + "Table_Name VARCHAR(64) PRIMARY KEY,"
+                            + "Version BIGINT NOT NULL)"),
+                    TableVersions.seed(),
+                    TableVersions.createTriggers()) // MySQL only
+    ));
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Returns the version the schema is at once every migration has been applied.
+     *
+     * @return The highest migration version.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    /**
+     * Applies every pending migration and records each one in schema_version as soon as it succeeds.
+     *
+     * @param conn A connection to the application database.
+     * @return The number of migrations applied.
+     * @throws SQLException if a migration fails; later migrations are not attempted.
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY,"
+                    + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+        int current = currentVersion(conn);
+        int applied = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (migration.getVersion() <= current) {
+                continue;
+            }
+            try {
+                migration.apply(conn);
+            } catch (SQLException e) {
+                throw new SQLException("Migration " + migration.getVersion() + " (" + migration.getDescription()
+                        + ") failed: " + e.getMessage(), e.getSQLState(), e);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO schema_version (version) VALUES (?)")) {
+                pstmt.setInt(1, migration.getVersion());
+                pstmt.executeUpdate();
+            }
+            System.out.println("Applied schema migration " + migration.getVersion() + ": " + migration.getDescription());
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Reads the highest applied version from schema_version.
+     *
+     * @param conn A connection to the application database.
+     * @return The highest recorded version, or 0 if none has been applied.
+     * @throws SQLException if the table cannot be read.
+     */
+    static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Logs prepared statements whose database time exceeds a threshold, with their SQL text,
+ * bind values, elapsed time, row count and the ReportService method that caused them.
+ * The connection pool wraps every PreparedStatement it hands out (see SlowQueryStatementHandler),
+ * so all DAO queries, including the user store behind UserManager, are covered.
+ * Bind values for password-like columns are masked. Lines are queued and written to a
+ * rolling file by a background daemon thread, so a slow disk never delays a query; if
+ * the queue is full the line is dropped and counted instead.
+ *
+ * Configuration: -Dcms.slowQuery.enabled (default true), -Dcms.slowQuery.thresholdMs
+ * (default 200), -Dcms.slowQuery.file (default slow-queries.log), -Dcms.slowQuery.maxBytes
+ * (default 10 MB per file) and -Dcms.slowQuery.maxFiles (default 5 rolled files kept).
+ */
+public final class SlowQueryLog {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("cms.slowQuery.enabled", "true"));
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("cms.slowQuery.thresholdMs", 200L));
+    private static final File FILE = new File(System.getProperty("cms.slowQuery.file", "slow-queries.log"));
+    private static final long MAX_BYTES = Long.getLong("cms.slowQuery.maxBytes", 10L * 1024 * 1024);
+    private static final int MAX_FILES = Integer.getInteger("cms.slowQuery.maxFiles", 5);
+    private static final int QUEUE_CAPACITY = 10000;
+
+    private static final Pattern PASSWORD_COLUMN = Pattern.compile("(?i).*(pass(word)?|pwd|secret|token).*");
+    private static final Pattern INSERT_COLUMNS = Pattern.compile(
+            "(?is)^\\s*INSERT\\s+INTO\\s+[\\w.`\"]+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(");
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "(?is)([\\w.`\"]+)\\s*(=|<>|!=|<=|>=|<|>|\\s+LIKE|\\s+IN\\s*\\(\\s*(\\?\\s*,\\s*)*)\\s*$");
+
+    // Thread that submitted the task issuing the query, when it runs on an AsyncDAO thread
+    private static final ThreadLocal<Thread> CALL_SITE = new ThreadLocal<>();
+
+    private static final BlockingQueue<String> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong LOGGED = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    static {
+        if (ENABLED) {
+            Thread writer = new Thread(SlowQueryLog::writeLoop, "cms-slow-query-log");
+            writer.setDaemon(true);
+            writer.start();
+            // Write whatever is still queued when the application exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> drainTo(null), "cms-slow-query-log-flush"));
+        }
+    }
+
+    private SlowQueryLog() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long getLoggedCount() {
+        return LOGGED.get();
+    }
+
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    /**
+     * Wraps a prepared statement so its executions are timed and logged when slow.
+     *
+     * @param statement The statement returned by the driver.
+     * @param sql The SQL text the statement was prepared with.
+     * @return The wrapped statement, or the statement itself when the log is disabled.
+     */
+    static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        if (!ENABLED) {
+            return statement;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new SlowQueryStatementHandler(statement, sql));
+    }
+
+    /**
+     * Returns the handler timing a statement wrapped by wrap(), for QueryTemplate to add
+     * the time spent fetching rows.
+     *
+     * @param statement A statement from the connection pool.
+     * @return The handler, or null if the statement is not wrapped.
+     */
+    static SlowQueryStatementHandler handlerOf(PreparedStatement statement) {
+        if (!ENABLED || !Proxy.isProxyClass(statement.getClass())) {
+            return null;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(statement);
+        return handler instanceof SlowQueryStatementHandler ? (SlowQueryStatementHandler) handler : null;
+    }
+
+    /**
+     * Captures the current call site so that queries run later on another thread can be
+     * attributed to it. Used by AsyncDAO before handing a call to its executor. Only the
+     * calling thread is kept; its stack is read if one of the queries turns out to be slow,
+     * while the caller is normally still waiting for the result.
+     *
+     * @return An opaque call site, or null when the log is disabled.
+     */
+    public static Object captureCallSite() {
+        return ENABLED ? Thread.currentThread() : null;
+    }
+
+    /**
+     * Sets the call site for queries issued by the current thread until it is cleared with null.
+     *
+     * @param callSite A value returned by captureCallSite(), or null to clear it.
+     */
+    public static void setCallSite(Object callSite) {
+        if (callSite == null) {
+            CALL_SITE.remove();
+        } else {
+            CALL_SITE.set((Thread) callSite);
+        }
+    }
+
+    /**
+     * Checks whether a statement execution is slow enough to log.
+     */
+    static boolean isSlow(long dbNanos) {
+        return dbNanos >= THRESHOLD_NANOS;
+    }
+
+    /**
+     * Formats a slow statement and queues it for writing. Runs on the query thread, but
+     * only for statements that crossed the threshold.
+     *
+     * @param sql The SQL text.
+     * @param binds The bind values by parameter index (index 0 unused), may contain nulls.
+     * @param dbNanos Time spent inside the driver executing and fetching.
+     * @param openNanos Time from execution until the result was closed.
+     * @param rows Rows fetched or updated, or -1 if unknown.
+     * @param batches Number of batched parameter sets, or 0 for a single execution.
+     */
+    static void record(String sql, List<Object> binds, long dbNanos, long openNanos, long rows, int batches) {
+        String line = String.format(Locale.ROOT, "%s | db %.1f ms | open %.1f ms | rows=%s%s | caller=%s | thread=%s | SQL: %s | binds: %s",
+                new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").format(new Date()),
+                dbNanos / 1e6, openNanos / 1e6, rows < 0 ? "?" : Long.toString(rows),
+                batches > 0 ? " | batches=" + batches : "",
+                findCaller(), Thread.currentThread().getName(),
+                sql.replaceAll("\\s+", " ").trim(), formatBinds(sql, binds));
+        if (QUEUE.offer(line)) {
+            LOGGED.incrementAndGet();
+        } else {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    /**
+     * Renders the bind values, masking those bound to password-like columns.
+     */
+    static String formatBinds(String sql, List<Object> binds) {
+        String[] names = parameterNames(sql, binds.size() - 1);
+        boolean mentionsPassword = PASSWORD_COLUMN.matcher(sql).matches();
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i < binds.size(); i++) {
+            if (i > 1) {
+                sb.append(", ");
+            }
+            Object value = binds.get(i);
+            String name = names[i];
+            boolean sensitive = name != null ? PASSWORD_COLUMN.matcher(name).matches()
+                    : mentionsPassword && value instanceof String; // Unknown column in a password query
+            if (sensitive && value != null) {
+                sb.append("****");
+            } else if (value instanceof String) {
+                sb.append('\'').append(value).append('\'');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Works out which column each placeholder is bound to, from INSERT column lists and
+     * from comparisons such as "password = ?".
+     *
+     * @return Column names by parameter index (index 0 unused); null where unknown.
+     */
+    static String[] parameterNames(String sql, int count) {
+        String[] names = new String[count + 1];
+        List<String> insertColumns = new ArrayList<>();
+        int valuesStart = -1;
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            for (String column : insert.group(1).split(",")) {
+                insertColumns.add(column.trim());
+            }
+            valuesStart = insert.end();
+        }
+
+        int index = 0;
+        boolean quoted = false;
+        for (int pos = 0; pos < sql.length() && index < count; pos++) {
+            char c = sql.charAt(pos);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                index++;
+                if (valuesStart >= 0 && pos >= valuesStart && !insertColumns.isEmpty()) {
+                    // Multi-row VALUES lists repeat the column list
+                    int placeholderInValues = index - 1 - countPlaceholders(sql, 0, valuesStart);
+                    names[index] = insertColumns.get(placeholderInValues % insertColumns.size());
+                } else {
+                    Matcher compared = COMPARED_COLUMN.matcher(sql.substring(0, pos));
+                    if (compared.find()) {
+                        String column = compared.group(1);
+                        names[index] = column.substring(column.lastIndexOf('.') + 1);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static int countPlaceholders(String sql, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (sql.charAt(i) == '?') {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Finds the ReportService method behind the current query, looking at the current
+     * stack first and then at the call site handed over by AsyncDAO.
+     */
+    private static String findCaller() {
+        String caller = findCaller(new Throwable().getStackTrace());
+        Thread callSite = CALL_SITE.get();
+        if (caller == null && callSite != null) {
+            caller = findCaller(callSite.getStackTrace());
+        }
+        return caller != null ? caller : "unknown";
+    }
+
+    private static String findCaller(StackTraceElement[] stack) {
+        String firstApplicationFrame = null;
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (cls.equals("services.ReportService")) {
+                return "ReportService." + methodName(frame.getMethodName());
+            }
+            if (firstApplicationFrame == null && !cls.startsWith("database.") && !cls.startsWith("dao.")
+                    && !cls.startsWith("metrics.") && !cls.startsWith("java.") && !cls.startsWith("javax.")
+                    && !cls.startsWith("sun.") && !cls.startsWith("jdk.") && !cls.startsWith("com.sun.")
+                    && !cls.startsWith("com.mysql.") && !cls.startsWith("$Proxy") && !cls.contains(".$Proxy")) {
+                firstApplicationFrame = cls.substring(cls.lastIndexOf('.') + 1) + "." + methodName(frame.getMethodName());
+            }
+        }
+        return firstApplicationFrame;
+    }
+
+    private static String methodName(String frameMethod) {
+        // Lambdas show up as lambda$enclosingMethod$0
+        if (frameMethod.startsWith("lambda$")) {
+            int end = frameMethod.indexOf('$', 7);
+            return end > 7 ? frameMethod.substring(7, end) : frameMethod;
+        }
+        return frameMethod;
+    }
+
+    /**
+     * Body of the background writer thread: writes queued lines, rolling the file over
+     * when it grows past the size limit.
+     */
+    private static void writeLoop() {
+        while (true) {
+            try {
+                String first = QUEUE.take();
+                drainTo(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends the given line and everything else currently queued to the log file.
+     */
+    private static synchronized void drainTo(String first) {
+        List<String> lines = new ArrayList<>();
+        if (first != null) {
+            lines.add(first);
+        }
+        QUEUE.drainTo(lines);
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            if (FILE.length() >= MAX_BYTES) {
+                roll();
+            }
+            File parent = FILE.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(FILE, true), StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    out.write(line);
+                    out.write(System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            DROPPED.addAndGet(lines.size());
+            System.out.println("Error writing slow query log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renames file.log to file.log.1, file.log.1 to file.log.2 and so on, deleting the oldest.
+     */
+    private static void roll() {
+        File oldest = new File(FILE.getPath() + "." + MAX_FILES);
+        if (oldest.exists()) {
+            oldest.delete();
+        }
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            File from = new File(FILE.getPath() + "." + i);
+            if (from.exists()) {
+                from.renameTo(new File(FILE.getPath() + "." + (i + 1)));
+            }
+        }
+        if (MAX_FILES > 0) {
+            FILE.renameTo(new File(FILE.getPath() + ".1"));
+        } else {
+            FILE.delete();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Invocation handler behind the PreparedStatement proxies created by SlowQueryLog.
+ * It remembers the bind values set on the statement and times each execution. For
+ * queries, QueryTemplate adds the time spent fetching rows and the number of rows (see
+ * addFetch), so the ResultSet itself is handed out unwrapped; the statement is logged when
+ * it is closed or executed again. Only time spent inside the driver counts towards the
+ * threshold, not time the caller spends processing rows.
+ */
+class SlowQueryStatementHandler implements InvocationHandler {
+
+    private final PreparedStatement statement;
+    private final String sql;
+    private final List<Object> binds = new ArrayList<>(); // By parameter index; index 0 unused
+    private int batches;
+
+    // State of the query whose ResultSet is still open
+    private boolean queryOpen;
+    private long queryStart;
+    private long queryDbNanos;
+    private long queryRows;
+
+    SlowQueryStatementHandler(PreparedStatement statement, String sql) {
+        this.statement = statement;
+        this.sql = sql;
+        binds.add(null);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        int paramCount = method.getParameterCount();
+
+        if (name.startsWith("set") && paramCount >= 2 && method.getParameterTypes()[0] == int.class) {
+            bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+        } else if (name.equals("clearParameters")) {
+            binds.subList(1, binds.size()).clear();
+        } else if (name.equals("addBatch") && paramCount == 0) {
+            batches++;
+        } else if (name.equals("close") && paramCount == 0) {
+            finishQuery();
+        } else if (paramCount == 0 && name.startsWith("execute")) {
+            return execute(method, args);
+        }
+        return call(method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finishQuery(); // A previous ResultSet is closed implicitly by re-executing
+        long start = System.nanoTime();
+        Object result = call(method, args);
+        long elapsed = System.nanoTime() - start;
+
+        if (result instanceof ResultSet) {
+            queryOpen = true;
+            queryStart = start;
+            queryDbNanos = elapsed;
+            queryRows = 0;
+            return result;
+        }
+
+        if (SlowQueryLog.isSlow(elapsed)) {
+            SlowQueryLog.record(sql, binds, elapsed, elapsed, rowsOf(result), batches);
+        }
+        if (method.getName().startsWith("executeBatch") || method.getName().startsWith("executeLargeBatch")) {
+            batches = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Adds time spent reading the rows of the open query, and the rows read; called by
+     * QueryTemplate, which times the driver's next() and close() calls.
+     *
+     * @param fetchNanos Time spent inside the driver fetching rows and closing the ResultSet.
+     * @param rows The number of rows read.
+     */
+    void addFetch(long fetchNanos, long rows) {
+        if (queryOpen) {
+            queryDbNanos += fetchNanos;
+            queryRows += rows;
+        }
+    }
+
+    /**
+     * Logs the open query, if any and if slow, once its results are no longer read.
+     */
+    private void finishQuery() {
+        if (queryOpen) {
+            queryOpen = false;
+            if (SlowQueryLog.isSlow(queryDbNanos)) {
+                SlowQueryLog.record(sql, binds, queryDbNanos, System.nanoTime() - queryStart, queryRows, 0);
+            }
+        }
+    }
+
+    private void bind(int index, Object value) {
+        while (binds.size() <= index) {
+            binds.add(null);
+        }
+        binds.set(index, value);
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long sum = 0;
+            for (int n : (int[]) result) {
+                sum += Math.max(n, 0);
+            }
+            return sum;
+        }
+        if (result instanceof long[]) {
+            long sum = 0;
+            for (long n : (long[]) result) {
+                sum += Math.max(n, 0L);
+            }
+            return sum;
+        }
+        return -1L;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Schema support for the per-table version numbers in the Table_Versions table, which let
+ * callers tell cheaply whether a table has changed since they last read it.
+ * On MySQL, triggers bump a table's version on every inserted, updated or deleted row, in
+ * the same transaction as the write. Writers to the same table therefore queue on its
+ * version row until they commit, which suits these tables: they are read far more often
+ * than they are written. Without the triggers (other databases, or no TRIGGER privilege)
+ * versions are not tracked and callers must assume every table may have changed.
+ */
+public final class TableVersions {
+
+    public static final String TABLE = "Table_Versions";
+
+    // Tables whose changes are tracked; users are left out, as no cached result depends on them
+    static final String[] TRACKED_TABLES = {"Courses", "Modules", "Lecturers", "Students", "Enrolments", "Grades", "Feedback"};
+
+    private static final String[] EVENTS = {"INSERT", "UPDATE", "DELETE"};
+    private static final String[] TRIGGER_NAMES = new String[TRACKED_TABLES.length * EVENTS.length];
+    private static final String[] TRIGGER_BODIES = new String[TRIGGER_NAMES.length];
+
+    static {
+        for (int t = 0; t < TRACKED_TABLES.length; t++) {
+            for (int e = 0; e < EVENTS.length; e++) {
+                int i = t * EVENTS.length + e;
+                TRIGGER_NAMES[i] = "trg_" + TRACKED_TABLES[t].toLowerCase() + "_version_" + EVENTS[e].toLowerCase();
+                TRIGGER_BODIES[i] = "AFTER " + EVENTS[e] + " ON " + TRACKED_TABLES[t] + " FOR EACH ROW "
+                        + "UPDATE " + TABLE + " SET Version = Version + 1 WHERE Table_Name = '" + TRACKED_TABLES[t] + "'";
+            }
+        }
+    }
+
+    private static volatile Boolean maintained; // Null until checked successfully
+
+    private TableVersions() {
+    }
+
+    /**
+     * Creates the migration step that adds a version row, starting at 0, for every tracked table.
+     *
+     * @return The step.
+     */
+    static Migration.Step seed() {
+        return conn -> {
+            StringBuilder sql = new StringBuilder("INSERT INTO " + TABLE + " (Table_Name, Version) VALUES ");
+            for (int t = 0; t < TRACKED_TABLES.length; t++) {
+                sql.append(t == 0 ? "" : ", ").append("('").append(TRACKED_TABLES[t]).append("', 0)");
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM " + TABLE);
+                stmt.executeUpdate(sql.toString());
+            }
+        };
+    }
+
+    /**
+     * Creates the migration step that installs the version triggers on MySQL.
+     *
+     * @return The step.
+     */
+    static Migration.Step createTriggers() {
+        return Triggers.create("Table versions", TRIGGER_NAMES, TRIGGER_BODIES);
+    }
+
+    /**
+     * Checks whether table versions are kept up to date by the database. The answer is
+     * looked up once, on first use.
+     *
+     * @return true if every version trigger is installed.
+     */
+    public static boolean isMaintained() {
+        Boolean result = maintained;
+        if (result == null) {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                result = Triggers.allInstalled(conn, TRIGGER_NAMES);
+                maintained = result;
+            } catch (SQLException e) {
+                return false; // Not cached; checked again once the database is reachable
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Helpers for the MySQL triggers that maintain derived tables (enrolment counters and
+ * table versions). Triggers are optional: on other databases, or when the account may not
+ * create them, the derived table is simply not maintained and its users fall back to
+ * reading the base tables.
+ */
+final class Triggers {
+
+    private Triggers() {
+    }
+
+    /**
+     * Creates a migration step that (re)creates the given triggers on MySQL. On other
+     * databases it does nothing; if creation fails the reason is printed and the
+     * migration carries on.
+     *
+     * @param purpose What the triggers maintain, for the warning message.
+     * @param names The trigger names.
+     * @param bodies The trigger definitions following CREATE TRIGGER name, by index.
+     * @return The step.
+     */
+    static Migration.Step create(String purpose, String[] names, String[] bodies) {
+        return conn -> {
+            if (!isMySql(conn)) {
+                return;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                for (int i = 0; i < names.length; i++) {
+                    stmt.executeUpdate("DROP TRIGGER IF EXISTS " + names[i]);
+                    stmt.executeUpdate("CREATE TRIGGER " + names[i] + " " + bodies[i]);
+                }
+            } catch (SQLException e) {
+                System.out.println(purpose + " will not be maintained, triggers could not be created: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Checks whether every one of the given triggers is installed in the current database.
+     *
+     * @param conn A connection to the application database.
+     * @param names The trigger names.
+     * @return true on MySQL when all of them exist.
+     * @throws SQLException if the check fails.
+     */
+    static boolean allInstalled(Connection conn, String[] names) throws SQLException {
+        if (!isMySql(conn)) {
+            return false;
+        }
+        String sql = "SELECT COUNT(*) FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME IN ("
+                + QueryTemplate.placeholders(names.length) + ")";
+        Integer count = QueryTemplate.getDefault().queryForObject(conn, sql, pstmt -> {
+            for (int i = 0; i < names.length; i++) {
+                pstmt.setString(i + 1, names[i]);
+            }
+        }, rs -> rs.getInt(1));
+        return count != null && count == names.length;
+    }
+
+    static boolean isMySql(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        return product.equalsIgnoreCase("MySQL") || product.equalsIgnoreCase("MariaDB");
+    }
+}
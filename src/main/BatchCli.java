@@ -0,0 +1,517 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package main;
+
+import java.io.BufferedReader;
+import java.util.concurrent.CountDownLatch;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import metrics.DAOMetrics;
+import models.BulkReportResult;
+import models.User;
+import models.UserBatchResult;
+import api.ReportHttpServer;
+import services.AuthenticationService;
+import services.BulkReportService;
+import services.ReportScheduler;
+import services.ReportService;
+import services.ReportSnapshots;
+import services.SessionRegistry;
+import services.UserManager;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Headless command-line mode, for cron jobs and scripts. Runs when the application is
+ * started with arguments: it logs in from the arguments or the environment, runs one or
+ * more commands without showing any menus, and exits with a status code. Running many
+ * commands in one invocation pays the JVM and database start-up cost only once.
+ *
+ *   java -jar CourseManagementSystem.jar [--user NAME] [--password PASS] COMMAND [";" COMMAND ...]
+ *   java -jar CourseManagementSystem.jar [--user NAME] [--password PASS] --script FILE
+ *
+ * Credentials default to the CMS_USER and CMS_PASSWORD environment variables, which keeps
+ * the password out of the process list. Commands are separated by a ";" argument (quoted
+ * for the shell), or given one per line in a script file ("-" reads standard input, "#"
+ * starts a comment). Every command is checked before the first one runs, and the run stops
+ * at the first command that fails; a bulk report with any failed ID (including IDs that do
+ * not exist) counts as failed.
+ *
+ * Exit status: 0 success, 1 a command failed, 2 invalid usage, 3 login failed or not permitted.
+ */
+public final class BatchCli {
+
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int USAGE = 2;
+    public static final int DENIED = 3;
+
+    private static final String USAGE_TEXT = String.join(System.lineSeparator(),
+            "Usage: CourseManagementSystem [--user NAME] [--password PASS] COMMAND [\";\" COMMAND ...]",
+            "       CourseManagementSystem [--user NAME] [--password PASS] --script FILE|-",
+            "Credentials default to the CMS_USER and CMS_PASSWORD environment variables.",
+            "Commands:",
+            "  report course [--format F] [--out DIR]                      Office, Admin",
+            "  report student --ids all|SPEC [--format F] [--out DIR] [--archive]   Office, Admin",
+            "  report lecturer --ids all|SPEC [--format F] [--out DIR] [--archive]  Office, Admin",
+            "  report self [--format F] [--out DIR]                        Lecturer",
+            "  users import FILE                                           Admin",
+            "  snapshot build                                              Office, Admin",
+            "  serve [--host ADDR] [--port N]    Runs the HTTP report API until stopped (default 127.0.0.1:8080)",
+            "  help",
+            "Formats: txt, csv, txt.gz, csv.gz (default csv); course reports also console.",
+            "SPEC is a comma-separated list of IDs and ranges, e.g. 1-50000 or 3,7,10-20.");
+    // Largest number of IDs an --ids list may expand to
+    private static final int MAX_IDS = 5_000_000;
+
+    private BatchCli() {
+    }
+
+    /**
+     * Runs the commands given on the command line.
+     *
+     * @param args The command line arguments.
+     * @return The exit status.
+     */
+    public static int run(String[] args) {
+        String username = System.getenv("CMS_USER");
+        String password = System.getenv("CMS_PASSWORD");
+        String script = null;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("--"); i += 2) {
+            if (i + 1 >= args.length) {
+                return usage("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--user":
+                    username = args[i + 1];
+                    break;
+                case "--password":
+                    password = args[i + 1];
+                    break;
+                case "--script":
+                    script = args[i + 1];
+                    break;
+                default:
+                    return usage("Unknown option " + args[i]);
+            }
+        }
+
+        List<Command> commands = new ArrayList<>();
+        try {
+            List<String> tokens = new ArrayList<>(Arrays.asList(args).subList(i, args.length));
+            if (script != null) {
+                if (!tokens.isEmpty()) {
+                    return usage("Commands cannot be given together with --script");
+                }
+                readScript(script, commands);
+            } else {
+                splitCommands(tokens, commands);
+            }
+            for (Command command : commands) {
+                command.validate();
+            }
+        } catch (IllegalArgumentException e) {
+            return usage(e.getMessage());
+        } catch (IOException e) {
+            System.out.println("Error reading script " + script + ": " + e.getMessage());
+            return USAGE;
+        }
+        if (commands.isEmpty() || (commands.size() == 1 && commands.get(0).is("help"))) {
+            System.out.println(USAGE_TEXT);
+            return commands.isEmpty() ? USAGE : OK;
+        }
+        for (Command command : commands) {
+            if (command.is("serve") && commands.size() > 1) {
+                return usage("serve runs until stopped, so it must be the only command");
+            }
+        }
+        if (commands.get(0).is("serve")) {
+            return serve(commands.get(0)); // API users log in with every request instead
+        }
+        if (username == null || password == null) {
+            return usage("No credentials: use --user and --password, or set CMS_USER and CMS_PASSWORD");
+        }
+
+        AuthenticationService authService = new AuthenticationService();
+        UserManager userManager = new UserManager(); // Seeds the admin account, as the menus do
+        SessionRegistry.Session session = authService.login(username, password);
+        if (session == null) {
+            System.out.println("Login failed. Please check your credentials.");
+            return DENIED;
+        }
+        User user = session.getUser();
+        try {
+            for (Command command : commands) {
+                if (!command.permits(user.getRole())) {
+                    System.out.println("Not permitted for role " + user.getRole() + ": " + command);
+                    return DENIED;
+                }
+            }
+
+            Runner runner = new Runner(session, userManager);
+            for (Command command : commands) {
+                System.out.println("> " + command);
+                long start = System.currentTimeMillis();
+                long failuresBefore = DAOMetrics.getFailureCount();
+                int status;
+                try {
+                    status = runner.execute(command);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Error: " + e.getMessage());
+                    status = FAILED;
+                }
+                if (status == OK && DAOMetrics.getFailureCount() != failuresBefore) {
+                    System.out.println("A database error occurred while running the command.");
+                    status = FAILED;
+                }
+                System.out.println((status == OK ? "Done" : "Failed") + " in " + (System.currentTimeMillis() - start) + " ms");
+                if (status != OK) {
+                    return status;
+                }
+            }
+            return OK;
+        } finally {
+            authService.logout(session);
+        }
+    }
+
+    /**
+     * Runs the HTTP report API until the process is stopped, e.g. with Ctrl+C.
+     */
+    private static int serve(Command command) {
+        ReportHttpServer server;
+        try {
+            server = new ReportHttpServer(command.options.getOrDefault("--host", "127.0.0.1"),
+                    Integer.parseInt(command.options.getOrDefault("--port", "8080")));
+        } catch (IOException e) {
+            System.out.println("Error starting the report API: " + e.getMessage());
+            return FAILED;
+        }
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(5);
+            stopped.countDown();
+        }));
+        server.start();
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OK;
+    }
+
+    /**
+     * Splits command line tokens into commands at ";" tokens, or tokens ending in ";".
+     */
+    private static void splitCommands(List<String> tokens, List<Command> commands) {
+        List<String> current = new ArrayList<>();
+        for (String token : tokens) {
+            boolean ends = token.endsWith(";");
+            String word = ends ? token.substring(0, token.length() - 1) : token;
+            if (!word.isEmpty()) {
+                current.add(word);
+            }
+            if (ends) {
+                addCommand(current, commands);
+                current = new ArrayList<>();
+            }
+        }
+        addCommand(current, commands);
+    }
+
+    /**
+     * Reads one command per line from a script file, or standard input for "-".
+     */
+    private static void readScript(String script, List<Command> commands) throws IOException {
+        try (BufferedReader reader = "-".equals(script)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                addCommand(tokenize(comment < 0 ? line : line.substring(0, comment)), commands);
+            }
+        }
+    }
+
+    private static void addCommand(List<String> words, List<Command> commands) {
+        if (!words.isEmpty()) {
+            commands.add(new Command(words));
+        }
+    }
+
+    /**
+     * Splits a script line into words at whitespace; double quotes group words containing spaces.
+     */
+    private static List<String> tokenize(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inWord = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in: " + line.trim());
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Parses an ID list such as "1-50000" or "3,7,10-20".
+     *
+     * @return The IDs in the order given, without duplicates, or null for "all".
+     */
+    static List<Integer> parseIds(String spec) {
+        if ("all".equalsIgnoreCase(spec)) {
+            return null;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String part : spec.split(",")) {
+            String range = part.trim();
+            try {
+                int dash = range.indexOf('-', 1);
+                int from = Integer.parseInt((dash < 0 ? range : range.substring(0, dash)).trim());
+                int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+                if (to < from) {
+                    throw new IllegalArgumentException("Invalid ID range: " + range);
+                }
+                if ((long) to - from + ids.size() >= MAX_IDS) {
+                    throw new IllegalArgumentException("Too many IDs (at most " + MAX_IDS + "); use --ids all");
+                }
+                for (int id = from; id <= to; id++) {
+                    ids.add(id);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid ID: " + range);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static int usage(String message) {
+        System.out.println(message);
+        System.out.println(USAGE_TEXT);
+        return USAGE;
+    }
+
+    /**
+     * A single command: its words, e.g. "report student", and its options.
+     */
+    private static final class Command {
+
+        private final List<String> words = new ArrayList<>(); // Command words and positional arguments
+        private final Map<String, String> options = new HashMap<>(); // Option name to value; "" for flags
+        private final String text; // The command as given, for messages
+
+        private Command(List<String> tokens) {
+            this.text = String.join(" ", tokens);
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                if ("--archive".equals(token)) {
+                    options.put(token, "");
+                } else if (token.startsWith("--")) {
+                    if (i + 1 >= tokens.size()) {
+                        throw new IllegalArgumentException("Missing value for " + token + " in: " + text);
+                    }
+                    options.put(token, tokens.get(++i));
+                } else {
+                    words.add(token.toLowerCase());
+                }
+            }
+        }
+
+        private boolean is(String... expected) {
+            return words.size() >= expected.length && words.subList(0, expected.length).equals(Arrays.asList(expected));
+        }
+
+        /**
+         * Checks the command and its options before anything runs, so a typo late in a
+         * script does not leave it half done.
+         */
+        private void validate() {
+            List<String> allowed;
+            int arguments;
+            if (is("report", "course") || is("report", "self")) {
+                allowed = Arrays.asList("--format", "--out");
+                arguments = 2;
+            } else if (is("report", "student") || is("report", "lecturer")) {
+                allowed = Arrays.asList("--ids", "--format", "--out", "--archive");
+                arguments = 2;
+                if (!options.containsKey("--ids")) {
+                    throw new IllegalArgumentException("--ids is required in: " + text);
+                }
+                parseIds(options.get("--ids"));
+            } else if (is("users", "import")) {
+                allowed = Collections.emptyList();
+                arguments = 3;
+            } else if (is("serve")) {
+                allowed = Arrays.asList("--host", "--port");
+                arguments = 1;
+                if (!options.getOrDefault("--port", "8080").matches("\\d{1,5}")) {
+                    throw new IllegalArgumentException("Invalid port in: " + text);
+                }
+            } else if (is("snapshot", "build")) {
+                allowed = Collections.emptyList();
+                arguments = 2;
+            } else if (is("help")) {
+                allowed = Collections.emptyList();
+                arguments = 1;
+            } else {
+                throw new IllegalArgumentException("Unknown command: " + text);
+            }
+            if (words.size() != arguments) {
+                throw new IllegalArgumentException("Wrong number of arguments in: " + text);
+            }
+            for (String option : options.keySet()) {
+                if (!allowed.contains(option)) {
+                    throw new IllegalArgumentException("Unknown option " + option + " in: " + text);
+                }
+            }
+            String format = format();
+            boolean console = "console".equals(format) && is("report", "course");
+            if (!console && !Arrays.asList("txt", "csv", "txt.gz", "csv.gz").contains(format)) {
+                throw new IllegalArgumentException("Unsupported format " + format + " in: " + text);
+            }
+        }
+
+        /**
+         * Checks whether a role may run this command.
+         */
+        private boolean permits(String role) {
+            if (is("users")) {
+                return "Admin".equals(role);
+            }
+            if (is("report", "self")) {
+                return "Lecturer".equals(role);
+            }
+            return is("help") || "Office".equals(role) || "Admin".equals(role);
+        }
+
+        private String format() {
+            return options.getOrDefault("--format", "csv").toLowerCase();
+        }
+
+        private String outputDir() {
+            return options.getOrDefault("--out", ".");
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Runs commands for the logged-in user, sharing the services between them.
+     */
+    private static final class Runner {
+
+        private final SessionRegistry.Session session;
+        private final ReportService reportService = new ReportService();
+        private final BulkReportService bulkReportService = new BulkReportService(reportService);
+        private final UserManager userManager;
+
+        private Runner(SessionRegistry.Session session, UserManager userManager) {
+            this.session = session;
+            this.userManager = userManager;
+        }
+
+        private int execute(Command command) throws IOException {
+            if (command.is("help")) {
+                System.out.println(USAGE_TEXT);
+                return OK;
+            }
+            if (command.is("report", "course")) {
+                Files.createDirectories(Paths.get(command.outputDir()));
+                return reportService.generateCourseReport(command.format(), command.outputDir()) ? OK : FAILED;
+            }
+            if (command.is("report", "student")) {
+                return check(bulkReportService.generateStudentReports(parseIds(command.options.get("--ids")),
+                        command.format(), command.outputDir(), command.options.containsKey("--archive"), BatchCli::printProgress));
+            }
+            if (command.is("report", "lecturer")) {
+                return check(bulkReportService.generateLecturerReports(parseIds(command.options.get("--ids")),
+                        command.format(), command.outputDir(), command.options.containsKey("--archive"), BatchCli::printProgress));
+            }
+            if (command.is("report", "self")) {
+                // Lecturers are linked to their user account by ID, as in the lecturer menu
+                return check(bulkReportService.generateLecturerSelfReports(Collections.singletonList(session.getUser().getUserId()),
+                        command.format(), command.outputDir(), false, null));
+            }
+            if (command.is("users", "import")) {
+                UserBatchResult result = userManager.importUsersFromCsv(command.words.get(2));
+                System.out.println(result);
+                printFailures(result.getFailures());
+                return result.isCommitted() ? OK : FAILED;
+            }
+            if (command.is("snapshot", "build")) {
+                ReportSnapshots.Snapshot snapshot = ReportScheduler.getInstance().buildNow();
+                System.out.println(snapshot != null ? snapshot + " built." : ReportScheduler.SKIPPED);
+                return snapshot != null ? OK : FAILED;
+            }
+            // serve never reaches here, and validate() rejects anything else
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+
+        private static int check(BulkReportResult result) {
+            System.out.println(result);
+            printFailures(result.getFailures());
+            return result.isCompleted() && result.getFailures().isEmpty() ? OK : FAILED;
+        }
+    }
+
+    /**
+     * Prints the first failures of a run; a script's log should stay readable.
+     */
+    private static void printFailures(List<?> failures) {
+        int shown = Math.min(failures.size(), 20);
+        for (int i = 0; i < shown; i++) {
+            System.out.println("  " + failures.get(i));
+        }
+        if (failures.size() > shown) {
+            System.out.println("  ... and " + (failures.size() - shown) + " more");
+        }
+    }
+
+    /**
+     * Prints the number of reports written every 1000 reports.
+     */
+    private static void printProgress(int written) {
+        if (written % 1000 == 0) {
+            System.out.println("  " + written + " reports written...");
+        }
+    }
+}
@@ -4,10 +4,14 @@
  */
 package main;
 
+import dao.DAOFactory;
+import database.DatabaseBootstrap;
 import java.util.Scanner;
-import models.User;
+import java.util.concurrent.TimeUnit;
 import services.AuthenticationService;
+import services.ReportScheduler;
 import services.ReportService;
+import services.SessionRegistry;
 import services.UserManager;
 import ui.AdminMenu;
 import ui.LecturerMenu;
@@ -29,10 +33,10 @@ import ui.OfficeMenu;
  */
 public class CourseManagementSystem {
     
-    // Instance of AuthenticationService to handle login operations
-    private static AuthenticationService authService = new AuthenticationService();
-    // Instance of UserManager to manage user-related operations
-    private static UserManager userManager = new UserManager();
+    // Instance of AuthenticationService to handle login operations; created once the database is ready
+    private static AuthenticationService authService;
+    // Instance of UserManager to manage user-related operations; created once the database is ready
+    private static UserManager userManager;
     // Scanner object for reading input from the console
     private static Scanner input = new Scanner(System.in);
     
@@ -41,6 +45,15 @@ public class CourseManagementSystem {
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        // With arguments, run them as batch commands instead of showing the menus (see BatchCli)
+        if (args.length > 0) {
+            System.exit(BatchCli.run(args));
+        }
+        long startTime = System.nanoTime();
+        // Bring up the database in the background while the user types their credentials
+        if (DAOFactory.usesDatabase()) {
+            DatabaseBootstrap.startInBackground();
+        }
         
         // Welcome message
         System.out.println("Welcome to the Course Management System");
@@ -51,12 +64,25 @@ public class CourseManagementSystem {
         System.out.print("Password: ");
         String password = input.nextLine();
 
+        // Services touch the storage backend, so they are only created after the prompt
+        long promptDone = System.nanoTime();
+        authService = new AuthenticationService();
+        userManager = new UserManager();
+        // Nightly report snapshots, if enabled in scheduler.properties
+        ReportScheduler.getInstance().start();
+        String backend = DAOFactory.usesDatabase() ? DatabaseBootstrap.getTimingSummary()
+                : "Storage backend: " + DAOFactory.getBackendName() + " (no database)";
+        System.out.println(backend + "; waited "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - promptDone) + " ms after login prompt, "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " ms since start");
+
         // Attempt to login with the provided credentials
-        if (authService.login(username, password)) {
+        SessionRegistry.Session session = authService.login(username, password);
+        if (session != null) {
             // On successful login, show a welcome message and proceed to the role-specific menu
             System.out.println("\nLogin successful!");
             System.out.println("-------------------------------------");
-            handleLoggedInUser(authService.getCurrentUser());
+            handleLoggedInUser(session);
         } else {
             // If login fails, inform the user
             System.out.println("Login failed. Please check your credentials.");
@@ -67,24 +93,24 @@ public class CourseManagementSystem {
     
     /**
      * Directs the logged-in user to the appropriate menu based on their role.
-     * @param user The user object representing the currently logged-in user.
+     * @param session The session of the logged-in user.
      */
-    private static void handleLoggedInUser(User user) {
+    private static void handleLoggedInUser(SessionRegistry.Session session) {
         // Create a ReportService instance for report-related operations
         ReportService reportService = new ReportService();        
         // Determine the user's role and instantiate the corresponding menu class
-        switch (user.getRole()) {
+        switch (session.getUser().getRole()) {
             case "Admin":
                 // Admin users are directed to the AdminMenu
-                new AdminMenu(userManager, input, authService).display(user);
+                new AdminMenu(userManager, input, authService).display(session);
                 break;
             case "Office":
                 // Office staff are directed to the OfficeMenu
-                new OfficeMenu(reportService, input, authService, userManager).display(user);
+                new OfficeMenu(reportService, input, authService, userManager).display(session);
                 break;
             case "Lecturer":
                 // Lecturers are directed to the LecturerMenu
-                new LecturerMenu(reportService, input, authService, userManager).display(user);
+                new LecturerMenu(reportService, input, authService, userManager).display(session);
                 break;
             default:
                 // If the role is not recognized, inform the user
@@ -0,0 +1,250 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Registry of per-method DAO metrics, and the dynamic proxy that records them.
+ * DAOFactory wraps every DAO it hands out with instrument(), so each interface method
+ * records its call count, latency, rows returned and errors. The JDBC DAOs report
+ * errors they swallow (after printing them) through markFailed(). Each method is
+ * exported as a JMX MXBean, and dump() renders the same figures as a text table.
+ * Instrumentation can be switched off with -Dcms.metrics.enabled=false.
+ */
+public final class DAOMetrics implements DAOMetricsMXBean {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("cms.metrics.enabled", "true"));
+    private static final DAOMetrics INSTANCE = new DAOMetrics();
+    private static final ThreadLocal<boolean[]> FAILED = ThreadLocal.withInitial(() -> new boolean[1]);
+    private static final AtomicLong FAILURES = new AtomicLong(); // Every markFailed() call, even when disabled
+    private static final ThreadLocal<long[]> THREAD_FAILURES = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    static {
+        register(INSTANCE, "cms:type=DAOMetrics,name=Summary");
+    }
+
+    private DAOMetrics() {
+    }
+
+    /**
+     * Wraps a DAO in a proxy that records metrics for every method of the interface.
+     *
+     * @param <T> The DAO interface type.
+     * @param daoInterface The interface to instrument; its simple name prefixes the metric names.
+     * @param target The DAO implementation to delegate to.
+     * @return The instrumented DAO, or target itself when metrics are disabled.
+     */
+    public static <T> T instrument(Class<T> daoInterface, T target) {
+        if (!ENABLED) {
+            return target;
+        }
+        Map<Method, MethodMetrics> byMethod = new HashMap<>();
+        for (Method method : daoInterface.getMethods()) {
+            byMethod.put(method, INSTANCE.metricsFor(daoInterface.getSimpleName(), method.getName()));
+        }
+        return daoInterface.cast(Proxy.newProxyInstance(daoInterface.getClassLoader(),
+                new Class<?>[]{daoInterface}, new MetricsHandler(target, byMethod)));
+    }
+
+    /**
+     * Marks the DAO call running on this thread as failed. Called by DAOs that catch and
+     * print an SQLException instead of throwing it, so the failure still shows in the error count.
+     */
+    public static void markFailed() {
+        FAILED.get()[0] = true;
+        FAILURES.incrementAndGet();
+        THREAD_FAILURES.get()[0]++;
+        FailureScope.recordFailure();
+    }
+
+    /**
+     * Returns the number of swallowed DAO errors since startup, on any thread. Callers can
+     * compare it before and after some work to tell whether a DAO call may have returned
+     * an incomplete result in the meantime.
+     *
+     * @return The number of markFailed() calls so far.
+     */
+    public static long getFailureCount() {
+        return FAILURES.get();
+    }
+
+    /**
+     * Returns the number of swallowed DAO errors on the calling thread since it started.
+     * Unlike getFailureCount(), it is not moved by other threads, so work running in
+     * parallel (e.g. bulk report workers) can tell its own failures apart. Only DAO calls
+     * made on this thread are counted, not lookups it hands to AsyncDAO.
+     *
+     * @return The number of markFailed() calls made on this thread so far.
+     */
+    public static long getThreadFailureCount() {
+        return THREAD_FAILURES.get()[0];
+    }
+
+    /**
+     * Returns the metrics registry, e.g. to render a dump.
+     *
+     * @return The shared DAOMetrics instance.
+     */
+    public static DAOMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the metrics of every instrumented method.
+     *
+     * @return The method metrics, most total time first.
+     */
+    public List<MethodMetrics> getMethodMetrics() {
+        List<MethodMetrics> list = new ArrayList<>(methods.values());
+        list.sort(Comparator.comparingLong(MethodMetrics::getTotalNanos).reversed());
+        return list;
+    }
+
+    @Override
+    public int getInstrumentedMethodCount() {
+        return methods.size();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-50s %8s %6s %10s %9s %9s %9s %9s %10s %9s %8s%n",
+                "Method", "Calls", "Errors", "Total ms", "Mean us", "p50 us", "p99 us", "p999 us", "Max us", "Rows/call", "Max rows"));
+        for (MethodMetrics m : getMethodMetrics()) {
+            if (m.getCalls() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-50s %8d %6d %10d %9.1f %9d %9d %9d %10d %9.1f %8d%n",
+                    m.getName(), m.getCalls(), m.getErrors(), m.getTotalMillis(), m.getMeanMicros(),
+                    m.getP50Micros(), m.getP99Micros(), m.getP999Micros(), m.getMaxMicros(),
+                    m.getMeanRows(), m.getMaxRows()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void resetAll() {
+        methods.values().forEach(MethodMetrics::reset);
+    }
+
+    private MethodMetrics metricsFor(String dao, String method) {
+        return methods.computeIfAbsent(dao + "." + method, name -> {
+            MethodMetrics m = new MethodMetrics(name);
+            register(m, "cms:type=DAOMetrics,dao=" + dao + ",method=" + method);
+            return m;
+        });
+    }
+
+    private static void register(Object mbean, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.out.println("Could not register metrics MBean " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Works out how many rows a DAO call returned from its result.
+     *
+     * @return The row count, or -1 for results that are not rows (counts, flags).
+     */
+    private static long rowsOf(Method method, Object result) {
+        Class<?> type = method.getReturnType();
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof IntIntHashMap) {
+            return ((IntIntHashMap) result).size();
+        }
+        if (type.isPrimitive() || type == Void.TYPE) {
+            return -1L;
+        }
+        return result == null ? 0L : 1L;
+    }
+
+    /**
+     * Invocation handler behind the instrumented DAO proxies.
+     */
+    private static final class MetricsHandler implements InvocationHandler {
+        private final Object target;
+        private final Map<Method, MethodMetrics> byMethod;
+
+        private MetricsHandler(Object target, Map<Method, MethodMetrics> byMethod) {
+            this.target = target;
+            this.byMethod = byMethod;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodMetrics metrics = byMethod.get(method);
+            if (metrics == null) { // equals, hashCode, toString
+                return method.invoke(target, args);
+            }
+
+            // Streaming methods hand rows to a consumer instead of returning them; count those
+            AtomicLong streamed = null;
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] instanceof Consumer) {
+                        AtomicLong counter = new AtomicLong();
+                        @SuppressWarnings("unchecked")
+                        Consumer<Object> consumer = (Consumer<Object>) args[i];
+                        args[i] = (Consumer<Object>) row -> {
+                            counter.incrementAndGet();
+                            consumer.accept(row);
+                        };
+                        streamed = counter;
+                    }
+                }
+            }
+
+            boolean[] failed = FAILED.get();
+            boolean outerFailed = failed[0]; // Restored afterwards in case DAOs are nested
+            failed[0] = false;
+            long start = System.nanoTime();
+            Object result = null;
+            boolean threw = true;
+            try {
+                result = method.invoke(target, args);
+                threw = false;
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                long rows = threw ? -1L : streamed != null ? streamed.get() : rowsOf(method, result);
+                metrics.record(elapsed, threw || failed[0], rows);
+                failed[0] = outerFailed;
+            }
+        }
+    }
+}
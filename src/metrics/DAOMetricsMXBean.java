@@ -0,0 +1,28 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package metrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JMX view of the DAO metrics registry as a whole, registered under cms:type=DAOMetrics,name=Summary.
+ */
+public interface DAOMetricsMXBean {
+
+    int getInstrumentedMethodCount();
+
+    /**
+     * Renders every method's metrics as a text table, most expensive first.
+     *
+     * @return The metrics table.
+     */
+    String dump();
+
+    /**
+     * Clears the metrics of every method.
+     */
+    void resetAll();
+}
@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Counts the DAO errors swallowed by one piece of work (see DAOMetrics.markFailed), such as
+ * building a report, so the work can tell whether its own result may be incomplete without
+ * being misled by failures elsewhere in the process. A scope is opened on the thread that
+ * starts the work and stays current there until it is closed; AsyncDAO makes the caller's
+ * scope current on its worker threads while they run the caller's lookups, so the failures
+ * of a report's parallel lookups are counted too. Scopes nest: a failure is counted in the
+ * current scope and in every scope enclosing it.
+ */
+public final class FailureScope implements AutoCloseable {
+
+    private static final ThreadLocal<FailureScope> CURRENT = new ThreadLocal<>();
+
+    private final FailureScope outer; // Scope that was current when this one was opened, or null
+    private final AtomicLong failures = new AtomicLong(); // Updated from every thread working for the scope
+
+    private FailureScope(FailureScope outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Opens a scope and makes it current on the calling thread. It must be closed on the
+     * same thread, e.g. with try-with-resources.
+     *
+     * @return The new scope.
+     */
+    public static FailureScope open() {
+        FailureScope scope = new FailureScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the scope current on the calling thread, e.g. to hand it to another thread.
+     *
+     * @return The current scope, or null if there is none.
+     */
+    public static FailureScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes a scope current on the calling thread, which then works for it.
+     *
+     * @param scope The scope to make current, or null for none.
+     * @return The scope that was current before, to be restored with another call.
+     */
+    public static FailureScope enter(FailureScope scope) {
+        FailureScope previous = CURRENT.get();
+        if (scope != null) {
+            CURRENT.set(scope);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Counts a swallowed DAO error in the scopes current on the calling thread.
+     */
+    static void recordFailure() {
+        for (FailureScope scope = CURRENT.get(); scope != null; scope = scope.outer) {
+            scope.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of DAO errors swallowed by the work of this scope so far.
+     *
+     * @return The failure count.
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Makes the scope that was current when this one was opened current again.
+     */
+    @Override
+    public void close() {
+        enter(outer);
+    }
+}
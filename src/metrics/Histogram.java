@@ -0,0 +1,123 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A lock-free histogram of non-negative long values with HDR-style log-linear buckets.
+ * Values below 64 get a bucket each; above that every power of two is split into 32
+ * equal sub-buckets, so a reported percentile is within about 3% of the true value
+ * while the whole range of a long fits in under 2000 counters. Recording is a single
+ * atomic increment, cheap enough to run on every DAO call.
+ */
+public class Histogram {
+
+    private static final int PRECISION_BITS = 6;
+    private static final int HALF = 1 << (PRECISION_BITS - 1); // Sub-buckets per power of two
+    private static final int BUCKETS = (64 - PRECISION_BITS + 1) * HALF + HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value. Negative values are recorded as 0.
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(bucketIndex(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the arithmetic mean of the recorded values.
+     *
+     * @return The mean, or 0 if nothing has been recorded.
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Returns the value at the given quantile, as the upper bound of the bucket it falls in
+     * (never above the largest recorded value).
+     *
+     * @param quantile The quantile between 0 and 1, e.g. 0.99 for p99.
+     * @return The value at the quantile, or 0 if nothing has been recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestValueInBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.set(0L);
+        sum.set(0L);
+        max.set(0L);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - (PRECISION_BITS - 1);
+        return shift * HALF + (int) (value >>> shift); // value >>> shift lies in [HALF, 2 * HALF)
+    }
+
+    private static long highestValueInBucket(int index) {
+        if (index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long mantissa = index % HALF + HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
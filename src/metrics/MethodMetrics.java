@@ -0,0 +1,120 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Call count, error count, latency histogram and rows-per-call histogram of one DAO method.
+ * Latencies are recorded in nanoseconds and reported in microseconds.
+ */
+public class MethodMetrics implements MethodMetricsMXBean {
+
+    private final String name; // Interface and method, e.g. "CourseDAO.getCourseById"
+    private final AtomicLong errors = new AtomicLong();
+    private final Histogram latencyNanos = new Histogram();
+    private final Histogram rows = new Histogram();
+
+    /**
+     * Creates empty metrics for a method.
+     *
+     * @param name The name shown in dumps and JMX.
+     */
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one completed call.
+     *
+     * @param elapsedNanos How long the call took.
+     * @param failed Whether the call failed, either by throwing or by reporting a swallowed SQLException.
+     * @param rowCount The number of rows returned, or a negative value if the method does not return rows.
+     */
+    public void record(long elapsedNanos, boolean failed, long rowCount) {
+        latencyNanos.record(elapsedNanos);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+        if (rowCount >= 0) {
+            rows.record(rowCount);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return latencyNanos.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latencyNanos.getMean() / 1000.0;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos.getValueAtQuantile(0.50));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos.getValueAtQuantile(0.99));
+    }
+
+    @Override
+    public long getP999Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos.getValueAtQuantile(0.999));
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencyNanos.getMax());
+    }
+
+    @Override
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(latencyNanos.getSum());
+    }
+
+    long getTotalNanos() {
+        return latencyNanos.getSum();
+    }
+
+    @Override
+    public long getRowsTotal() {
+        return rows.getSum();
+    }
+
+    @Override
+    public double getMeanRows() {
+        return rows.getMean();
+    }
+
+    @Override
+    public long getMaxRows() {
+        return rows.getMax();
+    }
+
+    @Override
+    public void reset() {
+        errors.set(0L);
+        latencyNanos.reset();
+        rows.reset();
+    }
+}
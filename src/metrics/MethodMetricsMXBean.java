@@ -0,0 +1,44 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package metrics;
+
+/**
+ *
+ * @author Gytis
+ *
+ * JMX view of the metrics recorded for one DAO method, registered under
+ * cms:type=DAOMetrics,dao=&lt;interface&gt;,method=&lt;method&gt;. Latencies are in microseconds.
+ */
+public interface MethodMetricsMXBean {
+
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    long getTotalMillis();
+
+    long getRowsTotal();
+
+    double getMeanRows();
+
+    long getMaxRows();
+
+    /**
+     * Clears the counters and histograms of this method.
+     */
+    void reset();
+}
@@ -0,0 +1,133 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Represents the outcome of a bulk report run: how many reports were written, which
+ * entities could not be reported on and why, where the output went, and how long it took.
+ * Reports are written by several workers at once, so the counters are updated under a lock.
+ */
+public class BulkReportResult {
+
+    // Properties of the BulkReportResult class
+    private final String reportType; // Kind of report, e.g. "Student"
+    private final String output; // Directory or archive the reports were written to
+    private final List<Failure> failures = new ArrayList<>(); // Entities without a report
+    private int generatedCount; // Number of reports written
+    private long elapsedMillis; // Wall-clock time of the whole run
+    private String error; // Reason the run could not start or complete, or null
+
+    /**
+     * Constructor to initialize an empty BulkReportResult.
+     *
+     * @param reportType The kind of report generated, e.g. "Student" or "Lecturer".
+     * @param output The directory or archive the reports are written to.
+     */
+    public BulkReportResult(String reportType, String output) {
+        this.reportType = reportType;
+        this.output = output;
+    }
+
+    /**
+     * Records a report that was written.
+     *
+     * @return The number of reports written so far, including this one.
+     */
+    public synchronized int addGenerated() {
+        return ++generatedCount;
+    }
+
+    /**
+     * Records an entity for which no report was written.
+     *
+     * @param id The ID of the student or lecturer.
+     * @param reason Why the report was not written.
+     */
+    public synchronized void addFailure(int id, String reason) {
+        failures.add(new Failure(id, reason));
+    }
+
+    /**
+     * Marks the run as failed as a whole, e.g. when the output could not be created.
+     *
+     * @param error Why the run failed.
+     */
+    public synchronized void fail(String error) {
+        this.error = error;
+    }
+
+    public synchronized void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getReportType() {
+        return reportType;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public synchronized int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public synchronized List<Failure> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized boolean isCompleted() {
+        return error == null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        String summary = generatedCount + " " + reportType.toLowerCase() + " reports written to " + output
+                + " in " + elapsedMillis + " ms, " + failures.size() + " failed";
+        return error == null ? summary : summary + "; stopped: " + error;
+    }
+
+    /**
+     * A single entity for which no report was written.
+     */
+    public static class Failure {
+
+        private final int id; // ID of the student or lecturer
+        private final String reason; // Why the report was not written
+
+        public Failure(int id, String reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "ID " + id + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package models;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Represents one row of the course report: a course together with one of its modules,
+ * the name of the lecturer teaching it and the number of students enrolled.
+ * Courses without modules are represented by a single row with a module ID of 0.
+ */
+public class CourseModuleSummary {
+    
+    // Properties of the CourseModuleSummary class
+    private int courseId; // Identifier for the course
+    private String courseName; // Name of the course
+    private int moduleId; // Identifier for the module, or 0 if the course has no modules
+    private String moduleName; // Name of the module
+    private String room; // Room where the module takes place
+    private String lecturerName; // Name of the lecturer teaching the module, or null if unassigned
+    private int enrolledStudents; // Number of students enrolled in the module
+
+    /**
+     * Constructor to initialize a CourseModuleSummary object with all its properties.
+     *
+     * @param courseId Identifier for the course.
+     * @param courseName Name of the course.
+     * @param moduleId Identifier for the module, or 0 if the course has no modules.
+     * @param moduleName Name of the module.
+     * @param room Room where the module takes place.
+     * @param lecturerName Name of the lecturer teaching the module.
+     * @param enrolledStudents Number of students enrolled in the module.
+     */
+    public CourseModuleSummary(int courseId, String courseName, int moduleId, String moduleName,
+            String room, String lecturerName, int enrolledStudents) {
+        this.courseId = courseId;
+        this.courseName = courseName;
+        this.moduleId = moduleId;
+        this.moduleName = moduleName;
+        this.room = room;
+        this.lecturerName = lecturerName;
+        this.enrolledStudents = enrolledStudents;
+    }
+
+    // Getters for each property of the CourseModuleSummary class
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public int getModuleId() {
+        return moduleId;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public String getLecturerName() {
+        return lecturerName;
+    }
+
+    public int getEnrolledStudents() {
+        return enrolledStudents;
+    }
+
+    /**
+     * Indicates whether this row describes a module or only a course without modules.
+     *
+     * @return true if the row carries module details.
+     */
+    public boolean hasModule() {
+        return moduleId != 0;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Represents the outcome of reconciling the maintained per-module enrolment counters
+ * against the enrolments themselves: the modules whose counter was wrong, and whether
+ * those counters were repaired.
+ */
+public class EnrolmentCountCheck {
+
+    // Properties of the EnrolmentCountCheck class
+    private final int modulesChecked; // Number of modules with a counter or at least one enrolment
+    private final List<Mismatch> mismatches; // Counters that disagreed with the enrolments, by module ID
+    private boolean repaired; // Whether the mismatched counters were corrected
+    private String error; // Why the check could not be completed, or null
+
+    /**
+     * Constructor to initialize an EnrolmentCountCheck.
+     *
+     * @param modulesChecked The number of modules compared.
+     * @param mismatches The counters that disagreed with the enrolments.
+     */
+    public EnrolmentCountCheck(int modulesChecked, List<Mismatch> mismatches) {
+        this.modulesChecked = modulesChecked;
+        this.mismatches = mismatches;
+    }
+
+    /**
+     * Compares maintained counters with counts taken from the enrolments. A module missing
+     * from either map counts as 0, so a zero counter and an absent one are equivalent.
+     *
+     * @param stored The maintained counters, by module ID.
+     * @param actual The enrolment counts recomputed from the enrolments, by module ID.
+     * @return The comparison, with mismatches in module ID order; not yet repaired.
+     */
+    public static EnrolmentCountCheck compare(IntIntHashMap stored, IntIntHashMap actual) {
+        List<Mismatch> mismatches = new ArrayList<>();
+        int[] modulesChecked = {0};
+        stored.forEach((moduleId, storedCount) -> {
+            modulesChecked[0]++;
+            int actualCount = actual.getOrDefault(moduleId, 0);
+            if (storedCount != actualCount) {
+                mismatches.add(new Mismatch(moduleId, storedCount, actualCount));
+            }
+        });
+        actual.forEach((moduleId, actualCount) -> {
+            if (!stored.containsKey(moduleId)) {
+                modulesChecked[0]++;
+                if (actualCount != 0) {
+                    mismatches.add(new Mismatch(moduleId, 0, actualCount));
+                }
+            }
+        });
+        mismatches.sort((a, b) -> Integer.compare(a.getModuleId(), b.getModuleId()));
+        return new EnrolmentCountCheck(modulesChecked[0], mismatches);
+    }
+
+    /**
+     * Creates the result of a check that could not be completed.
+     *
+     * @param error Why the check failed.
+     * @return The failed check.
+     */
+    public static EnrolmentCountCheck failed(String error) {
+        EnrolmentCountCheck check = new EnrolmentCountCheck(0, new ArrayList<>());
+        check.error = error;
+        return check;
+    }
+
+    /**
+     * Marks the mismatched counters as corrected.
+     */
+    public void markRepaired() {
+        this.repaired = true;
+    }
+
+    public int getModulesChecked() {
+        return modulesChecked;
+    }
+
+    public List<Mismatch> getMismatches() {
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    public boolean isConsistent() {
+        return error == null && mismatches.isEmpty();
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        if (error != null) {
+            return "Enrolment counter check failed: " + error;
+        }
+        if (mismatches.isEmpty()) {
+            return modulesChecked + " module counters checked, all consistent";
+        }
+        return modulesChecked + " module counters checked, " + mismatches.size() + " wrong"
+                + (repaired ? " and repaired" : "");
+    }
+
+    /**
+     * A single module whose maintained counter disagreed with its enrolments.
+     */
+    public static class Mismatch {
+
+        private final int moduleId; // The module whose counter was wrong
+        private final int storedCount; // Value of the maintained counter
+        private final int actualCount; // Number of enrolments actually found
+
+        public Mismatch(int moduleId, int storedCount, int actualCount) {
+            this.moduleId = moduleId;
+            this.storedCount = storedCount;
+            this.actualCount = actualCount;
+        }
+
+        public int getModuleId() {
+            return moduleId;
+        }
+
+        public int getStoredCount() {
+            return storedCount;
+        }
+
+        public int getActualCount() {
+            return actualCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Module " + moduleId + ": counter " + storedCount + ", enrolments " + actualCount;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package models;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Represents one line of a student's transcript: an enrolment together with the name
+ * of the module and the grade awarded for it, if any.
+ */
+public class TranscriptEntry {
+    
+    // Properties of the TranscriptEntry class
+    private int enrolmentId; // Unique identifier for the enrolment
+    private int moduleId; // Identifier for the module the student is enrolled in
+    private String moduleName; // Name of the module, or null if the module no longer exists
+    private String status; // Status of the enrolment (e.g., "enrolled", "completed")
+    private boolean graded; // Whether a grade has been recorded for this module
+    private int grade; // Numeric value of the grade; only meaningful when graded is true
+
+    /**
+     * Constructor to initialize a TranscriptEntry object with all its properties.
+     *
+     * @param enrolmentId Unique identifier for the enrolment.
+     * @param moduleId Identifier for the module.
+     * @param moduleName Name of the module.
+     * @param status Status of the enrolment.
+     * @param graded Whether a grade has been recorded.
+     * @param grade Numeric value of the grade.
+     */
+    public TranscriptEntry(int enrolmentId, int moduleId, String moduleName, String status, boolean graded, int grade) {
+        this.enrolmentId = enrolmentId;
+        this.moduleId = moduleId;
+        this.moduleName = moduleName;
+        this.status = status;
+        this.graded = graded;
+        this.grade = grade;
+    }
+
+    // Getters for each property of the TranscriptEntry class
+
+    public int getEnrolmentId() {
+        return enrolmentId;
+    }
+
+    public int getModuleId() {
+        return moduleId;
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isGraded() {
+        return graded;
+    }
+
+    public int getGrade() {
+        return grade;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Represents the outcome of a bulk user insert: the users that were created (with their
+ * generated IDs), the rows that were rejected and why, and whether the batch as a whole
+ * was committed. For very large imports the created users may not be retained, in which
+ * case only their number is kept.
+ */
+public class UserBatchResult {
+
+    // Properties of the UserBatchResult class
+    private final boolean keepCreatedUsers; // Whether created users are retained or only counted
+    private final List<User> createdUsers = new ArrayList<>(); // Users created, in input order
+    private final List<Failure> failures = new ArrayList<>(); // Rows that were rejected
+    private int createdCount; // Number of users created
+    private int rowsRead; // Number of input rows processed
+    private String error; // Reason the whole batch was rolled back, or null if it was committed
+
+    /**
+     * Constructor to initialize an empty UserBatchResult.
+     *
+     * @param keepCreatedUsers Whether the created users should be retained; if false they are only counted.
+     */
+    public UserBatchResult(boolean keepCreatedUsers) {
+        this.keepCreatedUsers = keepCreatedUsers;
+    }
+
+    /**
+     * Records a created user.
+     *
+     * @param user The user, with its generated ID.
+     */
+    public void addCreated(User user) {
+        createdCount++;
+        if (keepCreatedUsers) {
+            createdUsers.add(user);
+        }
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param rowNumber The 1-based position of the row in the input.
+     * @param username The username on the row, may be null.
+     * @param reason Why the row was rejected.
+     */
+    public void addFailure(int rowNumber, String username, String reason) {
+        failures.add(new Failure(rowNumber, username, reason));
+    }
+
+    /**
+     * Marks the whole batch as rolled back: no user from it was created.
+     *
+     * @param error Why the batch was rolled back.
+     */
+    public void rollBack(String error) {
+        this.error = error;
+        createdUsers.clear();
+        createdCount = 0;
+    }
+
+    public void setRowsRead(int rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public List<User> getCreatedUsers() {
+        return Collections.unmodifiableList(createdUsers);
+    }
+
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCommitted() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (!isCommitted()) {
+            return "Batch rolled back after " + rowsRead + " rows: " + error;
+        }
+        return rowsRead + " rows read, " + createdCount + " users created, " + failures.size() + " rejected";
+    }
+
+    /**
+     * A single rejected input row.
+     */
+    public static class Failure {
+
+        private final int rowNumber; // 1-based position of the row in the input
+        private final String username; // Username on the row, may be null
+        private final String reason; // Why the row was rejected
+
+        public Failure(int rowNumber, String username, String reason) {
+            this.rowNumber = rowNumber;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + rowNumber + (username != null ? " (" + username + ")" : "") + ": " + reason;
+        }
+    }
+}
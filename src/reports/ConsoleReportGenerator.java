@@ -4,29 +4,37 @@
  */
 package reports;
 
-import java.util.List;
-
 /**
  *
  * @author Gytis
  *
- * Implementation of the ReportGenerator interface for generating reports that are printed to the console.
+ * Implementation of the StreamingReportGenerator interface for generating reports that are printed to the console.
  * This class is responsible for outputting the report's name and its content lines directly to the system console.
  */
-public class ConsoleReportGenerator implements ReportGenerator {
+public class ConsoleReportGenerator implements StreamingReportGenerator {
     
     /**
-     * Generates and prints a report to the console.
+     * Prints the report header and returns a sink that prints each line to the console.
      *
-     * @param reportLines The lines of text comprising the body of the report.
      * @param reportName The name of the report being generated.
+     * @return A ReportSink printing to the console.
      */
     @Override
-    public void generateReport(List<String> reportLines, String reportName) {
+    public ReportSink openReport(String reportName) {
         
         // Print the report name to the console as a header
         System.out.println("Console Report: " + reportName);
-        // Iterate through each line of the report content and print it to the console
-        reportLines.forEach(System.out::println);
+        // Each line of the report content is printed as soon as it arrives
+        return new ReportSink() {
+            @Override
+            public void addLine(String line) {
+                System.out.println(line);
+            }
+
+            @Override
+            public void close() {
+                System.out.flush();
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -4,41 +4,85 @@
  */
 package reports;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Paths;
 
 /**
  *
  * @author Gytis
  *
- * Implementation of the ReportGenerator interface for generating reports in CSV format.
- * This class is responsible for writing the report's content to a CSV file, with each line of the report
- * written as a single line in the file. The name of the report is used as the filename.
+ * Implementation of the StreamingReportGenerator interface for generating reports in CSV format.
+ * The report is written as RFC 4180 CSV in UTF-8 through a CsvWriter, as soon as it is produced.
+ * The returned sink is a TableSink, so report writers can emit a header and typed columns;
+ * free-text lines become single-field rows. The name of the report is used as the filename.
+ * A compressing generator writes a gzip file (".csv.gz") instead, see GzipOutput.
  */
-public class CsvReportGenerator implements ReportGenerator {
-    
+public class CsvReportGenerator implements FileReportGenerator {
+
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024; // Heap buffers for stream-backed writers
+
+    private final boolean compressed; // Whether to write a gzip-compressed file
+
+    /**
+     * Constructs a CsvReportGenerator writing plain CSV files.
+     */
+    public CsvReportGenerator() {
+        this(false);
+    }
+
     /**
-     * Generates a report in CSV format and writes it to a file.
+     * Constructs a CsvReportGenerator.
+     *
+     * @param compressed Whether to gzip the file as it is written.
+     */
+    public CsvReportGenerator(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Opens a CSV file for the report and returns a sink that writes its rows to it.
      *
-     * @param reportLines The lines of text comprising the body of the report.
      * @param reportName The name of the report being generated. This name is used as the filename.
+     * @return A TableSink writing to the CSV file; closing it completes the file.
+     */
+    @Override
+    public ReportSink openReport(String reportName) {
+        try {
+            CsvWriter writer = compressed
+                    ? new CsvWriter(Channels.newChannel(GzipOutput.open(reportName + ".csv" + GzipOutput.EXTENSION)), STREAM_BUFFER_SIZE)
+                    : CsvWriter.open(Paths.get(reportName + ".csv"));
+            return new CsvReportSink(writer, "CSV report successfully created!", "Error writing to CSV file: ");
+        }
+        catch (IOException e) {
+            // Error handling in case the file cannot be created
+            System.out.println("Error writing to CSV file: " + e.getMessage());
+            return WriterReportSink.discarding(e);
+        }
+    }
+
+    @Override
+    public String getFileExtension() {
+        return compressed ? ".csv" + GzipOutput.EXTENSION : ".csv";
+    }
+
+    /**
+     * Returns a sink writing the report's rows into the given stream as CSV,
+     * gzip-compressed if this generator compresses.
+     *
+     * @param out The stream receiving the report.
+     * @return A TableSink writing to the stream; closing it closes the stream.
      */
     @Override
-    public void generateReport(List<String> reportLines, String reportName) {
-        // Try-with-resources statement to ensure the BufferedWriter is closed properly
-        try (BufferedWriter csvWriter = new BufferedWriter(new FileWriter(reportName + ".csv"))) {
-            for (String line : reportLines) {
-                csvWriter.write(line); // Write each line of the report to the CSV file
-                csvWriter.newLine(); // Move to the next line in the file
-            }
-            // Confirmation message upon successful creation of the CSV file
-            System.out.println("CSV report successfully created!");
-        } 
+    public ReportSink openReport(OutputStream out) {
+        try {
+            OutputStream target = compressed ? GzipOutput.wrap(out) : out;
+            return new CsvReportSink(new CsvWriter(Channels.newChannel(target), STREAM_BUFFER_SIZE), null, "Error writing to CSV file: ");
+        }
         catch (IOException e) {
-            // Error handling in case of problems writing to the file
             System.out.println("Error writing to CSV file: " + e.getMessage());
+            return WriterReportSink.discarding(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package reports;
+
+import java.io.IOException;
+
+/**
+ *
+ * @author Gytis
+ *
+ * TableSink writing RFC 4180 CSV through a CsvWriter. Free-text lines are written as
+ * single-field rows. As with WriterReportSink, the first write error is remembered, later
+ * output is skipped, and the outcome is printed when the sink is closed.
+ */
+class CsvReportSink implements TableSink {
+
+    private final CsvWriter writer; // Output the rows are written to
+    private final String successMessage; // Printed when the report was written completely
+    private final String errorPrefix; // Printed in front of the error message on failure
+    private IOException failure; // First write error, if any
+
+    /**
+     * Constructs a CsvReportSink over an open CsvWriter.
+     *
+     * @param writer The writer receiving the rows.
+     * @param successMessage The message printed when the report is closed without errors, or null for none.
+     * @param errorPrefix The prefix printed before the error message when writing fails.
+     */
+    CsvReportSink(CsvWriter writer, String successMessage, String errorPrefix) {
+        this.writer = writer;
+        this.successMessage = successMessage;
+        this.errorPrefix = errorPrefix;
+    }
+
+    @Override
+    public void addLine(String line) {
+        if (failure == null) {
+            try {
+                writer.field(line).endRow();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    @Override
+    public void setColumns(String... columns) {
+        if (failure == null) {
+            try {
+                writer.row(columns);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    @Override
+    public TableSink field(String value) {
+        if (failure == null) {
+            try {
+                writer.field(value);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public TableSink field(long value) {
+        if (failure == null) {
+            try {
+                writer.field(value);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void endRow() {
+        if (failure == null) {
+            try {
+                writer.endRow();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure == null) {
+            if (successMessage != null) {
+                // Confirmation message upon successful creation of the file
+                System.out.println(successMessage);
+            }
+        } else {
+            // Error handling in case of problems writing to the file
+            System.out.println(errorPrefix + failure.getMessage());
+        }
+    }
+
+    @Override
+    public IOException getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package reports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Writes RFC 4180 CSV to a byte channel: fields separated by commas, rows ended by CRLF,
+ * and fields containing a comma, double quote, CR or LF enclosed in double quotes with
+ * embedded quotes doubled. Output is always UTF-8.
+ * Fields are copied into one reusable char buffer and encoded in bulk into one reusable
+ * byte buffer, which is written to the channel only when full, so writing a row
+ * allocates nothing and large exports are bound by I/O rather than garbage collection.
+ * Numbers are formatted straight into the buffer. Not thread-safe.
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_LONG_CHARS = 20; // "-9223372036854775808"
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chars;
+    private final CharBuffer charView;
+    private final ByteBuffer bytes;
+    private int pos; // Number of chars buffered
+    private boolean rowStarted; // Whether the current row has a field yet
+    private long rowsWritten;
+
+    /**
+     * Constructs a CsvWriter over an open channel with large buffers, encoding into direct
+     * memory so a FileChannel can write it without another copy. Closing the writer closes
+     * the channel.
+     *
+     * @param channel The channel receiving the UTF-8 encoded CSV.
+     */
+    public CsvWriter(WritableByteChannel channel) {
+        this(channel, new char[CHAR_BUFFER_SIZE], ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE));
+    }
+
+    /**
+     * Constructs a CsvWriter over an open channel with heap buffers of the given size, for
+     * channels wrapping a stream (which copy to the heap anyway) or many small reports.
+     * Closing the writer closes the channel.
+     *
+     * @param channel The channel receiving the UTF-8 encoded CSV.
+     * @param bufferSize The size of the char and byte buffers (at least 20).
+     */
+    public CsvWriter(WritableByteChannel channel, int bufferSize) {
+        this(channel, new char[Math.max(bufferSize, MAX_LONG_CHARS)], ByteBuffer.allocate(Math.max(bufferSize, MAX_LONG_CHARS)));
+    }
+
+    private CsvWriter(WritableByteChannel channel, char[] chars, ByteBuffer bytes) {
+        this.channel = channel;
+        this.chars = chars;
+        this.charView = CharBuffer.wrap(chars);
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates (or truncates) a CSV file and returns a writer for it.
+     *
+     * @param path The file to write.
+     * @return A CsvWriter writing to the file through a FileChannel.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static CsvWriter open(Path path) throws IOException {
+        return new CsvWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Writes a complete row, e.g. the header.
+     *
+     * @param fields The row's fields; null fields are written empty.
+     * @return This writer.
+     * @throws IOException if writing fails.
+     */
+    public CsvWriter row(String... fields) throws IOException {
+        for (String field : fields) {
+            field(field);
+        }
+        return endRow();
+    }
+
+    /**
+     * Appends a text field to the current row, quoting it if needed.
+     *
+     * @param value The field value; null is written as an empty field.
+     * @return This writer.
+     * @throws IOException if writing fails.
+     */
+    public CsvWriter field(String value) throws IOException {
+        separate();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            append(value, 0, value.length());
+            return this;
+        }
+        append('"');
+        int from = 0;
+        int quote;
+        while ((quote = value.indexOf('"', from)) >= 0) {
+            append(value, from, quote + 1);
+            append('"'); // Double the embedded quote
+            from = quote + 1;
+        }
+        append(value, from, value.length());
+        append('"');
+        return this;
+    }
+
+    /**
+     * Appends a whole-number field to the current row without creating a String.
+     *
+     * @param value The field value.
+     * @return This writer.
+     * @throws IOException if writing fails.
+     */
+    public CsvWriter field(long value) throws IOException {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            String s = Long.toString(value);
+            append(s, 0, s.length());
+            return this;
+        }
+        if (chars.length - pos < MAX_LONG_CHARS) {
+            flushChars();
+        }
+        long v = Math.abs(value);
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        if (value < 0) {
+            chars[pos++] = '-';
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            chars[i] = (char) ('0' + (int) (v % 10));
+            v /= 10;
+        }
+        pos += digits;
+        return this;
+    }
+
+    /**
+     * Ends the current row with CRLF.
+     *
+     * @return This writer.
+     * @throws IOException if writing fails.
+     */
+    public CsvWriter endRow() throws IOException {
+        append('\r');
+        append('\n');
+        rowStarted = false;
+        rowsWritten++;
+        return this;
+    }
+
+    /**
+     * Returns the number of rows ended so far, including the header.
+     *
+     * @return The row count.
+     */
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Writes everything buffered so far to the channel.
+     *
+     * @throws IOException if writing fails.
+     */
+    public void flush() throws IOException {
+        flushChars();
+        drainBytes();
+    }
+
+    /**
+     * Writes the remaining output and closes the channel. A row that was started but not
+     * ended is ended first, so the file is never left with a partial last line.
+     *
+     * @throws IOException if writing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowStarted) {
+                endRow();
+            }
+            encode(true);
+            while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+                drainBytes();
+            }
+            drainBytes();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separate() throws IOException {
+        if (rowStarted) {
+            append(',');
+        }
+        rowStarted = true;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(char c) throws IOException {
+        if (pos == chars.length) {
+            flushChars();
+        }
+        chars[pos++] = c;
+    }
+
+    private void append(String s, int from, int to) throws IOException {
+        while (from < to) {
+            if (pos == chars.length) {
+                flushChars();
+            }
+            int n = Math.min(to - from, chars.length - pos);
+            s.getChars(from, from + n, chars, pos);
+            pos += n;
+            from += n;
+        }
+    }
+
+    /**
+     * Encodes the buffered chars into the byte buffer, writing it out whenever it fills up.
+     */
+    private void flushChars() throws IOException {
+        encode(false);
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        charView.limit(pos).position(0);
+        while (encoder.encode(charView, bytes, endOfInput) == CoderResult.OVERFLOW) {
+            drainBytes();
+        }
+        // A high surrogate at the very end waits for its low half in the next chunk
+        int left = charView.remaining();
+        System.arraycopy(chars, charView.position(), chars, 0, left);
+        pos = left;
+        charView.clear();
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
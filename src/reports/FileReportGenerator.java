@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package reports;
+
+import java.io.OutputStream;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A StreamingReportGenerator whose reports are files. Besides opening a file by report name,
+ * it can write a report into a stream supplied by the caller, such as one file among many
+ * or an entry of a zip archive, without printing a message per report.
+ */
+public interface FileReportGenerator extends StreamingReportGenerator {
+
+    /**
+     * Returns the extension of the files this generator writes, e.g. ".csv" or ".txt.gz".
+     *
+     * @return The file extension, including the leading dot.
+     */
+    String getFileExtension();
+
+    /**
+     * Returns a sink writing the report into the given stream, in the same format as the
+     * generator's files. Closing the sink closes the stream. Write errors are printed on
+     * close; nothing is printed on success.
+     *
+     * @param out The stream receiving the report.
+     * @return A ReportSink writing to the stream.
+     */
+    ReportSink openReport(OutputStream out);
+}
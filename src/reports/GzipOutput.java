@@ -0,0 +1,90 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package reports;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Opens gzip-compressed report files. Output is compressed on the fly as it is written,
+ * so a report is never held in memory in full. The compression level is set with
+ * -Dcms.report.gzipLevel, from 1 (fastest, larger files) to 9 (smallest, most CPU);
+ * the default is zlib's own trade-off (level 6), which is also used if the property is
+ * out of range.
+ */
+final class GzipOutput {
+
+    static final String EXTENSION = ".gz";
+
+    private static final int LEVEL = readLevel();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private GzipOutput() {
+    }
+
+    /**
+     * Reads the compression level once, so a bad setting is reported at startup instead of
+     * failing every report that is opened.
+     *
+     * @return The configured level, or Deflater.DEFAULT_COMPRESSION if it is unset or invalid.
+     */
+    private static int readLevel() {
+        Integer level = Integer.getInteger("cms.report.gzipLevel");
+        if (level == null) {
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            System.out.println("Ignoring -Dcms.report.gzipLevel=" + level + "; it must be between "
+                    + Deflater.NO_COMPRESSION + " and " + Deflater.BEST_COMPRESSION + ". Using the default level.");
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        return level;
+    }
+
+    /**
+     * Creates (or truncates) a file and returns a stream that gzip-compresses into it.
+     *
+     * @param fileName The name of the file, including the ".gz" extension.
+     * @return The compressing stream; closing it finishes the gzip trailer and closes the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    static OutputStream open(String fileName) throws IOException {
+        return wrap(new FileOutputStream(fileName));
+    }
+
+    /**
+     * Returns a stream that gzip-compresses into the given stream.
+     *
+     * @param out The stream receiving the compressed bytes; closed if the gzip header cannot be written.
+     * @return The compressing stream; closing it finishes the gzip trailer and closes out.
+     * @throws IOException if the gzip header cannot be written.
+     */
+    static OutputStream wrap(OutputStream out) throws IOException {
+        try {
+            return new LeveledGzipOutputStream(out, LEVEL);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * GZIPOutputStream with a configurable compression level and a large deflate buffer.
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level); // Nothing has been deflated yet, so the level applies to the whole file
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package reports;
+
+import java.io.IOException;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Destination for the lines of a report that is being written incrementally.
+ * A sink is opened by a StreamingReportGenerator, receives lines one at a time as they are
+ * produced, and must be closed once the report is complete so the output can be flushed.
+ * Write errors do not interrupt the caller; they are reported when the sink is closed,
+ * and callers that must know whether the report is complete ask for them with getFailure().
+ */
+public interface ReportSink extends AutoCloseable {
+
+    /**
+     * Appends a single line to the report.
+     *
+     * @param line The line of text to append.
+     */
+    void addLine(String line);
+
+    /**
+     * Completes the report, flushing and releasing any underlying output.
+     */
+    @Override
+    void close();
+
+    /**
+     * Returns the error that kept the report from being written completely, e.g. a full
+     * disk. Only final once the sink has been closed, as the last output is written then.
+     *
+     * @return The first write error, or null if the report was written in full.
+     */
+    default IOException getFailure() {
+        return null;
+    }
+}
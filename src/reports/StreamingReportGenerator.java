@@ -0,0 +1,43 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package reports;
+
+import java.util.List;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Streaming variant of the ReportGenerator interface.
+ * Instead of receiving the whole report as a list, implementations hand out a ReportSink
+ * that accepts lines as they are produced, so memory use does not depend on report size.
+ * The list-based generateReport method is kept for existing callers and simply feeds the
+ * list through a sink.
+ */
+public interface StreamingReportGenerator extends ReportGenerator {
+
+    /**
+     * Opens a new report with the specified name and returns the sink its lines are written to.
+     * The caller is responsible for closing the sink once all lines have been added.
+     *
+     * @param reportName A String specifying the name of the report.
+     * @return A ReportSink accepting the report's lines.
+     */
+    ReportSink openReport(String reportName);
+
+    /**
+     * Generates a report from a fully materialized list of lines by streaming them through
+     * a sink obtained from openReport.
+     *
+     * @param reportLines A List of Strings, each representing a line of content to be included in the report.
+     * @param reportName A String specifying the name of the report.
+     */
+    @Override
+    default void generateReport(List<String> reportLines, String reportName) {
+        try (ReportSink sink = openReport(reportName)) {
+            reportLines.forEach(sink::addLine);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package reports;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A ReportSink for columnar formats. Besides free-text lines, which become single-field
+ * rows, it accepts a header and typed rows built one field at a time:
+ * sink.field(name).field(count).endRow().
+ * Report writers check for this interface and fall back to text lines for plain sinks.
+ */
+public interface TableSink extends ReportSink {
+
+    /**
+     * Writes the header row. Called once, before any other row.
+     *
+     * @param columns The column names.
+     */
+    void setColumns(String... columns);
+
+    /**
+     * Appends a text field to the current row.
+     *
+     * @param value The value; null is written as an empty field.
+     * @return This sink, for chaining.
+     */
+    TableSink field(String value);
+
+    /**
+     * Appends a whole-number field to the current row.
+     *
+     * @param value The value.
+     * @return This sink, for chaining.
+     */
+    TableSink field(long value);
+
+    /**
+     * Ends the current row.
+     */
+    void endRow();
+}
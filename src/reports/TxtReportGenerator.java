@@ -7,41 +7,85 @@ package reports;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  *
  * @author Gytis
  *
- * Implementation of the ReportGenerator interface for generating reports in text format.
+ * Implementation of the StreamingReportGenerator interface for generating reports in text format.
  * This class handles the creation of a text file and writes the content of the report to it,
- * line by line. The name of the report is used to name the text file.
+ * line by line as the lines are produced. The name of the report is used to name the text file.
+ * A compressing generator writes a gzip file (".txt.gz", UTF-8) instead, see GzipOutput.
  */
-public class TxtReportGenerator implements ReportGenerator {
-    
+public class TxtReportGenerator implements FileReportGenerator {
+
+    private final boolean compressed; // Whether to write a gzip-compressed file
+
+    /**
+     * Constructs a TxtReportGenerator writing plain text files.
+     */
+    public TxtReportGenerator() {
+        this(false);
+    }
+
     /**
-     * Generates a report in text format and writes it to a text file.
+     * Constructs a TxtReportGenerator.
+     *
+     * @param compressed Whether to gzip the file as it is written.
+     */
+    public TxtReportGenerator(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Opens a text file for the report and returns a sink that writes each line to it.
      *
-     * @param reportLines The lines of text comprising the body of the report. Each string in this list
-     *                    represents a single line in the report.
      * @param reportName The name of the report being generated. This name is used to create the text file,
-     *                   appending ".txt" as the file extension.
+     *                   appending ".txt" (or ".txt.gz") as the file extension.
+     * @return A ReportSink writing to the text file; closing it completes the file.
      */
     @Override
-    public void generateReport(List<String> reportLines, String reportName) {
-        // Use BufferedWriter in try-catch
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(reportName + ".txt"))) {
-            // Iterate over each line in the reportLines list and write it to the file
-            for (String line : reportLines) {
-                writer.write(line); // Write the line to the file
-                writer.newLine(); // Move to the next line
-            }
-            // Confirmation message upon successful creation of the text file
-            System.out.println("Text report successfully created!");
+    public ReportSink openReport(String reportName) {
+        try {
+            Writer writer = compressed
+                    ? new OutputStreamWriter(GzipOutput.open(reportName + ".txt" + GzipOutput.EXTENSION), StandardCharsets.UTF_8)
+                    : new FileWriter(reportName + ".txt");
+            return new WriterReportSink(new BufferedWriter(writer),
+                    "Text report successfully created!", "Error writing to TXT file: ");
         } 
         catch (IOException e) {
-            // Error handling in case of problems writing to the file
+            // Error handling in case the file cannot be created
+            System.out.println("Error writing to TXT file: " + e.getMessage());
+            return WriterReportSink.discarding(e);
+        }
+    }
+
+    @Override
+    public String getFileExtension() {
+        return compressed ? ".txt" + GzipOutput.EXTENSION : ".txt";
+    }
+
+    /**
+     * Returns a sink writing the report's lines into the given stream as UTF-8 text,
+     * gzip-compressed if this generator compresses.
+     *
+     * @param out The stream receiving the report.
+     * @return A ReportSink writing to the stream; closing it closes the stream.
+     */
+    @Override
+    public ReportSink openReport(OutputStream out) {
+        try {
+            OutputStream target = compressed ? GzipOutput.wrap(out) : out;
+            return new WriterReportSink(new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8)),
+                    null, "Error writing to TXT file: ");
+        }
+        catch (IOException e) {
             System.out.println("Error writing to TXT file: " + e.getMessage());
+            return WriterReportSink.discarding(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package reports;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ *
+ * @author Gytis
+ *
+ * ReportSink that writes each line straight to a character stream.
+ * The first write error is remembered and later lines are skipped; the outcome is printed
+ * when the sink is closed, matching the messages of the file-based report generators.
+ */
+class WriterReportSink implements ReportSink {
+
+    private final Writer writer; // Buffered output the report is written to
+    private final String successMessage; // Printed when the report was written completely
+    private final String errorPrefix; // Printed in front of the error message on failure
+    private IOException failure; // First write error, if any
+
+    /**
+     * Constructs a WriterReportSink over an already opened writer.
+     *
+     * @param writer The buffered writer receiving the report lines.
+     * @param successMessage The message printed when the report is closed without errors, or null for none.
+     * @param errorPrefix The prefix printed before the error message when writing fails.
+     */
+    WriterReportSink(Writer writer, String successMessage, String errorPrefix) {
+        this.writer = writer;
+        this.successMessage = successMessage;
+        this.errorPrefix = errorPrefix;
+    }
+
+    @Override
+    public void addLine(String line) {
+        if (failure != null) {
+            return; // Output is already broken; the error is reported on close
+        }
+        try {
+            writer.write(line); // Write the line to the file
+            writer.write(System.lineSeparator()); // Move to the next line
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure == null) {
+            if (successMessage != null) {
+                // Confirmation message upon successful creation of the file
+                System.out.println(successMessage);
+            }
+        } else {
+            // Error handling in case of problems writing to the file
+            System.out.println(errorPrefix + failure.getMessage());
+        }
+    }
+
+    @Override
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns a sink that discards every line, used when the output could not be opened.
+     *
+     * @param failure The error that kept the output from being opened.
+     * @return A no-op ReportSink reporting the error as its failure.
+     */
+    static ReportSink discarding(IOException failure) {
+        return new ReportSink() {
+            @Override
+            public void addLine(String line) {
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public IOException getFailure() {
+                return failure;
+            }
+        };
+    }
+}
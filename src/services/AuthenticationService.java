@@ -12,41 +12,94 @@ import models.User;
  *
  * Provides authentication services for the application, including user login handling.
  * It utilizes the UserManager to verify user credentials and to fetch user details.
+ * A successful login starts a session in the SessionRegistry; the service itself keeps
+ * no per-user state, so one instance can serve many users at once. Its own registry
+ * reloads the users of its sessions through the UserManager, so deleting or demoting a
+ * user ends their sessions.
  */
 public class AuthenticationService {
-    
-    private User currentUser; // Holds a reference to the currently logged-in user
 
     // Reference to UserManager for accessing user operations and verification
     private UserManager userManager = new UserManager();
+    // Sessions of the users logged in through this service
+    private final SessionRegistry sessions;
+
+    /**
+     * Constructs an AuthenticationService with its own session registry.
+     */
+    public AuthenticationService() {
+        this.sessions = new SessionRegistry(userManager::fetchUserById);
+    }
+
+    /**
+     * Constructs an AuthenticationService that keeps sessions in the given registry.
+     *
+     * @param sessions The registry the sessions are kept in.
+     */
+    public AuthenticationService(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
 
     /**
      * Attempts to log in a user with the provided username and password.
-     * 
+     *
      * @param username The username provided by the user attempting to log in.
      * @param password The password provided by the user attempting to log in.
-     * @return true if the login is successful (i.e., if the provided credentials match an existing user),
-     *         false otherwise.
+     * @return The new session if the login is successful (i.e., if the provided credentials
+     *         match an existing user), null otherwise.
      */
-    public boolean login(String username, String password) {
-        
+    public SessionRegistry.Session login(String username, String password) {
+        User user = authenticate(username, password);
+        // If no matching user is found, or if the password doesn't match, login fails
+        return user == null ? null : sessions.create(user);
+    }
+
+    /**
+     * Checks a username and password without starting a session, e.g. for a request
+     * carrying its own credentials.
+     *
+     * @param username The username to check.
+     * @param password The password to check.
+     * @return The matching user, or null if the credentials are wrong.
+     */
+    public User authenticate(String username, String password) {
         // Attempt to fetch the user by their username
         User user = userManager.fetchUserByUsername(username);
-        
+
         // Check if the user exists and the provided password matches the user's password
-        if (user != null && user.getPassword().equals(password)) {
-            currentUser = user; // If match is found, set currentUser and indicate success
-            return true;
+        if (user != null && user.getPassword() != null && user.getPassword().equals(password)) {
+            return user;
         }
-        return false; // If no matching user is found, or if the password doesn't match, login fails
+        return null;
+    }
+
+    /**
+     * Retrieves the live session with the given token. May read the user store to check
+     * that the session's user still exists with the same role.
+     *
+     * @param token The session token returned by login.
+     * @return The session, or null if it is unknown, has expired, was logged out, or its
+     *         user was deleted or had their role changed.
+     */
+    public SessionRegistry.Session getSession(String token) {
+        return sessions.get(token);
+    }
+
+    /**
+     * Logs a session out.
+     *
+     * @param session The session to end.
+     */
+    public void logout(SessionRegistry.Session session) {
+        sessions.invalidate(session.getToken());
     }
 
     /**
-     * Retrieves the currently logged-in user.
-     * 
-     * @return The User object representing the currently logged-in user, or null if no user is logged in.
+     * Returns the registry the sessions are kept in, e.g. to start sweeping expired sessions.
+     *
+     * @return The SessionRegistry.
      */
-    public User getCurrentUser() {
-        return currentUser;
+    public SessionRegistry getSessions() {
+        return sessions;
     }
 }
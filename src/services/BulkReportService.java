@@ -0,0 +1,459 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package services;
+
+import dao.*;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import metrics.DAOMetrics;
+import models.*;
+import models.Module;
+import reports.FileReportGenerator;
+import reports.ReportSink;
+import util.IntIntHashMap;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Service class for generating student or lecturer reports in bulk, e.g. every transcript
+ * at the end of term. Entities are read in batches of -Dcms.bulkReports.batchSize (200),
+ * by keyset pages when all of them are wanted or by ID when a set is given. Each batch is
+ * handed to a bounded pool of -Dcms.bulkReports.workers threads (by default the number of
+ * cores, capped at AsyncDAO's in-flight limit so the workers never wait on the connection
+ * pool), which fetches the batch's data with a few batched queries and writes its reports.
+ * Reports go either to one file per entity in a directory or into a single zip archive.
+ * At most two batches per worker are queued, so memory use does not grow with the run.
+ */
+public class BulkReportService {
+
+    private static final int BATCH_SIZE = Integer.getInteger("cms.bulkReports.batchSize", 200);
+    private static final int WORKERS = Integer.getInteger("cms.bulkReports.workers",
+            Math.min(Runtime.getRuntime().availableProcessors(), AsyncDAO.getMaxInFlight()));
+
+    private final ReportService reportService; // Formats the reports
+    private CourseDAO courseDAO = DAOFactory.getCourseDAO();
+    private ModuleDAO moduleDAO = DAOFactory.getModuleDAO();
+    private LecturerDAO lecturerDAO = DAOFactory.getLecturerDAO();
+    private StudentDAO studentDAO = DAOFactory.getStudentDAO();
+    private EnrolmentDAO enrolmentDAO = DAOFactory.getEnrolmentDAO();
+
+    /**
+     * Constructs a BulkReportService writing reports in the layout of the given ReportService.
+     *
+     * @param reportService The service whose report layouts are used.
+     */
+    public BulkReportService(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    /**
+     * Generates a report for every student, or for the given students.
+     *
+     * @param studentIds The students to report on, or null for all students.
+     * @param format The file format (txt, csv, txt.gz or csv.gz).
+     * @param outputDir The directory the reports, or the archive, are written to; created if missing.
+     * @param archive Whether to write a single zip archive instead of one file per student.
+     * @param progress Receives the number of reports written so far after each report; may be null.
+     * @return The outcome of the run.
+     */
+    public BulkReportResult generateStudentReports(Collection<Integer> studentIds, String format, String outputDir,
+            boolean archive, IntConsumer progress) {
+        Iterator<Function<BulkReportResult, List<Student>>> batches = studentIds == null
+                ? pages(after -> studentDAO.getStudentsAfter(after, BATCH_SIZE), Student::getStudentId)
+                : chunks(studentIds, studentDAO::getStudentById);
+        return run("Student", format, outputDir, archive, progress, batches, this::writeStudentBatch);
+    }
+
+    /**
+     * Generates a report for every lecturer, or for the given lecturers.
+     *
+     * @param lecturerIds The lecturers to report on, or null for all lecturers.
+     * @param format The file format (txt, csv, txt.gz or csv.gz).
+     * @param outputDir The directory the reports, or the archive, are written to; created if missing.
+     * @param archive Whether to write a single zip archive instead of one file per lecturer.
+     * @param progress Receives the number of reports written so far after each report; may be null.
+     * @return The outcome of the run.
+     */
+    public BulkReportResult generateLecturerReports(Collection<Integer> lecturerIds, String format, String outputDir,
+            boolean archive, IntConsumer progress) {
+        Iterator<Function<BulkReportResult, List<Lecturer>>> batches = lecturerIds == null
+                ? pages(after -> lecturerDAO.getLecturersAfter(after, BATCH_SIZE), Lecturer::getLecturerId)
+                : chunks(lecturerIds, lecturerDAO::getLecturerById);
+        return run("Lecturer", format, outputDir, archive, progress, batches,
+                (batch, output, run) -> writeLecturerBatch(batch, output, run, false));
+    }
+
+    /**
+     * Generates the self-report (the lecturer's own view, with rooms) for every lecturer,
+     * or for the given lecturers.
+     *
+     * @param lecturerIds The lecturers to report on, or null for all lecturers.
+     * @param format The file format (txt, csv, txt.gz or csv.gz).
+     * @param outputDir The directory the reports, or the archive, are written to; created if missing.
+     * @param archive Whether to write a single zip archive instead of one file per lecturer.
+     * @param progress Receives the number of reports written so far after each report; may be null.
+     * @return The outcome of the run.
+     */
+    public BulkReportResult generateLecturerSelfReports(Collection<Integer> lecturerIds, String format, String outputDir,
+            boolean archive, IntConsumer progress) {
+        Iterator<Function<BulkReportResult, List<Lecturer>>> batches = lecturerIds == null
+                ? pages(after -> lecturerDAO.getLecturersAfter(after, BATCH_SIZE), Lecturer::getLecturerId)
+                : chunks(lecturerIds, lecturerDAO::getLecturerById);
+        return run("LecturerSelf", format, outputDir, archive, progress, batches,
+                (batch, output, run) -> writeLecturerBatch(batch, output, run, true));
+    }
+
+    /**
+     * Returns the number of worker threads bulk runs use.
+     *
+     * @return The worker count.
+     */
+    public static int getWorkerCount() {
+        return WORKERS;
+    }
+
+    /**
+     * Writes the reports of one batch of students. The transcripts of the whole batch are
+     * fetched in one query; courses come from the reference data cache.
+     */
+    private void writeStudentBatch(List<Student> students, ReportOutput output, Run run) {
+        List<Integer> ids = new ArrayList<>(students.size());
+        students.forEach(student -> ids.add(student.getStudentId()));
+        long failuresBefore = DAOMetrics.getThreadFailureCount();
+        Map<Integer, List<TranscriptEntry>> transcripts = enrolmentDAO.getTranscriptsByStudentIds(ids);
+        if (DAOMetrics.getThreadFailureCount() != failuresBefore) {
+            // A swallowed DAO error may have left transcripts out; report the batch as failed rather than incomplete
+            ids.forEach(id -> run.result.addFailure(id, "Transcript data could not be read"));
+            return;
+        }
+        for (Student student : students) {
+            Course course = courseDAO.getCourseById(student.getCourseId());
+            List<TranscriptEntry> transcript = transcripts.getOrDefault(student.getStudentId(), Collections.emptyList());
+            run.write(student.getStudentId(), "StudentReport_" + student.getStudentId(), output,
+                    sink -> reportService.writeStudentReport(student, course, transcript, sink));
+        }
+    }
+
+    /**
+     * Writes the reports (or self-reports) of one batch of lecturers. The modules the batch
+     * teaches, and their enrolment counts, are each fetched in one batched query.
+     */
+    private void writeLecturerBatch(List<Lecturer> lecturers, ReportOutput output, Run run, boolean self) {
+        long failuresBefore = DAOMetrics.getThreadFailureCount();
+        List<Integer> lecturerIds = new ArrayList<>(lecturers.size());
+        lecturers.forEach(lecturer -> lecturerIds.add(lecturer.getLecturerId()));
+        Map<Integer, List<Module>> modulesByLecturer = moduleDAO.getModulesByLecturerIds(lecturerIds);
+        List<Integer> moduleIds = new ArrayList<>();
+        modulesByLecturer.values().forEach(modules -> modules.forEach(module -> moduleIds.add(module.getModuleId())));
+        IntIntHashMap enrolmentCounts = enrolmentDAO.countEnrolmentsByModuleIds(moduleIds);
+        if (DAOMetrics.getThreadFailureCount() != failuresBefore) {
+            lecturers.forEach(lecturer -> run.result.addFailure(lecturer.getLecturerId(), "Module data could not be read"));
+            return;
+        }
+        for (Lecturer lecturer : lecturers) {
+            List<Module> modules = modulesByLecturer.getOrDefault(lecturer.getLecturerId(), Collections.emptyList());
+            if (self) {
+                run.write(lecturer.getLecturerId(), "LecturerSelfReport_" + lecturer.getLecturerId(), output,
+                        sink -> reportService.writeLecturerReportForSelf(lecturer, modules, enrolmentCounts, sink));
+            } else {
+                run.write(lecturer.getLecturerId(), "LecturerReport_" + lecturer.getLecturerId(), output,
+                        sink -> reportService.writeLecturerReport(lecturer, modules, enrolmentCounts, sink));
+            }
+        }
+    }
+
+    /**
+     * Runs a bulk job: opens the output, feeds the batches to the worker pool and waits for them.
+     */
+    private <T> BulkReportResult run(String reportType, String format, String outputDir, boolean archive,
+            IntConsumer progress, Iterator<Function<BulkReportResult, List<T>>> batches, BatchWriter<T> writer) {
+        long start = System.nanoTime();
+        Path dir = Paths.get(outputDir);
+        Path target = archive ? dir.resolve(reportType + "Reports_" + System.currentTimeMillis() + ".zip") : dir;
+        BulkReportResult result = new BulkReportResult(reportType, target.toString());
+
+        FileReportGenerator generator = ReportService.fileGeneratorFor(format);
+        if (generator == null) {
+            result.fail("Bulk reports need a file format (txt, csv, txt.gz or csv.gz), not " + format);
+            return result;
+        }
+        if (archive && format.toLowerCase().endsWith(".gz")) {
+            // The archive compresses its entries already
+            generator = ReportService.fileGeneratorFor(format.substring(0, format.length() - 3));
+        }
+
+        Run run = new Run(result, progress);
+        ExecutorService workers = newWorkerPool();
+        Semaphore queued = new Semaphore(WORKERS * 2); // Bounds the batches held in memory
+        try (ReportOutput output = archive ? new ArchiveOutput(target, generator) : new DirectoryOutput(dir, generator)) {
+            try {
+                while (batches.hasNext()) {
+                    Function<BulkReportResult, List<T>> batch = batches.next();
+                    queued.acquireUninterruptibly();
+                    workers.execute(() -> {
+                        try {
+                            writer.write(batch.apply(result), output, run);
+                        } catch (RuntimeException e) {
+                            System.out.println("Error generating " + reportType.toLowerCase() + " reports: " + e.getMessage());
+                            result.fail(e.getMessage());
+                        } finally {
+                            queued.release();
+                        }
+                    });
+                }
+            } catch (RuntimeException e) {
+                // Reading the next page of entities failed; the batches already handed out still finish
+                System.out.println("Error generating " + reportType.toLowerCase() + " reports: " + e.getMessage());
+                result.fail(e.getMessage());
+            } finally {
+                awaitWorkers(workers, result); // Before the output is closed
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing " + reportType.toLowerCase() + " reports: " + e.getMessage());
+            result.fail(e.getMessage());
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    /**
+     * Waits for the workers to finish their batches. If the waiting thread is interrupted,
+     * queued batches are dropped but the ones being written are still waited for, so the
+     * output is never closed under a worker.
+     */
+    private static void awaitWorkers(ExecutorService workers, BulkReportResult result) {
+        workers.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                workers.shutdownNow();
+                result.fail("Interrupted");
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates the bounded pool of daemon worker threads for one run.
+     */
+    private static ExecutorService newWorkerPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(WORKERS, r -> {
+            Thread t = new Thread(r, "cms-bulk-report-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns batches of every entity in ID order, read by keyset pages. Each page is read
+     * when the previous batch has been handed to the workers.
+     */
+    private static <T> Iterator<Function<BulkReportResult, List<T>>> pages(IntFunction<List<T>> pageAfter, ToIntFunction<T> idOf) {
+        return new Iterator<Function<BulkReportResult, List<T>>>() {
+            private List<T> next; // Page read ahead by hasNext, or null
+            private int afterId; // Last ID of the previous page
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !lastPage) {
+                    next = pageAfter.apply(afterId);
+                    lastPage = next.size() < BATCH_SIZE;
+                    if (!next.isEmpty()) {
+                        afterId = idOf.applyAsInt(next.get(next.size() - 1));
+                    }
+                }
+                return next != null && !next.isEmpty();
+            }
+
+            @Override
+            public Function<BulkReportResult, List<T>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> page = next;
+                next = null;
+                return result -> page;
+            }
+        };
+    }
+
+    /**
+     * Returns batches of the given IDs in ID order. Each batch's entities are looked up by
+     * the worker that writes it, so the lookups run in parallel as well; unknown IDs are
+     * recorded as failures.
+     */
+    private static <T> Iterator<Function<BulkReportResult, List<T>>> chunks(Collection<Integer> ids, IntFunction<T> byId) {
+        List<Integer> sorted = new ArrayList<>(new TreeSet<>(ids));
+        List<Function<BulkReportResult, List<T>>> batches = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += BATCH_SIZE) {
+            List<Integer> chunk = sorted.subList(from, Math.min(sorted.size(), from + BATCH_SIZE));
+            batches.add(result -> {
+                List<T> found = new ArrayList<>(chunk.size());
+                for (int id : chunk) {
+                    T entity = byId.apply(id);
+                    if (entity != null) {
+                        found.add(entity);
+                    } else {
+                        result.addFailure(id, "Not found");
+                    }
+                }
+                return found;
+            });
+        }
+        return batches.iterator();
+    }
+
+    /**
+     * Writes the reports of one batch of entities.
+     */
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        void write(List<T> batch, ReportOutput output, Run run);
+    }
+
+    /**
+     * Result and progress shared by the workers of one run.
+     */
+    private static final class Run {
+        private final BulkReportResult result;
+        private final IntConsumer progress;
+
+        private Run(BulkReportResult result, IntConsumer progress) {
+            this.result = result;
+            this.progress = progress;
+        }
+
+        /**
+         * Writes one report, recording it as generated or failed.
+         */
+        private void write(int id, String name, ReportOutput output, Consumer<ReportSink> report) {
+            try {
+                output.write(name, report);
+            } catch (IOException | RuntimeException e) {
+                result.addFailure(id, e.getMessage());
+                return;
+            }
+            int generated = result.addGenerated();
+            if (progress != null) {
+                progress.accept(generated);
+            }
+        }
+    }
+
+    /**
+     * Writes a report into a sink and closes it, throwing the sink's write error if the
+     * report could not be written in full, so the entity is recorded as failed.
+     */
+    private static void writeReport(ReportSink sink, Consumer<ReportSink> report) throws IOException {
+        try {
+            report.accept(sink);
+        } finally {
+            sink.close();
+        }
+        if (sink.getFailure() != null) {
+            throw sink.getFailure();
+        }
+    }
+
+    /**
+     * Where the reports of a run are written; shared by all workers.
+     */
+    private interface ReportOutput extends Closeable {
+        void write(String name, Consumer<ReportSink> report) throws IOException;
+    }
+
+    /**
+     * Writes each report to its own file in a directory.
+     */
+    private static final class DirectoryOutput implements ReportOutput {
+        private final Path dir;
+        private final FileReportGenerator generator;
+
+        private DirectoryOutput(Path dir, FileReportGenerator generator) throws IOException {
+            this.dir = Files.createDirectories(dir);
+            this.generator = generator;
+        }
+
+        @Override
+        public void write(String name, Consumer<ReportSink> report) throws IOException {
+            OutputStream file = new FileOutputStream(dir.resolve(name + generator.getFileExtension()).toFile());
+            writeReport(generator.openReport(file), report);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Writes every report as an entry of one zip archive. Workers format their reports in
+     * memory and only take the archive's lock to append the finished entry.
+     */
+    private static final class ArchiveOutput implements ReportOutput {
+        private final ZipOutputStream zip; // Guarded by itself
+        private final FileReportGenerator generator;
+
+        private ArchiveOutput(Path archive, FileReportGenerator generator) throws IOException {
+            Files.createDirectories(archive.getParent());
+            this.zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(archive.toFile()), 64 * 1024));
+            this.generator = generator;
+        }
+
+        @Override
+        public void write(String name, Consumer<ReportSink> report) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            writeReport(generator.openReport(buffer), report);
+            synchronized (zip) {
+                zip.putNextEntry(new ZipEntry(name + generator.getFileExtension()));
+                buffer.writeTo(zip);
+                zip.closeEntry();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (zip) {
+                zip.close();
+            }
+        }
+    }
+}
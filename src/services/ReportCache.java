@@ -0,0 +1,251 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import dao.DataVersionDAO;
+import reports.ReportSink;
+import reports.TableSink;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Keeps the output of recently generated reports, keyed by report type and parameters, together
+ * with the data version stamp of the tables they were built from. Lines, headers and typed
+ * rows are recorded in the order they were written and replayed into the same kind of sink. A cached report is only
+ * served while the stamp is unchanged, so any write to those tables makes it rebuild.
+ * The least recently used report is dropped once -Dcms.reportCache.maxEntries (64) reports
+ * are cached; reports longer than -Dcms.reportCache.maxLines (50000) lines or rows are not cached.
+ * The cache is off with -Dcms.reportCache.enabled=false, and is never used while table
+ * versions are untracked.
+ */
+public class ReportCache {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("cms.reportCache.enabled", "true"));
+
+    private final int maxEntries; // Reports kept before the least recently used is dropped
+    private final int maxLines; // Longest report that is kept
+    private final Map<String, CachedReport> entries; // Guarded by this; in access order
+    private long hits; // Guarded by this
+    private long misses; // Guarded by this
+
+    /**
+     * Constructs a ReportCache with the sizes configured through system properties.
+     */
+    public ReportCache() {
+        this(Integer.getInteger("cms.reportCache.maxEntries", 64), Integer.getInteger("cms.reportCache.maxLines", 50000));
+    }
+
+    /**
+     * Constructs a ReportCache with the given sizes.
+     *
+     * @param maxEntries The number of reports to keep.
+     * @param maxLines The number of lines above which a report is not kept.
+     */
+    public ReportCache(int maxEntries, int maxLines) {
+        this.maxEntries = maxEntries;
+        this.maxLines = maxLines;
+        this.entries = new LinkedHashMap<String, CachedReport>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedReport> eldest) {
+                return size() > ReportCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached report if it was built at the given data version.
+     *
+     * @param key The report type and parameters.
+     * @param version The current data version stamp of the report's tables.
+     * @return The cached report, or null if the report must be (re)built.
+     */
+    public synchronized CachedReport get(String key, long version) {
+        if (!ENABLED || version == DataVersionDAO.UNTRACKED) {
+            return null;
+        }
+        CachedReport entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * Wraps a report sink so the output written to it is recorded for the cache as well.
+     * A TableSink is wrapped in a recording TableSink, so report writers still see the columns.
+     *
+     * @param report The sink the report is written to.
+     * @return A recording sink passing everything on to the report.
+     */
+    public RecordingSink record(ReportSink report) {
+        if (report instanceof TableSink) {
+            return new RecordingTableSink((TableSink) report, maxLines);
+        }
+        return new RecordingSink(report, maxLines);
+    }
+
+    /**
+     * Caches a fully written report. Nothing is cached if the report was too long or the
+     * version is untracked.
+     *
+     * @param key The report type and parameters.
+     * @param version The data version stamp read before the report was built.
+     * @param recorded The sink the report was written through.
+     */
+    public synchronized void put(String key, long version, RecordingSink recorded) {
+        if (!ENABLED || version == DataVersionDAO.UNTRACKED || recorded.events == null) {
+            return;
+        }
+        CachedReport current = entries.get(key);
+        if (current == null || current.version <= version) { // Never replace a newer report with an older one
+            entries.put(key, new CachedReport(version, Collections.unmodifiableList(recorded.events)));
+        }
+    }
+
+    /**
+     * Drops every cached report.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Report cache: " + entries.size() + " reports, " + hits + " hits, " + misses + " misses";
+    }
+
+    /**
+     * A cached report and the data version it was built at. Its output is kept as a list
+     * of events: a String is a free-text line, a String[] the header and an Object[] a row
+     * of String and Long fields.
+     */
+    public static final class CachedReport {
+        private final long version;
+        private final List<Object> events;
+
+        private CachedReport(long version, List<Object> events) {
+            this.version = version;
+            this.events = events;
+        }
+
+        /**
+         * Writes the cached output into a sink of the same kind it was recorded from.
+         *
+         * @param report The sink receiving the report.
+         */
+        public void replay(ReportSink report) {
+            for (Object event : events) {
+                if (event instanceof String) {
+                    report.addLine((String) event);
+                } else if (event instanceof String[]) {
+                    ((TableSink) report).setColumns((String[]) event);
+                } else {
+                    TableSink table = (TableSink) report;
+                    for (Object field : (Object[]) event) {
+                        if (field instanceof Long) {
+                            table.field((Long) field);
+                        } else {
+                            table.field((String) field);
+                        }
+                    }
+                    table.endRow();
+                }
+            }
+        }
+    }
+
+    /**
+     * A sink that passes lines on to the report and keeps a copy, up to a maximum number
+     * of lines, for the cache.
+     */
+    public static class RecordingSink implements ReportSink {
+        private final ReportSink target;
+        private final int maxLines;
+        private List<Object> events = new ArrayList<>(); // Null once the report got too long to cache
+
+        private RecordingSink(ReportSink target, int maxLines) {
+            this.target = target;
+            this.maxLines = maxLines;
+        }
+
+        @Override
+        public void addLine(String line) {
+            target.addLine(line);
+            keep(line);
+        }
+
+        /**
+         * Keeps an event for the cache, or stops recording once the report is too long.
+         */
+        void keep(Object event) {
+            if (events != null) {
+                if (events.size() < maxLines) {
+                    events.add(event);
+                } else {
+                    events = null;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // The target belongs to the caller, who closes it
+        }
+
+        @Override
+        public IOException getFailure() {
+            return target.getFailure();
+        }
+    }
+
+    /**
+     * A recording sink for columnar reports, keeping the header and typed rows as well.
+     */
+    private static final class RecordingTableSink extends RecordingSink implements TableSink {
+        private final TableSink target;
+        private final List<Object> row = new ArrayList<>(); // Fields of the row being written
+
+        private RecordingTableSink(TableSink target, int maxLines) {
+            super(target, maxLines);
+            this.target = target;
+        }
+
+        @Override
+        public void setColumns(String... columns) {
+            target.setColumns(columns);
+            keep(columns.clone());
+        }
+
+        @Override
+        public TableSink field(String value) {
+            target.field(value);
+            row.add(value);
+            return this;
+        }
+
+        @Override
+        public TableSink field(long value) {
+            target.field(value);
+            row.add(value);
+            return this;
+        }
+
+        @Override
+        public void endRow() {
+            target.endRow();
+            keep(row.toArray());
+            row.clear();
+        }
+    }
+}
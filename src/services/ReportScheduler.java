@@ -0,0 +1,212 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Builds report snapshots (see ReportSnapshots) in the background at an off-peak time each
+ * day, so the menus can serve reports without waiting for them to be built.
+ * The scheduler is configured from a local properties file, scheduler.properties in the
+ * working directory or the file named by -Dcms.scheduler.config:
+ *
+ *   enabled=true          Whether snapshots are built on schedule (default false)
+ *   runAt=02:00           Time of day the daily snapshot is built
+ *   runOnStartup=false    Whether to also build one as soon as the application starts
+ *   formats=txt,csv       File formats written to each snapshot
+ *   snapshotDir=snapshots Directory the snapshots are kept in
+ *   keep=3                Number of snapshots kept
+ *
+ * Builds run one at a time on a single daemon thread, which never keeps the application
+ * running; a daily build therefore only happens if the application is up at runAt.
+ * Applications sharing a snapshotDir skip their build while another one is building.
+ * Snapshots already on disk are served even when scheduling is disabled.
+ */
+public class ReportScheduler {
+
+    private static final String CONFIG_FILE = System.getProperty("cms.scheduler.config", "scheduler.properties");
+    private static final ReportScheduler INSTANCE = createInstance();
+    // Printed when a build is skipped because another one holds the snapshot directory's lock
+    public static final String SKIPPED = "Snapshot build skipped: another build is in progress.";
+
+    private final boolean enabled; // Whether daily builds are scheduled
+    private final LocalTime runAt; // Time of day of the daily build
+    private final boolean runOnStartup; // Whether a build is started by start()
+    private final List<String> formats; // Formats written to each snapshot
+    private final ReportSnapshots snapshots; // Where the snapshots are kept
+    private ScheduledExecutorService executor; // Guarded by this; null until started
+
+    /**
+     * Constructs a ReportScheduler from configuration properties.
+     *
+     * @param config The scheduler properties; missing keys take their defaults.
+     */
+    public ReportScheduler(Properties config) {
+        this.enabled = Boolean.parseBoolean(config.getProperty("enabled", "false"));
+        this.runAt = LocalTime.parse(config.getProperty("runAt", "02:00").trim());
+        this.runOnStartup = Boolean.parseBoolean(config.getProperty("runOnStartup", "false"));
+        this.formats = new ArrayList<>();
+        for (String format : config.getProperty("formats", "txt,csv").split(",")) {
+            if (!format.trim().isEmpty()) {
+                formats.add(format.trim().toLowerCase());
+            }
+        }
+        this.snapshots = new ReportSnapshots(Paths.get(config.getProperty("snapshotDir", "snapshots").trim()),
+                Integer.parseInt(config.getProperty("keep", "3").trim()));
+    }
+
+    /**
+     * Returns the scheduler configured from the local configuration file.
+     *
+     * @return The shared ReportScheduler.
+     */
+    public static ReportScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the daily schedule if it is enabled, and an immediate build if runOnStartup is set.
+     * Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        executor();
+        if (runOnStartup) {
+            executor.execute(this::buildSnapshot);
+        }
+        scheduleNext();
+        System.out.println("Report snapshots scheduled daily at " + runAt);
+    }
+
+    /**
+     * Starts a snapshot build now, in the background, whether or not scheduling is enabled.
+     *
+     * @return A future completing when the build has finished.
+     */
+    public synchronized Future<?> runNow() {
+        return executor().submit(this::buildSnapshot);
+    }
+
+    /**
+     * Builds a snapshot on the calling thread, e.g. from a script.
+     *
+     * @return The new snapshot, or null if another build was in progress.
+     * @throws IOException if the snapshot could not be written completely.
+     */
+    public ReportSnapshots.Snapshot buildNow() throws IOException {
+        return snapshots.build(formats);
+    }
+
+    /**
+     * Stops scheduling; a build in progress is interrupted between reports.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns the snapshots this scheduler builds, for serving reports from them.
+     *
+     * @return The ReportSnapshots.
+     */
+    public ReportSnapshots getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Schedules the next daily build. The delay is worked out again after every build, so
+     * the build stays at the configured time of day across clock changes.
+     */
+    private synchronized void scheduleNext() {
+        if (executor == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(runAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        executor.schedule(() -> {
+            buildSnapshot();
+            scheduleNext();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds one snapshot, printing the outcome; errors never stop the schedule.
+     */
+    private void buildSnapshot() {
+        try {
+            ReportSnapshots.Snapshot snapshot = snapshots.build(formats);
+            System.out.println(snapshot != null ? snapshot + " built." : SKIPPED);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error building report snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the executor, creating its single daemon thread on first use.
+     */
+    private synchronized ScheduledExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cms-report-scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Creates the shared scheduler from the configuration file, falling back to the
+     * defaults (scheduling disabled) if the file holds an invalid value.
+     */
+    private static ReportScheduler createInstance() {
+        try {
+            return new ReportScheduler(loadConfig(Paths.get(CONFIG_FILE)));
+        } catch (RuntimeException e) {
+            System.out.println("Invalid scheduler configuration, snapshots not scheduled: " + e.getMessage());
+            return new ReportScheduler(new Properties());
+        }
+    }
+
+    /**
+     * Reads the configuration file; a missing or unreadable file leaves every key at its default.
+     */
+    private static Properties loadConfig(Path file) {
+        Properties config = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                config.load(in);
+            } catch (IOException e) {
+                System.out.println("Error reading scheduler configuration: " + e.getMessage());
+            }
+        }
+        return config;
+    }
+}
@@ -5,12 +5,22 @@
 package services;
 
 import dao.*;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import metrics.FailureScope;
 import models.*;
+import models.Module;
 import reports.ConsoleReportGenerator;
 import reports.CsvReportGenerator;
+import reports.FileReportGenerator;
+import reports.ReportSink;
+import reports.TableSink;
 import reports.TxtReportGenerator;
+import util.IntIntHashMap;
 
 /**
  *
@@ -18,44 +28,98 @@ import reports.TxtReportGenerator;
  *
  * Service class for generating different types of reports related to courses,
  * students, and lecturers. It uses DAO classes to fetch necessary data from the
- * database and report generator classes to output reports in various formats
- * (text, CSV, console).
+ * selected storage backend and report generator classes to output reports in various formats
+ * (text, CSV, console). Report lines are streamed into the output as they are
+ * read from the database, so memory use does not grow with the report size.
+ * Columnar sinks (TableSink, used for CSV) receive a header and one typed row per
+ * module or enrolment instead of the free-text lines.
+ * Lookups that do not depend on each other are started together through AsyncDAO
+ * and joined before the report lines are written.
+ * Generated reports are kept in a ReportCache together with the data version of the
+ * tables they read, so asking for the same report again is answered without any query
+ * until one of those tables changes.
  */
 public class ReportService {
 
     // DAO instances for accessing data related to courses, modules, lecturers, students, enrolments, and grades
-    private CourseDAO courseDAO = new CourseDAO();
-    private ModuleDAO moduleDAO = new ModuleDAO();
-    private LecturerDAO lecturerDAO = new LecturerDAO();
-    private StudentDAO studentDAO = new StudentDAO();
-    private EnrolmentDAO enrolmentDAO = new EnrolmentDAO();
-    private GradeDAO gradeDAO = new GradeDAO();
+    // Implementations come from the backend selected in DAOFactory (MySQL or in-memory)
+    private CourseDAO courseDAO = DAOFactory.getCourseDAO();
+    private ModuleDAO moduleDAO = DAOFactory.getModuleDAO();
+    private LecturerDAO lecturerDAO = DAOFactory.getLecturerDAO();
+    private StudentDAO studentDAO = DAOFactory.getStudentDAO();
+    private EnrolmentDAO enrolmentDAO = DAOFactory.getEnrolmentDAO();
+    private GradeDAO gradeDAO = DAOFactory.getGradeDAO();
+    private ReportDAO reportDAO = DAOFactory.getReportDAO();
+    // Runs independent lookups concurrently, capped at the connection pool size
+    private AsyncDAO asyncDAO = new AsyncDAO(courseDAO, moduleDAO, lecturerDAO, studentDAO, enrolmentDAO);
     // Add FeedbackDAO if needed for report generation or other operations
+    private DataVersionDAO dataVersionDAO = DAOFactory.getDataVersionDAO();
+    private ReportCache reportCache = new ReportCache();
+
+    // Tables each report is built from; a write to any of them makes the cached report stale
+    private static final String[] COURSE_REPORT_TABLES = {
+        DataVersionDAO.COURSES, DataVersionDAO.MODULES, DataVersionDAO.LECTURERS, DataVersionDAO.ENROLMENTS};
+    private static final String[] STUDENT_REPORT_TABLES = {
+        DataVersionDAO.STUDENTS, DataVersionDAO.COURSES, DataVersionDAO.MODULES, DataVersionDAO.ENROLMENTS, DataVersionDAO.GRADES};
+    private static final String[] LECTURER_REPORT_TABLES = {
+        DataVersionDAO.LECTURERS, DataVersionDAO.MODULES, DataVersionDAO.ENROLMENTS};
+    // Tables held in the ReferenceDataCache, which is emptied before a report is built if they changed
+    private static final String[] REFERENCE_TABLES = {
+        DataVersionDAO.COURSES, DataVersionDAO.MODULES, DataVersionDAO.LECTURERS};
+    // Suffix of the cache keys of columnar reports, whose output differs from the text form
+    private static final String TABLE_KEY_SUFFIX = "#table";
 
     /**
-     * Helper method to generate a report in the specified format with the given
-     * content and filename prefix.
+     * Helper method to open a report in the specified format with the given
+     * filename prefix. Lines added to the returned sink are written out
+     * immediately.
      *
-     * @param reportLines List of strings, each representing a line in the
-     * report.
-     * @param format The format of the report (txt, csv, console).
+     * @param format The format of the report (txt, csv, console, or txt.gz and csv.gz for
+     * gzip-compressed files).
      * @param filenamePrefix Prefix for the filename, used for reports.
+     * @return A ReportSink the report lines are written to; must be closed.
      */
-    private void generateReport(List<String> reportLines, String format, String filenamePrefix) {
+    private ReportSink openReport(String format, String filenamePrefix) {
+        FileReportGenerator fileGenerator = fileGeneratorFor(format);
+        if (fileGenerator != null) {
+            return fileGenerator.openReport(filenamePrefix + System.currentTimeMillis());
+        }
         switch (format.toLowerCase()) {
-            case "txt":
-                new TxtReportGenerator().generateReport(reportLines, filenamePrefix + System.currentTimeMillis());
-                break;
-            case "csv":
-                new CsvReportGenerator().generateReport(reportLines, filenamePrefix + System.currentTimeMillis());
-                break;
             case "console":
-                new ConsoleReportGenerator().generateReport(reportLines, filenamePrefix + System.currentTimeMillis());
-                break;
+                return new ConsoleReportGenerator().openReport(filenamePrefix + System.currentTimeMillis());
             default:
                 // Fallback to printing lines to console if format is not recognized
-                reportLines.forEach(System.out::println);
-                break;
+                return new ReportSink() {
+                    @Override
+                    public void addLine(String line) {
+                        System.out.println(line);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+        }
+    }
+
+    /**
+     * Returns the generator for a file-based report format.
+     *
+     * @param format The format of the report (txt, csv, txt.gz or csv.gz).
+     * @return The generator writing files in that format, or null if the format is not file-based.
+     */
+    public static FileReportGenerator fileGeneratorFor(String format) {
+        switch (format.toLowerCase()) {
+            case "txt":
+                return new TxtReportGenerator();
+            case "csv":
+                return new CsvReportGenerator();
+            case "txt.gz":
+                return new TxtReportGenerator(true);
+            case "csv.gz":
+                return new CsvReportGenerator(true);
+            default:
+                return null;
         }
     }
 
@@ -67,21 +131,81 @@ public class ReportService {
      * "console").
      */
     public void generateCourseReport(String format) {
-        List<String> reportLines = new ArrayList<>();
-        List<Course> courses = courseDAO.getAllCourses();
-        for (Course course : courses) {
-            reportLines.add("Course: " + course.getCourseName());
-            List<Module> modules = moduleDAO.getModulesByCourseId(course.getCourseId());
-            for (Module module : modules) {
-                Lecturer lecturer = lecturerDAO.getLecturerById(module.getLecturerId());
-                int enrolledStudents = enrolmentDAO.countEnrolmentsByModuleId(module.getModuleId());
-                reportLines.add("\tModule: " + module.getModuleName()
-                        + ", Enrolled Students: " + enrolledStudents
-                        + ", Lecturer: " + lecturer.getName()
-                        + ", Room: " + module.getRoom());
+        generateCourseReport(format, null);
+    }
+
+    /**
+     * Generates the course report into a given directory.
+     *
+     * @param format The desired format of the report (e.g., "txt", "csv",
+     * "console").
+     * @param outputDir The existing directory the report file is written to, or null for the working directory.
+     * @return true if the report was written completely; false if a DAO error may have left it
+     * incomplete or it could not be written.
+     */
+    public boolean generateCourseReport(String format, String outputDir) {
+        String prefix = outputDir == null ? "CourseReport_" : Paths.get(outputDir, "CourseReport_").toString();
+        long version = dataVersionDAO.getDataVersion(COURSE_REPORT_TABLES); // Read first, so later writes invalidate
+        ReportSink report = openReport(format, prefix);
+        boolean complete = true;
+        try {
+            ReportCache.CachedReport cached = reportCache.get(cacheKey("CourseReport", report), version);
+            if (cached != null) {
+                cached.replay(report);
+            } else {
+                complete = writeAndCache("CourseReport", version, report, this::writeCourseReport);
             }
+        } finally {
+            report.close();
+        }
+        return complete && report.getFailure() == null;
+    }
+
+    /**
+     * Writes the course report into the given sink, one line per course and
+     * module, as rows arrive from the database.
+     *
+     * @param report The sink receiving the report lines.
+     */
+    public void writeCourseReport(ReportSink report) {
+        if (report instanceof TableSink) {
+            writeCourseTable((TableSink) report);
+            return;
         }
-        generateReport(reportLines, format, "CourseReport_");
+        int[] currentCourseId = {-1};
+        // One joined query returns every course/module pair with lecturer and enrolment count
+        reportDAO.forEachCourseReportRow(row -> {
+            if (row.getCourseId() != currentCourseId[0]) {
+                currentCourseId[0] = row.getCourseId();
+                report.addLine("Course: " + row.getCourseName());
+            }
+            if (row.hasModule()) {
+                report.addLine("\tModule: " + row.getModuleName()
+                        + ", Enrolled Students: " + row.getEnrolledStudents()
+                        + ", Lecturer: " + (row.getLecturerName() != null ? row.getLecturerName() : "N/A")
+                        + ", Room: " + row.getRoom());
+            }
+        });
+    }
+
+    /**
+     * Writes the course report as a table with one row per course and module.
+     * Courses without modules get a single row with empty module columns.
+     *
+     * @param table The sink receiving the rows.
+     */
+    private void writeCourseTable(TableSink table) {
+        table.setColumns("Course ID", "Course", "Module ID", "Module", "Enrolled Students", "Lecturer", "Room");
+        reportDAO.forEachCourseReportRow(row -> {
+            table.field(row.getCourseId()).field(row.getCourseName());
+            if (row.hasModule()) {
+                table.field(row.getModuleId()).field(row.getModuleName()).field(row.getEnrolledStudents())
+                        .field(row.getLecturerName()).field(row.getRoom());
+            } else {
+                emptyFields(table, 5);
+            }
+            table.endRow();
+        });
     }
 
     /**
@@ -93,28 +217,100 @@ public class ReportService {
      * "console").
      */
     public void generateStudentReport(int studentId, String format) {
-        List<String> reportLines = new ArrayList<>();
+        String key = "StudentReport_" + studentId;
+        long version = dataVersionDAO.getDataVersion(STUDENT_REPORT_TABLES);
+        // The sink is only opened once the student is known, so go by the format: CSV is columnar
+        boolean tabular = format.toLowerCase().startsWith("csv");
+        ReportCache.CachedReport cached = reportCache.get(tabular ? key + TABLE_KEY_SUFFIX : key, version);
+        if (cached != null) {
+            try (ReportSink report = openReport(format, "StudentReport_" + studentId + "_")) {
+                cached.replay(report);
+            }
+            return;
+        }
+
         Student student = studentDAO.getStudentById(studentId);
         if (student == null) {
-            reportLines.add("Student not found.");
-            generateReport(reportLines, format, "StudentReport_NotFound_");
+            try (ReportSink report = openReport(format, "StudentReport_NotFound_")) {
+                report.addLine("Student not found.");
+            }
+            return;
+        }
+        try (ReportSink report = openReport(format, "StudentReport_" + studentId + "_")) {
+            writeAndCache(key, version, report, sink -> writeStudentReport(student, sink));
+        }
+    }
+
+    /**
+     * Writes the report for the given student into the sink: a header line
+     * followed by one line per enrolment.
+     *
+     * @param student The student for whom the report is written.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeStudentReport(Student student, ReportSink report) {
+        // The course and the transcript are independent, so fetch them at the same time
+        CompletableFuture<Course> courseFuture = asyncDAO.getCourseById(student.getCourseId());
+        CompletableFuture<List<TranscriptEntry>> transcriptFuture = asyncDAO.getTranscriptByStudentId(student.getStudentId());
+
+        writeStudentReport(student, await(courseFuture), await(transcriptFuture), report);
+    }
+
+    /**
+     * Writes the report for the given student from data that has already been fetched,
+     * e.g. in batches by BulkReportService.
+     *
+     * @param student The student for whom the report is written.
+     * @param course The student's course, or null if it was not found.
+     * @param transcript The student's enrolments with module names and grades.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeStudentReport(Student student, Course course, List<TranscriptEntry> transcript, ReportSink report) {
+        if (report instanceof TableSink) {
+            writeStudentTable((TableSink) report, student, course, transcript);
             return;
         }
-        Course course = courseDAO.getCourseById(student.getCourseId());
         String courseName = course == null ? "Course not found for student." : course.getCourseName();
-        reportLines.add("Student: " + student.getName() + ", Student ID: " + student.getStudentId() + ", Course: " + courseName);
-
-        List<Enrolment> enrolments = enrolmentDAO.getEnrolmentsByStudentId(studentId);
-        for (Enrolment enrolment : enrolments) {
-            Module module = moduleDAO.getModuleById(enrolment.getModuleId());
-            String line = "Module: " + module.getModuleName() + ", Status: " + enrolment.getStatus();
-            if ("completed".equals(enrolment.getStatus())) {
-                Grade grade = gradeDAO.getGradeByStudentIdAndModuleId(studentId, module.getModuleId());
-                line += ", Grade: " + (grade != null ? grade.getGrade() : "N/A");
+        report.addLine("Student: " + student.getName() + ", Student ID: " + student.getStudentId() + ", Course: " + courseName);
+
+        // Enrolments, module names and grades arrive together from one joined query
+        for (TranscriptEntry entry : transcript) {
+            String line = "Module: " + entry.getModuleName() + ", Status: " + entry.getStatus();
+            if ("completed".equals(entry.getStatus())) {
+                line += ", Grade: " + (entry.isGraded() ? entry.getGrade() : "N/A");
+            }
+            report.addLine(line);
+        }
+    }
+
+    /**
+     * Writes the student report as a table with one row per enrolment. The grade column
+     * is only filled for graded completed modules; a student without enrolments gets a
+     * single row with empty module columns.
+     *
+     * @param table The sink receiving the rows.
+     * @param student The student for whom the report is written.
+     * @param course The student's course, or null if it was not found.
+     * @param transcript The student's enrolments with module names and grades.
+     */
+    private static void writeStudentTable(TableSink table, Student student, Course course, List<TranscriptEntry> transcript) {
+        table.setColumns("Student ID", "Student", "Course", "Module ID", "Module", "Status", "Grade");
+        String courseName = course == null ? null : course.getCourseName();
+        if (transcript.isEmpty()) {
+            table.field(student.getStudentId()).field(student.getName()).field(courseName);
+            emptyFields(table, 4);
+            table.endRow();
+        }
+        for (TranscriptEntry entry : transcript) {
+            table.field(student.getStudentId()).field(student.getName()).field(courseName)
+                    .field(entry.getModuleId()).field(entry.getModuleName()).field(entry.getStatus());
+            if ("completed".equals(entry.getStatus()) && entry.isGraded()) {
+                table.field(entry.getGrade());
+            } else {
+                table.field((String) null);
             }
-            reportLines.add(line);
+            table.endRow();
         }
-        generateReport(reportLines, format, "StudentReport_" + studentId + "_");
     }
 
     /**
@@ -127,15 +323,63 @@ public class ReportService {
      * "console").
      */
     public void generateLecturerReport(int lecturerId, String format) {
-        List<String> reportLines = new ArrayList<>();
-        Lecturer lecturer = lecturerDAO.getLecturerById(lecturerId);
-        reportLines.add("Lecturer: " + lecturer.getName() + ", Role: " + lecturer.getRole() + ", Teaching Classes: " + lecturer.getTeachingTypes());
-        List<Module> modules = moduleDAO.getModulesByLecturerId(lecturerId);
+        String key = "LecturerReport_" + lecturerId;
+        long version = dataVersionDAO.getDataVersion(LECTURER_REPORT_TABLES);
+        try (ReportSink report = openReport(format, "LecturerReport_" + lecturerId + "_")) {
+            ReportCache.CachedReport cached = reportCache.get(cacheKey(key, report), version);
+            if (cached != null) {
+                cached.replay(report);
+            } else {
+                writeAndCache(key, version, report, sink -> writeLecturerReport(lecturerId, sink));
+            }
+        }
+    }
+
+    /**
+     * Writes the report for a specific lecturer into the sink.
+     *
+     * @param lecturerId The ID of the lecturer for whom the report is written.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeLecturerReport(int lecturerId, ReportSink report) {
+        CompletableFuture<Lecturer> lecturerFuture = asyncDAO.getLecturerById(lecturerId);
+        CompletableFuture<List<Module>> modulesFuture = asyncDAO.getModulesByLecturerId(lecturerId);
+        CompletableFuture<IntIntHashMap> countsFuture = modulesFuture.thenCompose(this::countEnrolments);
+
+        Lecturer lecturer = await(lecturerFuture);
+        writeLecturerReport(lecturer, await(modulesFuture), await(countsFuture), report);
+    }
+
+    /**
+     * Writes the report for a lecturer from data that has already been fetched, e.g. in
+     * batches by BulkReportService.
+     *
+     * @param lecturer The lecturer the report is about.
+     * @param modules The modules the lecturer teaches.
+     * @param enrolmentCounts Enrolment count per module ID; modules without enrolments may be absent.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeLecturerReport(Lecturer lecturer, List<Module> modules, IntIntHashMap enrolmentCounts, ReportSink report) {
+        if (report instanceof TableSink) {
+            writeLecturerTable((TableSink) report, lecturer, modules, enrolmentCounts, false);
+            return;
+        }
+        report.addLine("Lecturer: " + lecturer.getName() + ", Role: " + lecturer.getRole() + ", Teaching Classes: " + lecturer.getTeachingTypes());
         for (Module module : modules) {
-            int enrolledStudents = enrolmentDAO.countEnrolmentsByModuleId(module.getModuleId());
-            reportLines.add("Module: " + module.getModuleName() + ", Enrolled Students: " + enrolledStudents);
+            int enrolledStudents = enrolmentCounts.getOrDefault(module.getModuleId(), 0);
+            report.addLine("Module: " + module.getModuleName() + ", Enrolled Students: " + enrolledStudents);
         }
-        generateReport(reportLines, format, "LecturerReport_" + lecturerId + "_");
+    }
+
+    /**
+     * Generates the self-report of the lecturer logged in to the given session.
+     *
+     * @param session The lecturer's session; lecturers are linked to their user account by ID.
+     * @param format The desired format of the report (e.g., "txt", "csv",
+     * "console").
+     */
+    public void generateLecturerReportForSelf(SessionRegistry.Session session, String format) {
+        generateLecturerReportForSelf(session.getUser().getUserId(), format);
     }
 
     /**
@@ -147,19 +391,269 @@ public class ReportService {
      * "console").
      */
     public void generateLecturerReportForSelf(int lecturerId, String format) {
-        List<String> reportLines = new ArrayList<>();
-        Lecturer lecturer = lecturerDAO.getLecturerById(lecturerId);
+        String key = "LecturerSelfReport_" + lecturerId;
+        long version = dataVersionDAO.getDataVersion(LECTURER_REPORT_TABLES);
+        try (ReportSink report = openReport(format, "LecturerSelfReport_" + lecturerId + "_")) {
+            ReportCache.CachedReport cached = reportCache.get(cacheKey(key, report), version);
+            if (cached != null) {
+                cached.replay(report);
+            } else {
+                writeAndCache(key, version, report, sink -> writeLecturerReportForSelf(lecturerId, sink));
+            }
+        }
+    }
+
+    /**
+     * Writes the self-report for a lecturer into the sink.
+     *
+     * @param lecturerId The ID of the lecturer generating the self-report.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeLecturerReportForSelf(int lecturerId, ReportSink report) {
+        // Start the module and enrolment lookups while the lecturer is being fetched
+        CompletableFuture<Lecturer> lecturerFuture = asyncDAO.getLecturerById(lecturerId);
+        CompletableFuture<List<Module>> modulesFuture = asyncDAO.getModulesByLecturerId(lecturerId);
+        CompletableFuture<IntIntHashMap> countsFuture = modulesFuture.thenCompose(this::countEnrolments);
+
+        Lecturer lecturer = await(lecturerFuture);
         if (lecturer != null) {
-            reportLines.add("Lecturer Report for: " + lecturer.getName());
-            reportLines.add("Role: " + lecturer.getRole());
-            reportLines.add("Teaching Classes: " + lecturer.getTeachingTypes());
-
-            List<Module> modules = moduleDAO.getModulesByLecturerId(lecturerId);
-            for (Module module : modules) {
-                int enrolledStudents = enrolmentDAO.countEnrolmentsByModuleId(module.getModuleId());
-                reportLines.add("Module: " + module.getModuleName() + ", Enrolled Students: " + enrolledStudents + ", Room: " + module.getRoom());
+            writeLecturerReportForSelf(lecturer, await(modulesFuture), await(countsFuture), report);
+        }
+    }
+
+    /**
+     * Writes the self-report for a lecturer from data that has already been fetched, e.g.
+     * in batches by BulkReportService.
+     *
+     * @param lecturer The lecturer the report is about.
+     * @param modules The modules the lecturer teaches.
+     * @param enrolmentCounts Enrolment count per module ID; modules without enrolments may be absent.
+     * @param report The sink receiving the report lines.
+     */
+    public void writeLecturerReportForSelf(Lecturer lecturer, List<Module> modules, IntIntHashMap enrolmentCounts, ReportSink report) {
+        if (report instanceof TableSink) {
+            writeLecturerTable((TableSink) report, lecturer, modules, enrolmentCounts, true);
+            return;
+        }
+        report.addLine("Lecturer Report for: " + lecturer.getName());
+        report.addLine("Role: " + lecturer.getRole());
+        report.addLine("Teaching Classes: " + lecturer.getTeachingTypes());
+
+        for (Module module : modules) {
+            int enrolledStudents = enrolmentCounts.getOrDefault(module.getModuleId(), 0);
+            report.addLine("Module: " + module.getModuleName() + ", Enrolled Students: " + enrolledStudents + ", Room: " + module.getRoom());
+        }
+    }
+
+    /**
+     * Writes a lecturer report as a table with one row per module taught. A lecturer
+     * without modules gets a single row with empty module columns.
+     *
+     * @param table The sink receiving the rows.
+     * @param lecturer The lecturer the report is about.
+     * @param modules The modules the lecturer teaches.
+     * @param enrolmentCounts Enrolment count per module ID.
+     * @param withRoom Whether to add the room column, as the self-report does.
+     */
+    private static void writeLecturerTable(TableSink table, Lecturer lecturer, List<Module> modules,
+            IntIntHashMap enrolmentCounts, boolean withRoom) {
+        if (withRoom) {
+            table.setColumns("Lecturer ID", "Lecturer", "Role", "Teaching Classes", "Module ID", "Module", "Enrolled Students", "Room");
+        } else {
+            table.setColumns("Lecturer ID", "Lecturer", "Role", "Teaching Classes", "Module ID", "Module", "Enrolled Students");
+        }
+        if (modules.isEmpty()) {
+            table.field(lecturer.getLecturerId()).field(lecturer.getName()).field(lecturer.getRole()).field(lecturer.getTeachingTypes());
+            emptyFields(table, withRoom ? 4 : 3);
+            table.endRow();
+        }
+        for (Module module : modules) {
+            table.field(lecturer.getLecturerId()).field(lecturer.getName()).field(lecturer.getRole()).field(lecturer.getTeachingTypes())
+                    .field(module.getModuleId()).field(module.getModuleName())
+                    .field(enrolmentCounts.getOrDefault(module.getModuleId(), 0));
+            if (withRoom) {
+                table.field(module.getRoom());
+            }
+            table.endRow();
+        }
+    }
+
+    /**
+     * Appends the given number of empty fields to the current row.
+     *
+     * @param table The sink receiving the fields.
+     * @param count The number of empty fields.
+     */
+    private static void emptyFields(TableSink table, int count) {
+        for (int i = 0; i < count; i++) {
+            table.field((String) null);
+        }
+    }
+
+    /**
+     * Returns the cache key of a report written to the given sink; columnar output is kept
+     * apart from the text form of the same report.
+     *
+     * @param key The report type and parameters.
+     * @param report The sink the report is written to.
+     * @return The key the report is cached under.
+     */
+    private static String cacheKey(String key, ReportSink report) {
+        return report instanceof TableSink ? key + TABLE_KEY_SUFFIX : key;
+    }
+
+    /**
+     * Writes a report into the sink and caches its output under the given key and data version.
+     * Nothing is cached if a DAO error was swallowed meanwhile, as the report may then be
+     * missing lines. Cached courses, modules and lecturers are dropped first if those tables
+     * changed, so a report cached under a version never holds reference data older than it.
+     *
+     * @param key The report type and parameters.
+     * @param version The data version stamp read before the report is built.
+     * @param report The sink receiving the report lines.
+     * @param writer Writes the report lines into the sink it is given.
+     * @return true if the report was written without a DAO error, false if it may be incomplete.
+     */
+    private boolean writeAndCache(String key, long version, ReportSink report, Consumer<ReportSink> writer) {
+        // Counts only this report's DAO errors, including those of its AsyncDAO lookups
+        try (FailureScope failures = FailureScope.open()) {
+            if (version != DataVersionDAO.UNTRACKED) {
+                // Read after the report version, so the reference rows used are at least as new
+                ReferenceDataCache.syncWith(AsyncDAO.call(() -> dataVersionDAO.getDataVersion(REFERENCE_TABLES)));
+            }
+            ReportCache.RecordingSink recorder = reportCache.record(report);
+            writer.accept(recorder);
+            if (failures.getFailureCount() != 0) {
+                return false;
+            }
+            reportCache.put(cacheKey(key, report), version, recorder);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the data version the course report is currently built from, e.g. to tag a
+     * report sent to a client so it can be revalidated without being rebuilt.
+     *
+     * @return The data version, or DataVersionDAO.UNTRACKED if versions are not tracked.
+     */
+    public long getCourseReportVersion() {
+        return dataVersionDAO.getDataVersion(COURSE_REPORT_TABLES);
+    }
+
+    /**
+     * Returns the data version student reports are currently built from.
+     *
+     * @return The data version, or DataVersionDAO.UNTRACKED if versions are not tracked.
+     */
+    public long getStudentReportVersion() {
+        return dataVersionDAO.getDataVersion(STUDENT_REPORT_TABLES);
+    }
+
+    /**
+     * Returns the data version lecturer reports and self-reports are currently built from.
+     *
+     * @return The data version, or DataVersionDAO.UNTRACKED if versions are not tracked.
+     */
+    public long getLecturerReportVersion() {
+        return dataVersionDAO.getDataVersion(LECTURER_REPORT_TABLES);
+    }
+
+    /**
+     * Writes the course report into a sink the caller opened, e.g. a buffer the report API
+     * sends once it is complete, replaying it from the cache if it was built from the same data.
+     *
+     * @param version The data version read with getCourseReportVersion before the sink was opened.
+     * @param report The sink receiving the report lines.
+     * @return true if the report is complete, false if a DAO error may have left lines out.
+     */
+    public boolean streamCourseReport(long version, ReportSink report) {
+        return streamCached("CourseReport", version, report, this::writeCourseReport);
+    }
+
+    /**
+     * Writes a student's report into a sink the caller opened, replaying it from the cache
+     * if it was built from the same data.
+     *
+     * @param student The student, already looked up by the caller.
+     * @param version The data version read with getStudentReportVersion before the student was looked up.
+     * @param report The sink receiving the report lines.
+     * @return true if the report is complete, false if a DAO error may have left lines out.
+     */
+    public boolean streamStudentReport(Student student, long version, ReportSink report) {
+        return streamCached("StudentReport_" + student.getStudentId(), version, report, sink -> writeStudentReport(student, sink));
+    }
+
+    /**
+     * Writes a lecturer's report or self-report into a sink the caller opened, replaying it
+     * from the cache if it was built from the same data.
+     *
+     * @param lecturerId The ID of an existing lecturer.
+     * @param self Whether to write the self-report rather than the report office staff see.
+     * @param version The data version read with getLecturerReportVersion before the sink was opened.
+     * @param report The sink receiving the report lines.
+     * @return true if the report is complete, false if a DAO error may have left lines out.
+     */
+    public boolean streamLecturerReport(int lecturerId, boolean self, long version, ReportSink report) {
+        if (self) {
+            return streamCached("LecturerSelfReport_" + lecturerId, version, report, sink -> writeLecturerReportForSelf(lecturerId, sink));
+        } else {
+            return streamCached("LecturerReport_" + lecturerId, version, report, sink -> writeLecturerReport(lecturerId, sink));
+        }
+    }
+
+    /**
+     * Replays a report from the cache, or writes and caches it if it is missing or stale.
+     *
+     * @return true if the report is complete.
+     */
+    private boolean streamCached(String key, long version, ReportSink report, Consumer<ReportSink> writer) {
+        ReportCache.CachedReport cached = reportCache.get(cacheKey(key, report), version);
+        if (cached != null) {
+            cached.replay(report);
+            return true;
+        }
+        return writeAndCache(key, version, report, writer);
+    }
+
+    /**
+     * Returns the cache of generated reports, e.g. to show its hit rate or clear it.
+     *
+     * @return The ReportCache used by this service.
+     */
+    public ReportCache getReportCache() {
+        return reportCache;
+    }
+
+    /**
+     * Fetches the enrolment counts for all of the given modules in one batched lookup.
+     *
+     * @param modules The modules whose enrolments should be counted.
+     * @return A future map from module ID to enrolment count.
+     */
+    private CompletableFuture<IntIntHashMap> countEnrolments(List<Module> modules) {
+        return asyncDAO.countEnrolmentsByModuleIds(
+                modules.stream().map(Module::getModuleId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Waits for a lookup started through AsyncDAO, rethrowing any failure as it
+     * would have been thrown by the synchronous DAO call.
+     *
+     * @param future The lookup to wait for.
+     * @return The lookup's result.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
             }
+            throw e;
         }
-        generateReport(reportLines, format, "LecturerSelfReport_" + lecturerId + "_");
     }
 }
@@ -0,0 +1,377 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package services;
+
+import dao.DAOFactory;
+import dao.DataVersionDAO;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+import metrics.FailureScope;
+import models.BulkReportResult;
+import reports.FileReportGenerator;
+import reports.ReportSink;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Precomputed report snapshots kept in a directory, one subdirectory per snapshot named
+ * after the time it was taken. A snapshot holds the course report, every lecturer report
+ * and self-report and every student transcript, in each configured file format.
+ * Snapshots are built under a uniquely named ".partial" directory and renamed once complete,
+ * so a snapshot being read is never half written; the oldest are removed beyond the number
+ * to keep. A build holds a file lock in the directory, so when several processes share it
+ * (e.g. consoles all scheduled for the same time), only one of them builds at a time.
+ * A snapshot also records the data version of the tables it was built from, so callers
+ * can tell whether the data has changed since.
+ */
+public class ReportSnapshots {
+
+    public static final String STUDENTS = "students";
+    public static final String LECTURERS = "lecturers";
+
+    private static final String MANIFEST = "snapshot.properties";
+    private static final String PARTIAL = ".partial";
+    private static final String LOCK_FILE = ".build.lock";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // Every table a snapshot report reads
+    private static final String[] SNAPSHOT_TABLES = {DataVersionDAO.COURSES, DataVersionDAO.MODULES, DataVersionDAO.LECTURERS,
+        DataVersionDAO.STUDENTS, DataVersionDAO.ENROLMENTS, DataVersionDAO.GRADES};
+
+    private final Path dir; // Directory holding the snapshots
+    private final int keep; // Number of complete snapshots kept
+    private final DataVersionDAO dataVersionDAO = DAOFactory.getDataVersionDAO();
+
+    /**
+     * Constructs a ReportSnapshots over the given directory.
+     *
+     * @param dir The directory holding the snapshots; created on the first build.
+     * @param keep The number of complete snapshots to keep.
+     */
+    public ReportSnapshots(Path dir, int keep) {
+        this.dir = dir;
+        this.keep = Math.max(1, keep);
+    }
+
+    /**
+     * Builds a new snapshot. It only becomes visible once every report has been written;
+     * if any report fails, or a DAO error is swallowed meanwhile, it is discarded.
+     * Nothing is built while another build, in this or another process, holds the lock.
+     *
+     * @param formats The file formats to write (txt, csv, txt.gz, csv.gz).
+     * @return The new snapshot, or null if another build was in progress.
+     * @throws IOException if the snapshot could not be written completely.
+     */
+    public synchronized Snapshot build(List<String> formats) throws IOException {
+        Files.createDirectories(dir);
+        try (FileChannel lockFile = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = lockFile.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null; // Held by another ReportSnapshots over the same directory in this JVM
+            }
+            if (lock == null) {
+                return null;
+            }
+            try {
+                deletePartials(); // Left by builds that died; none can be running now
+                try (FailureScope failures = FailureScope.open()) { // Counts only this build's DAO errors
+                    return buildLocked(formats, failures);
+                }
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * Builds a new snapshot while holding the build lock. DAO errors counted in the given
+     * scope, or by the bulk report batches, discard it.
+     */
+    private Snapshot buildLocked(List<String> formats, FailureScope failures) throws IOException {
+        long start = System.currentTimeMillis();
+        long version = dataVersionDAO.getDataVersion(SNAPSHOT_TABLES); // Read first, so later writes show as changes
+        LocalDateTime created = LocalDateTime.now();
+        String name = created.format(NAME_FORMAT);
+        Path partial = Files.createTempDirectory(dir, name + PARTIAL);
+        if (Files.getFileStore(partial).supportsFileAttributeView("posix")) {
+            // Temporary directories are private to their owner; snapshots are as readable as the directory
+            Files.setPosixFilePermissions(partial, Files.getPosixFilePermissions(dir));
+        }
+
+        ReportService reportService = new ReportService();
+        BulkReportService bulk = new BulkReportService(reportService);
+        int reports = 0;
+        try {
+            for (String format : formats) {
+                FileReportGenerator generator = ReportService.fileGeneratorFor(format);
+                if (generator == null) {
+                    throw new IOException("Snapshots need file formats (txt, csv, txt.gz or csv.gz), not " + format);
+                }
+                File courseFile = partial.resolve("CourseReport" + generator.getFileExtension()).toFile();
+                ReportSink sink = generator.openReport(new FileOutputStream(courseFile));
+                try {
+                    reportService.writeCourseReport(sink);
+                } finally {
+                    sink.close();
+                }
+                if (sink.getFailure() != null) {
+                    throw sink.getFailure();
+                }
+                reports++;
+                String students = partial.resolve(STUDENTS).toString();
+                String lecturers = partial.resolve(LECTURERS).toString();
+                reports += check(bulk.generateStudentReports(null, format, students, false, null));
+                reports += check(bulk.generateLecturerReports(null, format, lecturers, false, null));
+                reports += check(bulk.generateLecturerSelfReports(null, format, lecturers, false, null));
+            }
+            if (failures.getFailureCount() != 0) {
+                throw new IOException("A database error occurred while the snapshot was built");
+            }
+
+            Properties manifest = new Properties();
+            manifest.setProperty("created", created.toString());
+            manifest.setProperty("dataVersion", Long.toString(version));
+            manifest.setProperty("formats", String.join(",", formats));
+            manifest.setProperty("reports", Integer.toString(reports));
+            manifest.setProperty("buildMillis", Long.toString(System.currentTimeMillis() - start));
+            try (OutputStream out = Files.newOutputStream(partial.resolve(MANIFEST))) {
+                manifest.store(out, "Report snapshot");
+            }
+            Path complete = dir.resolve(name);
+            for (int i = 1; Files.exists(complete); i++) { // Another snapshot finished within the same second
+                complete = dir.resolve(name + "-" + i); // Still sorts after it and before the next second
+            }
+            Files.move(partial, complete, StandardCopyOption.ATOMIC_MOVE);
+            prune();
+            return new Snapshot(complete, created, version, formats);
+        } catch (IOException | RuntimeException e) {
+            delete(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the most recent complete snapshot.
+     *
+     * @return The latest snapshot, or null if there is none.
+     */
+    public Snapshot latest() {
+        List<Path> complete = completeSnapshots();
+        for (int i = complete.size() - 1; i >= 0; i--) {
+            Snapshot snapshot = Snapshot.read(complete.get(i));
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the tables a snapshot was built from have changed since.
+     *
+     * @param snapshot The snapshot to check.
+     * @return true if the data changed or versions are not tracked, false if the snapshot is current.
+     */
+    public boolean isStale(Snapshot snapshot) {
+        long version = dataVersionDAO.getDataVersion(SNAPSHOT_TABLES);
+        return version == DataVersionDAO.UNTRACKED || version != snapshot.getDataVersion();
+    }
+
+    /**
+     * Returns the snapshots that were built completely, oldest first.
+     */
+    private List<Path> completeSnapshots() {
+        List<Path> complete = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return complete;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry) && !entry.getFileName().toString().contains(PARTIAL)
+                        && Files.exists(entry.resolve(MANIFEST))) {
+                    complete.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading snapshot directory: " + e.getMessage());
+        }
+        Collections.sort(complete); // Names are timestamps, so this is oldest first
+        return complete;
+    }
+
+    /**
+     * Removes the oldest complete snapshots beyond the number to keep.
+     */
+    private void prune() {
+        List<Path> complete = completeSnapshots();
+        for (int i = 0; i < complete.size() - keep; i++) {
+            delete(complete.get(i));
+        }
+    }
+
+    /**
+     * Deletes the partial directories of builds that did not finish.
+     */
+    private void deletePartials() {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*" + PARTIAL + "*")) {
+            for (Path entry : entries) {
+                delete(entry);
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading snapshot directory: " + e.getMessage());
+        }
+    }
+
+    private static int check(BulkReportResult result) throws IOException {
+        if (!result.isCompleted() || !result.getFailures().isEmpty()) {
+            throw new IOException(result.toString());
+        }
+        return result.getGeneratedCount();
+    }
+
+    /**
+     * Deletes a snapshot directory and everything in it, printing rather than throwing on failure.
+     */
+    private static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Collections.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Error deleting snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A complete snapshot on disk.
+     */
+    public static final class Snapshot {
+        private final Path dir;
+        private final LocalDateTime created;
+        private final long dataVersion;
+        private final List<String> formats;
+
+        private Snapshot(Path dir, LocalDateTime created, long dataVersion, List<String> formats) {
+            this.dir = dir;
+            this.created = created;
+            this.dataVersion = dataVersion;
+            this.formats = formats;
+        }
+
+        /**
+         * Reads a snapshot's manifest.
+         *
+         * @return The snapshot, or null if the manifest cannot be read.
+         */
+        private static Snapshot read(Path dir) {
+            Properties manifest = new Properties();
+            try (InputStream in = Files.newInputStream(dir.resolve(MANIFEST))) {
+                manifest.load(in);
+                List<String> formats = new ArrayList<>();
+                for (String format : manifest.getProperty("formats", "").split(",")) {
+                    if (!format.trim().isEmpty()) {
+                        formats.add(format.trim().toLowerCase());
+                    }
+                }
+                return new Snapshot(dir, LocalDateTime.parse(manifest.getProperty("created")),
+                        Long.parseLong(manifest.getProperty("dataVersion")), formats);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error reading snapshot " + dir + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Finds a report in the snapshot. Console output is served from the txt files.
+         *
+         * @param subdir STUDENTS, LECTURERS, or null for the course report.
+         * @param name The report name, e.g. "CourseReport" or "StudentReport_12".
+         * @param format The requested format (console, txt, csv, txt.gz or csv.gz).
+         * @return The report file, or null if the snapshot does not have it in that format.
+         */
+        public Path find(String subdir, String name, String format) {
+            String fileFormat = "console".equalsIgnoreCase(format) ? "txt" : format.toLowerCase();
+            FileReportGenerator generator = ReportService.fileGeneratorFor(fileFormat);
+            if (generator == null || !formats.contains(fileFormat)) {
+                return null;
+            }
+            Path base = subdir == null ? dir : dir.resolve(subdir);
+            Path file = base.resolve(name + generator.getFileExtension());
+            return Files.isRegularFile(file) ? file : null;
+        }
+
+        /**
+         * Serves a report from the snapshot: prints it for the console format, otherwise
+         * copies it to a new file named like the reports ReportService writes.
+         *
+         * @param file The report file, as returned by find.
+         * @param format The requested format.
+         * @param filenamePrefix The prefix of the copied file, e.g. "CourseReport_".
+         * @return true if the report was served.
+         */
+        public boolean serve(Path file, String format, String filenamePrefix) {
+            try {
+                if ("console".equalsIgnoreCase(format)) {
+                    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            System.out.println(line);
+                        }
+                    }
+                    return true;
+                }
+                String fileName = file.getFileName().toString();
+                String extension = fileName.substring(fileName.indexOf('.'));
+                Path copy = file.getFileSystem().getPath(filenamePrefix + System.currentTimeMillis() + extension);
+                Files.copy(file, copy);
+                System.out.println("Report copied from snapshot to " + copy);
+                return true;
+            } catch (IOException e) {
+                System.out.println("Error reading snapshot report: " + e.getMessage());
+                return false;
+            }
+        }
+
+        public LocalDateTime getCreated() {
+            return created;
+        }
+
+        public long getDataVersion() {
+            return dataVersion;
+        }
+
+        public List<String> getFormats() {
+            return Collections.unmodifiableList(formats);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot of " + created.withNano(0).toString().replace('T', ' ');
+        }
+    }
+}
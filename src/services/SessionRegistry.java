@@ -0,0 +1,259 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package services;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import metrics.DAOMetrics;
+import models.User;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Keeps the sessions of logged-in users, so one service layer can serve many users at
+ * once. Each session is identified by an opaque random token and holds the user it
+ * belongs to; callers pass the session along instead of relying on a shared "current
+ * user". Sessions end when they are invalidated, when they have been idle for longer than
+ * -Dcms.session.idleMinutes (default 30), or -Dcms.session.maxHours (default 12) after
+ * login. Expired sessions are never returned, and are removed from memory by a
+ * background sweep once it has been started.
+ * When the registry is given a way to load users, a session's user is reloaded on lookup
+ * at most every -Dcms.session.recheckSeconds (default 60); the session ends if the user
+ * has been deleted or their role has changed, so a demoted user's token stops working.
+ *
+ * Looking up a session reads a concurrent map and, at most once a second per session,
+ * records the time of use; there are no locks on the lookup path.
+ */
+public class SessionRegistry {
+
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(Long.getLong("cms.session.idleMinutes", 30));
+    private static final long MAX_LIFETIME = TimeUnit.HOURS.toMillis(Long.getLong("cms.session.maxHours", 12));
+    private static final long RECHECK_INTERVAL = TimeUnit.SECONDS.toMillis(Long.getLong("cms.session.recheckSeconds", 60));
+    // Last use is only recorded when it moves by this much, so busy sessions are not written on every lookup
+    private static final long TOUCH_INTERVAL = 1000;
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeout; // Longest time a session may go unused, in milliseconds
+    private final long maxLifetime; // Longest time a session may last, in milliseconds
+    private final long recheckInterval; // Time between reloads of a session's user, in milliseconds
+    private final IntFunction<User> userLoader; // Loads a user by ID; null if users are never reloaded
+    private ScheduledExecutorService sweeper; // Guarded by this; null until started
+
+    /**
+     * Constructs a SessionRegistry with the configured timeouts, whose users are never reloaded.
+     */
+    public SessionRegistry() {
+        this(IDLE_TIMEOUT, MAX_LIFETIME, RECHECK_INTERVAL, null);
+    }
+
+    /**
+     * Constructs a SessionRegistry with the configured timeouts, reloading the users of
+     * its sessions from the user store.
+     *
+     * @param userLoader Loads a user by ID, returning null if there is no such user.
+     */
+    public SessionRegistry(IntFunction<User> userLoader) {
+        this(IDLE_TIMEOUT, MAX_LIFETIME, RECHECK_INTERVAL, userLoader);
+    }
+
+    /**
+     * Constructs a SessionRegistry with the given timeouts.
+     *
+     * @param idleTimeout The longest time a session may go unused, in milliseconds.
+     * @param maxLifetime The longest time a session may last after login, in milliseconds.
+     * @param recheckInterval The time between reloads of a session's user, in milliseconds.
+     * @param userLoader Loads a user by ID, returning null if there is no such user; null
+     *                   if users are never reloaded.
+     */
+    public SessionRegistry(long idleTimeout, long maxLifetime, long recheckInterval, IntFunction<User> userLoader) {
+        this.idleTimeout = idleTimeout;
+        this.maxLifetime = maxLifetime;
+        this.recheckInterval = recheckInterval;
+        this.userLoader = userLoader;
+    }
+
+    /**
+     * Starts a session for a user who has been authenticated.
+     *
+     * @param user The user logging in.
+     * @return The new session.
+     */
+    public Session create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user,
+                System.currentTimeMillis());
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    /**
+     * Returns the live session with the given token, recording that it was used. If the
+     * session's user is due to be rechecked, they are reloaded first, which reads the
+     * user store.
+     *
+     * @param token The session token.
+     * @return The session, or null if the token is unknown, the session has expired, or
+     *         its user has been deleted or had their role changed.
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now) || (userLoader != null && now - session.checked >= recheckInterval && !recheck(session, now))) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Reloads a session's user.
+     *
+     * @return false if the session must end because the user is gone or their role changed.
+     */
+    private boolean recheck(Session session, long now) {
+        User user = session.getUser();
+        long failuresBefore = DAOMetrics.getThreadFailureCount();
+        User current = userLoader.apply(user.getUserId());
+        if (DAOMetrics.getThreadFailureCount() != failuresBefore) {
+            return true; // The user store could not be read; keep the session and try again on the next lookup
+        }
+        if (current == null || !Objects.equals(current.getRole(), user.getRole())) {
+            return false;
+        }
+        session.user = current; // Picks up a changed username
+        session.checked = now;
+        return true;
+    }
+
+    /**
+     * Ends a session, e.g. on logout.
+     *
+     * @param token The session token.
+     * @return true if the session existed.
+     */
+    public boolean invalidate(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    /**
+     * Removes the sessions that have expired.
+     *
+     * @return The number of sessions removed.
+     */
+    public int sweep() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Session session : sessions.values()) {
+            if (isExpired(session, now) && sessions.remove(session.getToken(), session)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Starts sweeping expired sessions in the background once a minute, on a daemon thread.
+     * Calling it again has no effect.
+     */
+    public synchronized void startSweeping() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cms-session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the background sweep; sessions stay valid until they expire.
+     */
+    public synchronized void stopSweeping() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Returns the number of sessions held, including expired ones not yet swept.
+     *
+     * @return The number of sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.getLastUsed() > idleTimeout || now - session.getCreated() > maxLifetime;
+    }
+
+    /**
+     * A logged-in user's session. The user keeps their ID for the life of the session; the
+     * rest of their details are refreshed when the registry reloads them.
+     */
+    public static final class Session {
+
+        private final String token; // Opaque identifier handed to the client
+        private volatile User user; // The user the session belongs to, as last loaded
+        private final long created; // Login time, in epoch milliseconds
+        private volatile long lastUsed; // Time of the last recorded use, in epoch milliseconds
+        private volatile long checked; // Time the user was last loaded, in epoch milliseconds
+
+        private Session(String token, User user, long created) {
+            this.token = token;
+            this.user = user;
+            this.created = created;
+            this.lastUsed = created;
+            this.checked = created;
+        }
+
+        private void touch(long now) {
+            if (now - lastUsed >= TOUCH_INTERVAL) {
+                lastUsed = now; // Racing updates all write a current time, so no lock is needed
+            }
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getLastUsed() {
+            return lastUsed;
+        }
+
+        @Override
+        public String toString() {
+            return "Session of " + user.getUsername() + " (" + user.getRole() + ")"; // The token is never printed
+        }
+    }
+}
@@ -4,24 +4,34 @@
  */
 package services;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
+import dao.DAOFactory;
+import dao.PagedIterator;
+import dao.UserDAO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import models.User;
-import database.DatabaseConnection;
+import models.UserBatchResult;
 
 /**
  *
  * @author Gytis
  *
  * Service class for managing user-related operations in the application.
- * It handles adding, updating, and deleting users, as well as fetching users from the database.
+ * It handles adding, updating, and deleting users, as well as fetching users from the user store.
+ * Storage is delegated to the UserDAO selected by DAOFactory.
  */
 public class UserManager {
+
+    private final UserDAO userDAO = DAOFactory.getUserDAO();
     
     /**
      * Constructor for UserManager.
@@ -50,29 +60,39 @@ public class UserManager {
      * @return A User object representing the newly added user or null if the operation fails.
      */
     public User addUser(String username, String password, String role) {
-        // SQL statement to insert a new user into the database
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, username);
-            pstmt.setString(2, password);
-            pstmt.setString(3, role);
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        // Return a new User object with the generated key (userId)
-                        return new User(generatedKeys.getInt(1), username, password, role);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            System.out.println("Error adding user: " + e.getMessage());
+        return userDAO.insertUser(username, password, role);
+    }
+
+    /**
+     * Adds many users at once, in batches inside a single transaction. Rows that cannot be
+     * added (missing fields, duplicate usernames) are reported in the result and do not
+     * prevent the other users from being added.
+     * 
+     * @param users The users to add; their user IDs are ignored.
+     * @return The created users with their generated IDs, and the rejected rows.
+     */
+    public UserBatchResult addUsers(Collection<User> users) {
+        return userDAO.insertUsers(users.iterator(), true);
+    }
+
+    /**
+     * Adds users from a CSV file with the columns username, password and role (an optional
+     * header row with these names is skipped). The file is read as the rows are inserted,
+     * so memory use stays flat however large it is; created users are therefore only
+     * counted, not returned. Failure row numbers count data rows, starting at 1.
+     * 
+     * @param csvPath The path of the CSV file.
+     * @return A summary of the import and the rejected rows.
+     */
+    public UserBatchResult importUsersFromCsv(String csvPath) {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvPath), StandardCharsets.UTF_8)) {
+            return userDAO.insertUsers(new CsvUserIterator(reader), false);
+        } catch (IOException e) {
+            // The file could not be opened or closed; read errors part-way are recorded by the DAO
+            UserBatchResult result = new UserBatchResult(false);
+            result.rollBack("Error reading " + csvPath + ": " + e.getClass().getSimpleName() + " " + e.getMessage());
+            return result;
         }
-        return null; // Return null if user creation failed
     }
 
     /**
@@ -108,6 +128,19 @@ public class UserManager {
         return false;
     }
 
+    /**
+     * Updates the credentials of the user logged in to the given session.
+     * The session stays valid and keeps the user's role.
+     * 
+     * @param session The session of the user changing their own credentials.
+     * @param newUsername The new username for the user.
+     * @param newPassword The new password for the user.
+     * @return true if the update was successful; false otherwise.
+     */
+    public boolean updateOwnCredentials(SessionRegistry.Session session, String newUsername, String newPassword) {
+        return updateUserCredentials(session.getUser().getUserId(), newUsername, newPassword);
+    }
+
     /**
      * Deletes a user from the system identified by userId.
      * 
@@ -115,83 +148,41 @@ public class UserManager {
      * @return true if the deletion was successful; false otherwise.
      */
     public boolean deleteUser(int userId) {
-        // SQL statement to delete a user from the database
-        String sql = "DELETE FROM users WHERE user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0; // Return true if at least one row was affected
-        } catch (SQLException e) {
-            System.out.println("Error deleting user: " + e.getMessage());
-            return false;
-        }
+        return userDAO.deleteUser(userId);
     }
 
     /**
-     * Checks if a user exists in the database based on the provided username.
+     * Checks if a user exists based on the provided username.
      *
      * @param username The username to check for existence.
      * @return true if the user exists, false otherwise.
      */
     private boolean doesUserExist(String username) {
-        String sql = "SELECT user_id FROM users WHERE username = ?";
-        try ( Connection conn = DatabaseConnection.getConnection();  PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next(); // Returns true if there is at least one result, indicating user existence
-        } catch (SQLException e) {
-            System.out.println("Error checking user existence: " + e.getMessage());
-            return false;
-        }
+        return userDAO.existsByUsername(username);
     }
 
     /**
-     * Fetches a user from the database by their user ID.
+     * Fetches a user by their user ID.
      *
      * @param userId The ID of the user to fetch.
      * @return A User object if found, null otherwise.
      */
-    private User fetchUserById(int userId) {
-        String sql = "SELECT * FROM users WHERE user_id = ?";
-        try ( Connection conn = DatabaseConnection.getConnection();  PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new User(rs.getInt("user_id"), rs.getString("username"),
-                        rs.getString("password"), rs.getString("role"));
-            }
-        } catch (SQLException e) {
-            System.out.println("Error fetching user: " + e.getMessage());
-        }
-        return null;
+    public User fetchUserById(int userId) {
+        return userDAO.getUserById(userId);
     }
 
     /**
-     * Fetches a user from the database by their username.
+     * Fetches a user by their username.
      *
      * @param username The username of the user to fetch.
      * @return A User object if found, null otherwise.
      */
     public User fetchUserByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-        try ( Connection conn = DatabaseConnection.getConnection();  PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new User(rs.getInt("user_id"), rs.getString("username"),
-                        rs.getString("password"), rs.getString("role"));
-            }
-        } catch (SQLException e) {
-            System.out.println("Error fetching user by username: " + e.getMessage());
-        }
-        return null;
+        return userDAO.getUserByUsername(username);
     }
 
     /**
-     * Updates a user's information in the database.
+     * Updates a user's information in the user store.
      *
      * @param userId The ID of the user to update.
      * @param newUsername The new username for the user.
@@ -200,36 +191,125 @@ public class UserManager {
      * @return true if the update was successful, false otherwise.
      */
     private boolean updateUser(int userId, String newUsername, String newPassword, String newRole) {
-        String sql = "UPDATE users SET username = ?, password = ?, role = ? WHERE user_id = ?";
-        try ( Connection conn = DatabaseConnection.getConnection();  PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newUsername);
-            pstmt.setString(2, newPassword);
-            pstmt.setString(3, newRole);
-            pstmt.setInt(4, userId);
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0; // Returns true if at least one row was updated
-        } catch (SQLException e) {
-            System.out.println("Error updating user: " + e.getMessage());
-            return false;
-        }
+        return userDAO.updateUser(userId, newUsername, newPassword, newRole);
     }
 
     /**
-     * Fetches all users from the database.
+     * Fetches all users at once. For large user tables prefer fetchUsersPage or
+     * iterateUsers, which never hold more than one page in memory.
      *
      * @return A List of User objects representing all users.
      */
     public List<User> fetchAllUsers() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT user_id, username, role FROM users";
-        try ( Connection conn = DatabaseConnection.getConnection();  PreparedStatement pstmt = conn.prepareStatement(sql);  ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                // Password is intentionally not fetched for security reasons
-                users.add(new User(rs.getInt("user_id"), rs.getString("username"), null, rs.getString("role")));
+        return userDAO.getAllUsers();
+    }
+
+    /**
+     * Fetches one page of users in user ID order, using keyset pagination.
+     *
+     * @param afterUserId The last user ID of the previous page, or 0 for the first page.
+     * @param pageSize The maximum number of users to return.
+     * @return The users on the page; fewer than pageSize means it is the last page.
+     */
+    public List<User> fetchUsersPage(int afterUserId, int pageSize) {
+        return userDAO.getUsersAfter(afterUserId, pageSize);
+    }
+
+    /**
+     * Iterates over all users in user ID order, fetching the next page only when the
+     * previous one has been consumed.
+     *
+     * @param pageSize The number of users fetched per page.
+     * @return A lazy Iterator over all users.
+     */
+    public Iterator<User> iterateUsers(int pageSize) {
+        return new PagedIterator<>(userDAO::getUsersAfter, User::getUserId, pageSize);
+    }
+
+    /**
+     * Splits one CSV line into fields, honouring double-quoted fields with "" escapes.
+     *
+     * @param line The line to split.
+     * @return The fields, unquoted and trimmed.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
             }
-        } catch (SQLException e) {
-            System.out.println("Error fetching users: " + e.getMessage());
         }
-        return users;
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Reads users lazily from CSV lines, one row per call to next(). Blank lines are skipped;
+     * rows with missing columns are passed on with null fields so they are reported as failures.
+     */
+    private static class CsvUserIterator implements Iterator<User> {
+        private final BufferedReader reader;
+        private User nextUser;
+        private boolean firstLine = true;
+
+        CsvUserIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextUser != null) {
+                return true;
+            }
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    List<String> fields = parseCsvLine(line);
+                    boolean header = firstLine && "username".equalsIgnoreCase(fields.get(0));
+                    firstLine = false;
+                    if (!header) {
+                        nextUser = new User(0, fields.get(0), field(fields, 1), field(fields, 2));
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            User user = nextUser;
+            nextUser = null;
+            return user;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index) : null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -6,8 +6,13 @@ package ui;
 
 import java.util.List;
 import java.util.Scanner;
+import dao.DAOFactory;
+import metrics.DAOMetrics;
+import models.EnrolmentCountCheck;
 import models.User;
+import models.UserBatchResult;
 import services.AuthenticationService;
+import services.SessionRegistry;
 import services.UserManager;
 
 /**
@@ -15,9 +20,12 @@ import services.UserManager;
  * @author Gytis
  *
  * Provides an interactive command-line menu for admin users, offering functionalities such as 
- * adding, modifying, and deleting users, changing own credentials, and printing a list of all users.
+ * adding, modifying, and deleting users, changing own credentials, printing a list of all users,
+ * importing users from CSV, viewing the data layer metrics and checking the enrolment counters.
  */
 public class AdminMenu {
+
+    private static final int USER_PAGE_SIZE = 20; // Users shown per page in the user listing
     
     private AuthenticationService authService;
     private UserManager userManager;
@@ -39,9 +47,10 @@ public class AdminMenu {
     /**
      * Displays the admin menu and handles user interactions.
      *
-     * @param user The User object representing the currently logged-in admin.
+     * @param session The session of the logged-in admin; ended when they log out.
      */
-    public void display(User user) {
+    public void display(SessionRegistry.Session session) {
+        User user = session.getUser();
         boolean exit = false;
         
         while(!exit){
@@ -53,6 +62,9 @@ public class AdminMenu {
             System.out.println("3. Delete User");
             System.out.println("4. Change Own Username/Password");
             System.out.println("5. Print All Users");
+            System.out.println("6. View Data Layer Metrics");
+            System.out.println("7. Import Users from CSV");
+            System.out.println("8. Check Enrolment Counters");
             System.out.println("0. Logout");
 
             System.out.print("Enter your choice: ");
@@ -71,12 +83,22 @@ public class AdminMenu {
                     deleteUser(); 
                     break;
                 case 4: 
-                    modifySelf(); 
+                    modifySelf(session); 
                     break;
                 case 5: 
                     printAllUsers(); 
                     break;
+                case 6: 
+                    printMetrics(); 
+                    break;
+                case 7: 
+                    importUsers(); 
+                    break;
+                case 8: 
+                    checkEnrolmentCounters(); 
+                    break;
                 case 0: 
+                    authService.logout(session);
                     System.out.println("Good bye..."); 
                     exit = true; 
                     break; // Exit the admin menu loop
@@ -152,18 +174,19 @@ public class AdminMenu {
     
     /**
      * Allows the currently logged-in user to change their own username and password.
+     *
+     * @param session The session of the logged-in admin.
      */
-    private void modifySelf() {
+    private void modifySelf(SessionRegistry.Session session) {
         
         System.out.print("Change Your Username and Password: \n");
-        int userId = authService.getCurrentUser().getUserId();
         System.out.print("Enter new username: ");
         String newUsername = input.nextLine();
         System.out.print("Enter new password: ");
         String newPassword = input.nextLine();
 
         // Attempt to update the user's credentials
-        boolean success = userManager.updateUserCredentials(userId, newUsername, newPassword);
+        boolean success = userManager.updateOwnCredentials(session, newUsername, newPassword);
         if (success) {
             System.out.println("Username and password updated successfully.");
         } else {
@@ -173,18 +196,76 @@ public class AdminMenu {
      
     /**
      * Prints a list of all users in the system, displaying their IDs, usernames, and roles.
+     * Users are fetched one page at a time, and the next page is only fetched when asked for.
      */
     private void printAllUsers() {
-        
-        List<User> users = userManager.fetchAllUsers();
-        if (users.isEmpty()) {
-            System.out.println("No users found.");
-        } else {
-            System.out.println("\nList of Users:");
-            System.out.printf("%-10s %-15s %s\n", "User ID", "Username", "Role");
+        int afterUserId = 0;
+        boolean first = true;
+        while (true) {
+            List<User> users = userManager.fetchUsersPage(afterUserId, USER_PAGE_SIZE);
+            if (first && users.isEmpty()) {
+                System.out.println("No users found.");
+                return;
+            }
+            if (first) {
+                System.out.println("\nList of Users:");
+                System.out.printf("%-10s %-15s %s\n", "User ID", "Username", "Role");
+                first = false;
+            }
             for (User user : users) {
                 System.out.printf("%-10d %-15s %s\n", user.getUserId(), user.getUsername(), user.getRole());
+                afterUserId = user.getUserId();
+            }
+            if (users.size() < USER_PAGE_SIZE) {
+                return; // Last page
+            }
+            System.out.print("Press Enter for more users, or q to stop: ");
+            if (input.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles a bulk import of users from a CSV file with username, password and role columns.
+     */
+    private void importUsers() {
+        System.out.print("Enter path of CSV file (username,password,role): ");
+        String path = input.nextLine();
+
+        UserBatchResult result = userManager.importUsersFromCsv(path);
+        System.out.println(result);
+        for (UserBatchResult.Failure failure : result.getFailures()) {
+            System.out.println("  " + failure);
+        }
+    }
+
+    /**
+     * Prints the call count, latency percentiles and rows returned for every DAO method
+     * used so far, with the most expensive methods first.
+     */
+    private void printMetrics() {
+        System.out.println("Data layer metrics (since startup):\n");
+        System.out.print(DAOMetrics.getInstance().dump());
+    }
+
+    /**
+     * Reconciles the maintained per-module enrolment counters against the enrolments and,
+     * if any are wrong, offers to repair them.
+     */
+    private void checkEnrolmentCounters() {
+        EnrolmentCountCheck check = DAOFactory.getEnrolmentDAO().checkEnrolmentCounts(false);
+        System.out.println(check);
+        for (EnrolmentCountCheck.Mismatch mismatch : check.getMismatches()) {
+            System.out.println("  " + mismatch);
+        }
+        if (check.getError() != null || check.getMismatches().isEmpty()) {
+            return;
+        }
+        System.out.print("Repair the wrong counters? (y/n): ");
+        if (input.nextLine().trim().equalsIgnoreCase("y")) {
+            // Checked again, as enrolments may have changed since
+            System.out.println(DAOFactory.getEnrolmentDAO().checkEnrolmentCounts(true));
+        }
+    }
+}
@@ -7,7 +7,10 @@ package ui;
 import java.util.Scanner;
 import models.User;
 import services.AuthenticationService;
+import services.ReportScheduler;
 import services.ReportService;
+import services.ReportSnapshots;
+import services.SessionRegistry;
 import services.UserManager;
 
 /**
@@ -21,6 +24,7 @@ public class LecturerMenu {
     private AuthenticationService authService;
     private UserManager userManager;
     private ReportService reportService;
+    private SnapshotPrompt snapshotPrompt;
     private Scanner input;
 
     /**
@@ -33,6 +37,7 @@ public class LecturerMenu {
      */
     public LecturerMenu(ReportService reportService, Scanner input, AuthenticationService authService, UserManager userManager) {
         this.reportService = reportService;
+        this.snapshotPrompt = new SnapshotPrompt(ReportScheduler.getInstance().getSnapshots(), input);
         this.input = input;
         this.authService = authService;
         this.userManager = userManager;
@@ -41,9 +46,10 @@ public class LecturerMenu {
     /**
      * Displays the menu for lecturer users and handles their interactions.
      *
-     * @param user The User object representing the currently logged-in lecturer.
+     * @param session The session of the logged-in lecturer; ended when they log out.
      */
-    public void display(User user) {
+    public void display(SessionRegistry.Session session) {
+        User user = session.getUser();
         boolean exit = false;
         
         while(!exit){
@@ -62,18 +68,23 @@ public class LecturerMenu {
             switch (choice) {
                 case 1:
                     // Report generation
-                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV");
+                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV, [4] TXT (gzip), [5] CSV (gzip)");
                     int formatChoice = input.nextInt();
                     input.nextLine(); // Consume newline
                     String format = getFormatFromChoice(formatChoice);
-                    reportService.generateLecturerReportForSelf(user.getUserId(), format);
+                    // From the latest snapshot if the user takes it
+                    int lecturerId = user.getUserId();
+                    if (!snapshotPrompt.serve(ReportSnapshots.LECTURERS, "LecturerSelfReport_" + lecturerId, format, "LecturerSelfReport_" + lecturerId + "_")) {
+                        reportService.generateLecturerReportForSelf(session, format);
+                    }
                     break;
                 case 2:
                     // Modify self credentials
-                    modifySelf();
+                    modifySelf(session);
                     break;
                 case 0:
                     // Exit the menu
+                    authService.logout(session);
                     System.out.println("Good bye...");
                     exit = true;
                     break;
@@ -86,17 +97,18 @@ public class LecturerMenu {
 
     /**
      * Allows the currently logged-in lecturer to change their own username and password.
+     *
+     * @param session The session of the logged-in lecturer.
      */
-    private void modifySelf() {
+    private void modifySelf(SessionRegistry.Session session) {
         System.out.print("Change Your Username and Password: \n");
-        int userId = authService.getCurrentUser().getUserId();
         System.out.print("Enter new username: ");
         String newUsername = input.nextLine();
         System.out.print("Enter new password: ");
         String newPassword = input.nextLine();
 
         // Attempt to update credentials
-        boolean success = userManager.updateUserCredentials(userId, newUsername, newPassword);
+        boolean success = userManager.updateOwnCredentials(session, newUsername, newPassword);
         
         if (success) {
             System.out.println("Username and password updated successfully.");
@@ -116,6 +128,8 @@ public class LecturerMenu {
             case 1: return "console";
             case 2: return "txt";
             case 3: return "csv";
+            case 4: return "txt.gz";
+            case 5: return "csv.gz";
             default:
                 System.out.println("Invalid format selected. Defaulting to console.");
                 return "console";
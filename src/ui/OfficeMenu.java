@@ -4,10 +4,17 @@
  */
 package ui;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import models.BulkReportResult;
 import models.User;
 import services.AuthenticationService;
+import services.BulkReportService;
+import services.ReportScheduler;
 import services.ReportService;
+import services.ReportSnapshots;
+import services.SessionRegistry;
 import services.UserManager;
 
 /**
@@ -23,6 +30,8 @@ public class OfficeMenu {
     private AuthenticationService authService;
     private UserManager userManager;
     private ReportService reportService;
+    private BulkReportService bulkReportService;
+    private SnapshotPrompt snapshotPrompt;
     private Scanner input;
 
     /**
@@ -35,6 +44,8 @@ public class OfficeMenu {
      */
     public OfficeMenu(ReportService reportService, Scanner input, AuthenticationService authService, UserManager userManager) {
         this.reportService = reportService;
+        this.bulkReportService = new BulkReportService(reportService);
+        this.snapshotPrompt = new SnapshotPrompt(ReportScheduler.getInstance().getSnapshots(), input);
         this.input = input;
         this.authService = authService;
         this.userManager = userManager;
@@ -45,9 +56,10 @@ public class OfficeMenu {
      * This method facilitates various functionalities including generating different types
      * of reports and changing the current user's username and password.
      * 
-     * @param user The currently logged-in user.
+     * @param session The session of the logged-in user; ended when they log out.
      */
-    public void display(User user) {
+    public void display(SessionRegistry.Session session) {
+        User user = session.getUser();
         
         boolean exit = false;
         
@@ -59,6 +71,9 @@ public class OfficeMenu {
             System.out.println("2. Generate Student Report");
             System.out.println("3. Generate Lecturer Report");
             System.out.println("4. Change Own Username/Password");
+            System.out.println("5. Generate Student Reports in Bulk");
+            System.out.println("6. Generate Lecturer Reports in Bulk");
+            System.out.println("7. Build Report Snapshot Now");
             System.out.println("0. Logout");
             // Get user choice
             System.out.print("Enter your choice: ");
@@ -69,40 +84,62 @@ public class OfficeMenu {
             switch (choice) {
                 case 1:
                     // Report generation
-                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV");
+                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV, [4] TXT (gzip), [5] CSV (gzip)");
                     int formatChoice = input.nextInt();
                     input.nextLine(); // Consume newline
                     String format = getFormatFromChoice(formatChoice);
-                    // Course report
-                    reportService.generateCourseReport(format);
+                    // Course report, from the latest snapshot if the user takes it
+                    if (!snapshotPrompt.serve(null, "CourseReport", format, "CourseReport_")) {
+                        reportService.generateCourseReport(format);
+                    }
                     break;
                 case 2:
                     // Report generation
-                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV");
+                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV, [4] TXT (gzip), [5] CSV (gzip)");
                     formatChoice = input.nextInt();
                     input.nextLine(); // Consume newline
                     format = getFormatFromChoice(formatChoice);
                     System.out.print("Enter student ID: ");
                     int studentID = input.nextInt();
-                    // Student report
-                    reportService.generateStudentReport(studentID, format);
+                    input.nextLine(); // Consume newline
+                    // Student report, from the latest snapshot if the user takes it
+                    if (!snapshotPrompt.serve(ReportSnapshots.STUDENTS, "StudentReport_" + studentID, format, "StudentReport_" + studentID + "_")) {
+                        reportService.generateStudentReport(studentID, format);
+                    }
                     break;
                 case 3:
                     // Report generation
-                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV");
+                    System.out.println("Select report format: [1] Console, [2] TXT, [3] CSV, [4] TXT (gzip), [5] CSV (gzip)");
                     formatChoice = input.nextInt();
                     input.nextLine(); // Consume newline
                     format = getFormatFromChoice(formatChoice);
                     System.out.print("Enter lecturer ID: ");
                     int lecturerID = input.nextInt();
-                    // Lecturer report
-                    reportService.generateLecturerReport(lecturerID, format);
+                    input.nextLine(); // Consume newline
+                    // Lecturer report, from the latest snapshot if the user takes it
+                    if (!snapshotPrompt.serve(ReportSnapshots.LECTURERS, "LecturerReport_" + lecturerID, format, "LecturerReport_" + lecturerID + "_")) {
+                        reportService.generateLecturerReport(lecturerID, format);
+                    }
                     break;
                 case 4:
                     // Modify self credentials
-                    modifySelf();
+                    modifySelf(session);
+                    break;
+                case 5:
+                    // Reports for all or selected students
+                    generateBulkReports(true);
+                    break;
+                case 6:
+                    // Reports for all or selected lecturers
+                    generateBulkReports(false);
+                    break;
+                case 7:
+                    // Snapshot build in the background; the menu stays usable meanwhile
+                    ReportScheduler.getInstance().runNow();
+                    System.out.println("Snapshot build started in the background.");
                     break;
                 case 0:
+                    authService.logout(session);
                     System.out.println("Good bye...");
                     exit = true; // Exit the office menu loop
                     break;
@@ -116,11 +153,12 @@ public class OfficeMenu {
     /**
      * Allows the current user to change their username and password.
      * This method prompts the user for new credentials and updates them if valid.
+     * 
+     * @param session The session of the logged-in user.
      */
-    private void modifySelf() {
+    private void modifySelf(SessionRegistry.Session session) {
         
         System.out.print("Change Your Username and Password: \n");
-        int userId = authService.getCurrentUser().getUserId();
         // Prompting for new username and password
         System.out.print("Enter new username: ");
         String newUsername = input.nextLine();
@@ -128,7 +166,7 @@ public class OfficeMenu {
         String newPassword = input.nextLine();
 
         // Attempt to update the user credentials
-        boolean success = userManager.updateUserCredentials(userId, newUsername, newPassword);  
+        boolean success = userManager.updateOwnCredentials(session, newUsername, newPassword);  
         // Feedback to the user
         if (success) {
             System.out.println("Username and password updated successfully.");
@@ -138,6 +176,75 @@ public class OfficeMenu {
         }
     }
     
+    /**
+     * Handles a bulk report run: asks for the IDs, file format and output, then writes the
+     * reports across the worker pool, printing progress as it goes.
+     *
+     * @param students true for student reports, false for lecturer reports.
+     */
+    private void generateBulkReports(boolean students) {
+        String type = students ? "student" : "lecturer";
+        System.out.print("Enter " + type + " IDs separated by commas (leave blank for all): ");
+        List<Integer> ids = parseIds(input.nextLine());
+        System.out.println("Select report format: [2] TXT, [3] CSV, [4] TXT (gzip), [5] CSV (gzip)");
+        int formatChoice = input.nextInt();
+        input.nextLine(); // Consume newline
+        String format = getFormatFromChoice(formatChoice);
+        if ("console".equals(format)) {
+            System.out.println("Bulk reports are written to files; choose TXT or CSV.");
+            return;
+        }
+        System.out.println("Select output: [1] One file per " + type + ", [2] Single zip archive");
+        boolean archive = input.nextInt() == 2;
+        input.nextLine(); // Consume newline
+        System.out.print("Enter output directory: ");
+        String outputDir = input.nextLine().trim();
+        if (outputDir.isEmpty()) {
+            outputDir = "reports";
+        }
+
+        System.out.println("Generating " + type + " reports with " + BulkReportService.getWorkerCount() + " workers...");
+        BulkReportResult result = students
+                ? bulkReportService.generateStudentReports(ids, format, outputDir, archive, this::printProgress)
+                : bulkReportService.generateLecturerReports(ids, format, outputDir, archive, this::printProgress);
+        System.out.println(result);
+        for (BulkReportResult.Failure failure : result.getFailures()) {
+            System.out.println("  " + failure);
+        }
+    }
+
+    /**
+     * Prints the number of reports written every 500 reports.
+     *
+     * @param generated The number of reports written so far.
+     */
+    private void printProgress(int generated) {
+        if (generated % 500 == 0) {
+            System.out.println(generated + " reports written...");
+        }
+    }
+
+    /**
+     * Parses a comma-separated list of IDs, skipping anything that is not a number.
+     *
+     * @param line The text entered by the user.
+     * @return The IDs, or null if the line is blank (meaning all).
+     */
+    private static List<Integer> parseIds(String line) {
+        if (line.trim().isEmpty()) {
+            return null;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (String part : line.split(",")) {
+            try {
+                ids.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                System.out.println("Skipping invalid ID: " + part.trim());
+            }
+        }
+        return ids;
+    }
+
     /**
      * Translates a numerical choice into a report format string.
      * 
@@ -153,6 +260,10 @@ public class OfficeMenu {
                 return "txt";
             case 3: 
                 return "csv";
+            case 4: 
+                return "txt.gz";
+            case 5: 
+                return "csv.gz";
             default:
                 System.out.println("Invalid format selected. Defaulting to console.");
                 return "console";
@@ -0,0 +1,56 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ui;
+
+import java.nio.file.Path;
+import java.util.Scanner;
+import services.ReportSnapshots;
+
+/**
+ *
+ * @author Gytis
+ *
+ * Offers a report from the latest snapshot before the menus build it on demand. The user
+ * is told how old the snapshot is and whether the data has changed since, and can choose
+ * a fresh build instead.
+ */
+class SnapshotPrompt {
+
+    private final ReportSnapshots snapshots;
+    private final Scanner input;
+
+    /**
+     * Constructs a SnapshotPrompt.
+     *
+     * @param snapshots The snapshots reports are served from.
+     * @param input The Scanner object for reading user input.
+     */
+    SnapshotPrompt(ReportSnapshots snapshots, Scanner input) {
+        this.snapshots = snapshots;
+        this.input = input;
+    }
+
+    /**
+     * Serves a report from the latest snapshot if it has one and the user accepts it.
+     *
+     * @param subdir ReportSnapshots.STUDENTS, ReportSnapshots.LECTURERS, or null for the course report.
+     * @param name The report name in the snapshot, e.g. "StudentReport_12".
+     * @param format The requested format.
+     * @param filenamePrefix The prefix of the file written for the user, e.g. "StudentReport_12_".
+     * @return true if the report was served from the snapshot, false if it should be built.
+     */
+    boolean serve(String subdir, String name, String format, String filenamePrefix) {
+        ReportSnapshots.Snapshot snapshot = snapshots.latest();
+        Path file = snapshot == null ? null : snapshot.find(subdir, name, format);
+        if (file == null) {
+            return false;
+        }
+        String note = snapshots.isStale(snapshot) ? " (data has changed since)" : " (up to date)";
+        System.out.println(snapshot + note + ": [1] Use snapshot, [2] Build fresh report");
+        int choice = input.nextInt();
+        input.nextLine(); // Consume newline
+        return choice != 2 && snapshot.serve(file, format, filenamePrefix);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package util;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A hash map from primitive int keys to primitive int values.
+ * Uses open addressing with linear probing over two parallel arrays, so lookups and
+ * inserts do not box keys or values into Integer objects. Not thread-safe.
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY_KEY = 0; // Marks a free slot; key 0 is stored separately
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int size; // Number of entries stored in the arrays (excluding key 0)
+    private int mask;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /**
+     * Creates an empty map with a small default capacity.
+     */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map sized to hold the expected number of entries without resizing.
+     *
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(int key, int value) {
+        if (key == EMPTY_KEY) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = indexOf(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Returns the value stored for the key, or the supplied default if the key is absent.
+     *
+     * @param key The key to look up.
+     * @param defaultValue The value to return when the key is not present.
+     * @return The stored value or defaultValue.
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = indexOf(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Checks whether the key is present in the map.
+     *
+     * @param key The key to check.
+     * @return true if the map holds a value for the key.
+     */
+    public boolean containsKey(int key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey;
+        }
+        return keys[indexOf(key)] == key;
+    }
+
+    /**
+     * Removes the entry for the key, if present.
+     *
+     * @param key The key to remove.
+     * @return true if an entry was removed.
+     */
+    public boolean remove(int key) {
+        if (key == EMPTY_KEY) {
+            boolean had = hasZeroKey;
+            hasZeroKey = false;
+            return had;
+        }
+        int slot = indexOf(key);
+        if (keys[slot] != key) {
+            return false;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY_KEY) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY_KEY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Checks whether the map is empty.
+     *
+     * @return true if the map holds no entries.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes every entry from the map while keeping its current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order. The map must not be
+     * modified while it is being iterated.
+     *
+     * @param consumer Receives each key and its value.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY_KEY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot holding the key, or the free slot where it would be inserted.
+     */
+    private int indexOf(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[newCapacity];
+        values = new int[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads sequential database IDs across the table (Murmur3 finalizer step).
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Receives the entries of an IntIntHashMap without boxing them.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Accepts one entry.
+         *
+         * @param key The entry's key.
+         * @param value The entry's value.
+         */
+        void accept(int key, int value);
+    }
+}
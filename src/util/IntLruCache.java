@@ -0,0 +1,235 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Gytis
+ *
+ * A bounded, thread-safe cache from primitive int keys to values.
+ * Entries are evicted in least-recently-used order once the cache is full, and expire a
+ * fixed time after they were stored. Entries live in preallocated parallel arrays linked
+ * into a recency list, with an IntIntHashMap from key to slot, so lookups never box keys.
+ *
+ * @param <V> The type of the cached values.
+ */
+public class IntLruCache<V> {
+
+    private static final int NIL = -1; // End of the recency list / free list
+
+    private final String name; // Used in statistics output
+    private final int capacity;
+    private final long ttlNanos;
+
+    private final IntIntHashMap slotByKey;
+    private final int[] keys;
+    private final Object[] values;
+    private final long[] expiresAt;
+    private final int[] prev; // Towards the most recently used entry
+    private final int[] next; // Towards the least recently used entry
+    private int head = NIL; // Most recently used
+    private int tail = NIL; // Least recently used
+    private int freeList; // Chain of unused slots through next[]
+
+    // Statistics guarded by this
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param name A short name identifying the cache in statistics output.
+     * @param capacity The maximum number of entries held at once.
+     * @param ttl How long an entry stays valid after it is stored.
+     * @param unit The unit of ttl.
+     */
+    public IntLruCache(String name, int capacity, long ttl, TimeUnit unit) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.slotByKey = new IntIntHashMap(capacity);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.expiresAt = new long[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        resetFreeList();
+    }
+
+    /**
+     * Returns the cached value for the key and marks it as most recently used.
+     *
+     * @param key The key to look up.
+     * @return The cached value, or null if the key is absent or its entry has expired.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(int key) {
+        int slot = slotByKey.getOrDefault(key, NIL);
+        if (slot == NIL) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - expiresAt[slot] >= 0) {
+            removeSlot(slot);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        moveToFront(slot);
+        return (V) values[slot];
+    }
+
+    /**
+     * Stores a value for the key, evicting the least recently used entry if the cache is full.
+     *
+     * @param key The key.
+     * @param value The value to cache; must not be null.
+     */
+    public synchronized void put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot cache a null value");
+        }
+        int slot = slotByKey.getOrDefault(key, NIL);
+        if (slot == NIL) {
+            if (freeList == NIL) {
+                removeSlot(tail);
+                evictions++;
+            }
+            slot = freeList;
+            freeList = next[slot];
+            keys[slot] = key;
+            slotByKey.put(key, slot);
+            linkAtFront(slot);
+        } else {
+            moveToFront(slot);
+        }
+        values[slot] = value;
+        expiresAt[slot] = System.nanoTime() + ttlNanos;
+    }
+
+    /**
+     * Removes the entry for the key, if present.
+     *
+     * @param key The key to invalidate.
+     */
+    public synchronized void invalidate(int key) {
+        int slot = slotByKey.getOrDefault(key, NIL);
+        if (slot != NIL) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache. Statistics are kept.
+     */
+    public synchronized void invalidateAll() {
+        slotByKey.clear();
+        Arrays.fill(values, null);
+        head = NIL;
+        tail = NIL;
+        resetFreeList();
+    }
+
+    /**
+     * Returns the number of entries currently held, including any that have expired
+     * but not yet been looked up.
+     *
+     * @return The entry count.
+     */
+    public synchronized int size() {
+        return slotByKey.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getExpirationCount() {
+        return expirations;
+    }
+
+    /**
+     * Returns the fraction of lookups that were served from the cache.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if there were no lookups yet.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s[size=%d/%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, expired=%d]",
+                name, slotByKey.size(), capacity, hits, misses, getHitRatio(), evictions, expirations);
+    }
+
+    private void removeSlot(int slot) {
+        unlink(slot);
+        slotByKey.remove(keys[slot]);
+        values[slot] = null; // Let the value be garbage collected
+        next[slot] = freeList;
+        freeList = slot;
+    }
+
+    private void moveToFront(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkAtFront(slot);
+        }
+    }
+
+    private void linkAtFront(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NIL) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void resetFreeList() {
+        for (int i = 0; i < capacity - 1; i++) {
+            next[i] = i + 1;
+        }
+        next[capacity - 1] = NIL;
+        freeList = 0;
+    }
+}